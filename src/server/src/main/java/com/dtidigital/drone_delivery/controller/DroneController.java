@@ -9,7 +9,10 @@ import org.springframework.web.bind.annotation.*;
 import com.dtidigital.drone_delivery.dto.DroneDTO;
 import com.dtidigital.drone_delivery.model.Drone;
 import com.dtidigital.drone_delivery.model.ZonaExclusao;
+import com.dtidigital.drone_delivery.service.Despacho;
 import com.dtidigital.drone_delivery.service.DroneService;
+import com.dtidigital.drone_delivery.service.OpcoesPlanejamento;
+import com.dtidigital.drone_delivery.service.PlanoAlocacao;
 
 @RestController
 @RequestMapping("/api/drones")
@@ -35,13 +38,67 @@ public class DroneController {
 
     @GetMapping
     public ResponseEntity<List<Drone>> listarDrones() {
-        return ResponseEntity.ok(droneService.getDrones());
+        return ResponseEntity.ok(droneService.getFotografia().getDrones());
     }
 
     @PostMapping("/simular")
-    public ResponseEntity<String> simularEntregas() {
-        droneService.simularEntrega();
-        return ResponseEntity.ok("Simulação executada.");
+    public ResponseEntity<Map<String, Object>> simularEntregas(@RequestParam(required = false) Long prazoMs,
+                                                               @RequestParam(required = false) Double alvoKmPorEntrega) {
+        OpcoesPlanejamento opcoes = null;
+        if (prazoMs != null || alvoKmPorEntrega != null) {
+            try {
+                opcoes = new OpcoesPlanejamento(prazoMs, alvoKmPorEntrega);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("mensagem", e.getMessage()));
+            }
+        }
+        // As missões seguem em segundo plano; o andamento é consultado pelo ID do despacho
+        Despacho despacho;
+        try {
+            despacho = droneService.despacharEntregas(opcoes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("mensagem", e.getMessage()));
+        }
+        return ResponseEntity.ok(Map.of(
+            "mensagem", "Simulação iniciada.",
+            "despachoId", despacho.getId(),
+            "missoes", despacho.getTotalMissoes(),
+            "pedidosDespachados", despacho.getPedidosDespachados(),
+            "status", despacho.getStatus(),
+            "duracaoMs", despacho.getDuracaoMs(),
+            "replanejadoNaEscritora", despacho.isReplanejadoNaEscritora()
+        ));
+    }
+
+    /**
+     * Melhor plano de alocação até o momento, com custo e curva de melhoria
+     */
+    @GetMapping("/planejamento")
+    public ResponseEntity<PlanoAlocacao> buscarPlanejamento() {
+        PlanoAlocacao plano = droneService.getUltimoPlano();
+        if (plano != null) {
+            return ResponseEntity.ok(plano);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Janela de consolidação em vigor e a troca obtida entre espera e pedidos por missão
+     */
+    @GetMapping("/lote")
+    public ResponseEntity<Map<String, Object>> buscarRelatorioLote() {
+        return ResponseEntity.ok(droneService.getRelatorioLote());
+    }
+
+    @GetMapping("/despachos/{despachoId}")
+    public ResponseEntity<Despacho> buscarDespacho(@PathVariable String despachoId) {
+        Despacho despacho = droneService.buscarDespacho(despachoId);
+        if (despacho != null) {
+            return ResponseEntity.ok(despacho);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @PostMapping("/recarregar/{droneId}")
@@ -62,7 +119,7 @@ public class DroneController {
 
     @GetMapping("/status-bateria")
     public ResponseEntity<Map<String, Object>> getStatusBateria() {
-        return ResponseEntity.ok(droneService.getStatusBateria());
+        return ResponseEntity.ok(droneService.getFotografia().getStatusBateria());
     }
 
     @PostMapping("/forcar-retorno/{droneId}")
@@ -77,7 +134,7 @@ public class DroneController {
 
     @GetMapping("/zonas-exclusao")
     public ResponseEntity<List<ZonaExclusao>> listarZonasExclusao() {
-        return ResponseEntity.ok(droneService.getZonasExclusao());
+        return ResponseEntity.ok(droneService.getFotografia().getZonas());
     }
 
     @PostMapping("/zonas-exclusao")
@@ -122,7 +179,7 @@ public class DroneController {
     
     @GetMapping("/zonas-exclusao/{zonaId}")
     public ResponseEntity<ZonaExclusao> buscarZonaExclusao(@PathVariable String zonaId) {
-        ZonaExclusao zona = droneService.buscarZonaExclusao(zonaId);
+        ZonaExclusao zona = droneService.getFotografia().buscarZona(zonaId);
         if (zona != null) {
             return ResponseEntity.ok(zona);
         } else {
@@ -137,6 +194,14 @@ public class DroneController {
         return ResponseEntity.ok(droneService.calcularRotaComInfo(xInicio, yInicio, xDestino, yDestino));
     }
     
+    /**
+     * Acertos, falhas, despejos e invalidações do cache de rotas seguras
+     */
+    @GetMapping("/calcular-rota/cache")
+    public ResponseEntity<Map<String, Object>> buscarEstatisticasCacheRotas() {
+        return ResponseEntity.ok(droneService.getEstatisticasCacheRotas());
+    }
+    
     @PutMapping("/{droneId}")
     public ResponseEntity<String> editarDrone(@PathVariable String droneId, @RequestBody @Valid DroneDTO dto) {
         boolean sucesso = droneService.editarDrone(droneId, dto.getCapacidade(), dto.getAutonomia());
@@ -159,7 +224,7 @@ public class DroneController {
     
     @GetMapping("/{droneId}")
     public ResponseEntity<Drone> buscarDrone(@PathVariable String droneId) {
-        Drone drone = droneService.buscarDrone(droneId);
+        Drone drone = droneService.getFotografia().buscarDrone(droneId);
         if (drone != null) {
             return ResponseEntity.ok(drone);
         } else {
@@ -1,13 +1,28 @@
 package com.dtidigital.drone_delivery.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.dtidigital.drone_delivery.dto.PedidoDTO;
+import com.dtidigital.drone_delivery.dto.ResultadoLoteItemDTO;
 import com.dtidigital.drone_delivery.model.Pedido;
 import com.dtidigital.drone_delivery.model.Entrega;
 import com.dtidigital.drone_delivery.service.DroneService;
@@ -23,9 +38,13 @@ import com.dtidigital.drone_delivery.service.DroneService;
 public class PedidoController {
 
     private final DroneService droneService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
-    public PedidoController(DroneService droneService) {
+    public PedidoController(DroneService droneService, ObjectMapper objectMapper, Validator validator) {
         this.droneService = droneService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     @PostMapping
@@ -46,19 +65,99 @@ public class PedidoController {
         }
     }
 
+    /**
+     * Recebe um lote de pedidos como array JSON ou NDJSON (um pedido por linha).
+     * O corpo é lido em streaming, cada item é validado individualmente e os aceitos
+     * entram na fila em uma única operação.
+     */
+    @PostMapping(value = "/lote", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<Map<String, Object>> criarPedidosEmLote(InputStream corpo) throws IOException {
+        List<ResultadoLoteItemDTO> resultados = new ArrayList<>();
+        List<Pedido> candidatos = new ArrayList<>();
+        List<Integer> indicesCandidatos = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(corpo)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            int indice = 0;
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode item = objectMapper.readTree(parser);
+                String motivo = converterItemLote(item, candidatos);
+                if (motivo != null) {
+                    resultados.add(ResultadoLoteItemDTO.rejeitado(indice, motivo));
+                } else {
+                    indicesCandidatos.add(indice);
+                }
+                indice++;
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(Map.of("erro", "JSON inválido no lote: " + e.getOriginalMessage()));
+        }
+
+        List<String> motivos = droneService.adicionarPedidosEmLote(candidatos);
+        for (int i = 0; i < candidatos.size(); i++) {
+            int indice = indicesCandidatos.get(i);
+            resultados.add(motivos.get(i) == null
+                ? ResultadoLoteItemDTO.aceito(indice, candidatos.get(i).getId())
+                : ResultadoLoteItemDTO.rejeitado(indice, motivos.get(i)));
+        }
+        resultados.sort((a, b) -> Integer.compare(a.getIndice(), b.getIndice()));
+
+        long aceitos = resultados.stream().filter(ResultadoLoteItemDTO::isAceito).count();
+        Map<String, Object> resposta = new LinkedHashMap<>();
+        resposta.put("total", resultados.size());
+        resposta.put("aceitos", aceitos);
+        resposta.put("rejeitados", resultados.size() - aceitos);
+        resposta.put("resultados", resultados);
+        return ResponseEntity.ok(resposta);
+    }
+
+    /**
+     * Converte e valida um item do lote; retorna o motivo da rejeição ou null se válido
+     */
+    private String converterItemLote(JsonNode item, List<Pedido> candidatos) {
+        PedidoDTO dto;
+        try {
+            dto = objectMapper.treeToValue(item, PedidoDTO.class);
+        } catch (JsonProcessingException e) {
+            return "Item inválido: " + e.getOriginalMessage();
+        } catch (IllegalArgumentException e) {
+            return "Item inválido: " + e.getMessage();
+        }
+        if (dto == null) {
+            return "Item vazio";
+        }
+
+        Set<ConstraintViolation<PedidoDTO>> violacoes = validator.validate(dto);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        }
+
+        candidatos.add(new Pedido(dto.getCliente(), dto.getX(), dto.getY(), dto.getPeso(), dto.getPrioridade()));
+        return null;
+    }
+
     @GetMapping("/entregas")
     public ResponseEntity<List<Entrega>> listarEntregas() {
-        return ResponseEntity.ok(droneService.getEntregasRealizadas());
+        return ResponseEntity.ok(droneService.getFotografia().getEntregas());
     }
 
     @GetMapping("/fila")
     public ResponseEntity<List<Pedido>> listarFilaPedidos() {
-        return ResponseEntity.ok(droneService.getPedidosNaFila());
+        return ResponseEntity.ok(droneService.getFotografia().getFila());
     }
 
     @GetMapping("/pendentes")
     public ResponseEntity<List<Pedido>> listarPedidosPendentes() {
-        return ResponseEntity.ok(droneService.getPedidosNaFila());
+        return ResponseEntity.ok(droneService.getFotografia().getFila());
     }
 
     @GetMapping("/status/{pedidoId}")
@@ -69,7 +168,7 @@ public class PedidoController {
 
     @GetMapping("/estatisticas")
     public ResponseEntity<Map<String, Object>> obterEstatisticas() {
-        return ResponseEntity.ok(droneService.getEstatisticas());
+        return ResponseEntity.ok(droneService.getFotografia().getEstatisticas());
     }
     
     @PutMapping("/{pedidoId}")
@@ -5,6 +5,8 @@ import java.util.Map;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.dtidigital.drone_delivery.enums.ModoSimulacao;
+import com.dtidigital.drone_delivery.service.DroneService;
 import com.dtidigital.drone_delivery.service.SimuladorTempoReal;
 
 @RestController
@@ -18,9 +20,11 @@ import com.dtidigital.drone_delivery.service.SimuladorTempoReal;
 public class TempoRealController {
 
     private final SimuladorTempoReal simuladorTempoReal;
+    private final DroneService droneService;
 
-    public TempoRealController(SimuladorTempoReal simuladorTempoReal) {
+    public TempoRealController(SimuladorTempoReal simuladorTempoReal, DroneService droneService) {
         this.simuladorTempoReal = simuladorTempoReal;
+        this.droneService = droneService;
     }
 
     @PostMapping("/iniciar")
@@ -48,4 +52,27 @@ public class TempoRealController {
         simuladorTempoReal.simularEventosAleatorios();
         return ResponseEntity.ok("Simulação de eventos aleatórios iniciada.");
     }
+
+    @GetMapping("/simulacao")
+    public ResponseEntity<Map<String, Object>> obterStatusSimulacao() {
+        return ResponseEntity.ok(droneService.getSimulacao().getStatus());
+    }
+
+    @PutMapping("/simulacao/modo/{modo}")
+    public ResponseEntity<String> alterarModoSimulacao(@PathVariable String modo) {
+        try {
+            droneService.setModoSimulacao(ModoSimulacao.valueOf(modo.toUpperCase()));
+            return ResponseEntity.ok("Modo de simulação alterado para " + modo.toUpperCase() + ".");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Modo inválido. Use TEMPO_REAL ou VELOCIDADE_MAXIMA.");
+        }
+    }
+
+    @PostMapping("/simulacao/avancar")
+    public ResponseEntity<Map<String, Object>> avancarSimulacao(@RequestParam(defaultValue = "60") long minutos) {
+        if (minutos <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(droneService.getSimulacao().avancar(minutos * 60_000));
+    }
 }
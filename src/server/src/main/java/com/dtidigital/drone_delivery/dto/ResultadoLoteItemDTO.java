@@ -0,0 +1,29 @@
+package com.dtidigital.drone_delivery.dto;
+
+public class ResultadoLoteItemDTO {
+
+    private final int indice;
+    private final boolean aceito;
+    private final String pedidoId;
+    private final String motivo;
+
+    private ResultadoLoteItemDTO(int indice, boolean aceito, String pedidoId, String motivo) {
+        this.indice = indice;
+        this.aceito = aceito;
+        this.pedidoId = pedidoId;
+        this.motivo = motivo;
+    }
+
+    public static ResultadoLoteItemDTO aceito(int indice, String pedidoId) {
+        return new ResultadoLoteItemDTO(indice, true, pedidoId, null);
+    }
+
+    public static ResultadoLoteItemDTO rejeitado(int indice, String motivo) {
+        return new ResultadoLoteItemDTO(indice, false, null, motivo);
+    }
+
+    public int getIndice() { return indice; }
+    public boolean isAceito() { return aceito; }
+    public String getPedidoId() { return pedidoId; }
+    public String getMotivo() { return motivo; }
+}
@@ -0,0 +1,7 @@
+package com.dtidigital.drone_delivery.enums;
+
+public enum EstadoPedido {
+    NA_FILA,
+    EM_ENTREGA,
+    ENTREGUE
+}
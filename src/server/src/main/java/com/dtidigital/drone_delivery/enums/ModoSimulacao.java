@@ -0,0 +1,6 @@
+package com.dtidigital.drone_delivery.enums;
+
+public enum ModoSimulacao {
+    TEMPO_REAL,
+    VELOCIDADE_MAXIMA
+}
@@ -0,0 +1,6 @@
+package com.dtidigital.drone_delivery.enums;
+
+public enum MotorRota {
+    VISIBILIDADE,
+    GRADE
+}
@@ -0,0 +1,11 @@
+package com.dtidigital.drone_delivery.enums;
+
+public enum TipoEvento {
+    CARREGAMENTO,
+    DECOLAGEM,
+    CHEGADA,
+    ENTREGA,
+    RETORNO,
+    RECARGA_CONCLUIDA,
+    PERIODICO
+}
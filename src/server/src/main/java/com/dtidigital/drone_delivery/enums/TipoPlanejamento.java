@@ -0,0 +1,7 @@
+package com.dtidigital.drone_delivery.enums;
+
+public enum TipoPlanejamento {
+    IGNORADO,
+    INCREMENTAL,
+    COMPLETO
+}
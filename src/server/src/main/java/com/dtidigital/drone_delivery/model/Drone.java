@@ -14,7 +14,7 @@ public class Drone {
     private int posY;
     private EstadoDrone estado;
     private List<Pedido> pedidosAlocados = new ArrayList<>();
-    private long tempoInicioRecarga = 0; // Timestamp do início da recarga
+    private long tempoInicioRecarga = 0; // Instante (ms) do início da recarga
     private boolean emRecarga = false;
 
     public Drone(String id, double capacidadeMaxima, double autonomiaMaxima) {
@@ -27,6 +27,24 @@ public class Drone {
         this.posY = 0;
     }
 
+    /**
+     * Cópia independente do drone, usada nas fotografias publicadas para leitura
+     */
+    public Drone(Drone outro) {
+        this.id = outro.id;
+        this.capacidadeMaxima = outro.capacidadeMaxima;
+        this.autonomiaMaxima = outro.autonomiaMaxima;
+        this.bateriaAtual = outro.bateriaAtual;
+        this.posX = outro.posX;
+        this.posY = outro.posY;
+        this.estado = outro.estado;
+        this.tempoInicioRecarga = outro.tempoInicioRecarga;
+        this.emRecarga = outro.emRecarga;
+        for (Pedido pedido : outro.pedidosAlocados) {
+            this.pedidosAlocados.add(new Pedido(pedido));
+        }
+    }
+
     public String getId() {
         return id;
     }
@@ -100,11 +118,25 @@ public class Drone {
      * Inicia processo de recarga de emergência
      */
     public void iniciarRecarga() {
+        iniciarRecarga(System.currentTimeMillis());
+    }
+    
+    /**
+     * Inicia recarga no instante informado (relógio da simulação)
+     */
+    public void iniciarRecarga(long agora) {
         this.emRecarga = true;
-        this.tempoInicioRecarga = System.currentTimeMillis();
+        this.tempoInicioRecarga = agora;
         this.estado = EstadoDrone.CHARGING;
     }
     
+    /**
+     * Verifica se a recarga em andamento é a que foi iniciada no instante informado
+     */
+    public boolean isRecargaIniciadaEm(long instante) {
+        return emRecarga && tempoInicioRecarga == instante;
+    }
+    
     /**
      * Finaliza processo de recarga
      */
@@ -126,16 +158,30 @@ public class Drone {
      * Obtém tempo decorrido de recarga em minutos
      */
     public long getTempoRecargaMinutos() {
+        return getTempoRecargaMinutos(System.currentTimeMillis());
+    }
+    
+    /**
+     * Obtém tempo decorrido de recarga em minutos até o instante informado
+     */
+    public long getTempoRecargaMinutos(long agora) {
         if (!emRecarga) return 0;
-        return (System.currentTimeMillis() - tempoInicioRecarga) / 60000;
+        return Math.max(0, agora - tempoInicioRecarga) / 60000;
     }
     
     /**
      * Simula recarga parcial baseada no tempo
      */
     public void atualizarRecarga(double taxaRecargaPorMinuto) {
+        atualizarRecarga(taxaRecargaPorMinuto, System.currentTimeMillis());
+    }
+    
+    /**
+     * Simula recarga parcial baseada no tempo decorrido até o instante informado
+     */
+    public void atualizarRecarga(double taxaRecargaPorMinuto, long agora) {
         if (emRecarga && bateriaAtual < 100.0) {
-            long minutosDecorridos = getTempoRecargaMinutos();
+            long minutosDecorridos = getTempoRecargaMinutos(agora);
             this.bateriaAtual = Math.min(100.0, bateriaAtual + (taxaRecargaPorMinuto * minutosDecorridos));
             
             // Se recarga completa, finalizar automaticamente
@@ -26,6 +26,16 @@ public class Pedido {
         this("Cliente Anônimo", x, y, peso, prioridade);
     }
 
+    // Cópia com o mesmo ID, usada nas fotografias publicadas para leitura
+    public Pedido(Pedido outro) {
+        this.id = outro.id;
+        this.cliente = outro.cliente;
+        this.x = outro.x;
+        this.y = outro.y;
+        this.peso = outro.peso;
+        this.prioridade = outro.prioridade;
+    }
+
     public String getId() {
         return id;
     }
@@ -21,15 +21,47 @@ public class ZonaExclusao {
         this.motivo = motivo;
     }
 
+    // Cópia com o mesmo ID, usada nas fotografias publicadas para leitura
+    public ZonaExclusao(ZonaExclusao outra) {
+        this.id = outra.id;
+        this.x1 = outra.x1;
+        this.y1 = outra.y1;
+        this.x2 = outra.x2;
+        this.y2 = outra.y2;
+        this.nome = outra.nome;
+        this.motivo = outra.motivo;
+    }
+
     public boolean contemPonto(int x, int y) {
         return x >= x1 && x <= x2 && y >= y1 && y <= y2;
     }
 
+    /**
+     * Indica se o segmento toca o retângulo (bordas inclusas), pelo recorte de Liang-Barsky:
+     * o segmento é recortado contra cada lado e sobra algum trecho se entrada <= saída
+     */
     public boolean interceptaRota(int xInicio, int yInicio, int xFim, int yFim) {
-        // Verificação simples se a linha reta intercepta o retângulo
-        return contemPonto(xInicio, yInicio) || contemPonto(xFim, yFim) ||
-               (xInicio <= x1 && xFim >= x2 && yInicio >= y1 && yInicio <= y2) ||
-               (yInicio <= y1 && yFim >= y2 && xInicio >= x1 && xInicio <= x2);
+        double dx = (double) xFim - xInicio;
+        double dy = (double) yFim - yInicio;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {(double) xInicio - x1, (double) x2 - xInicio, (double) yInicio - y1, (double) y2 - yInicio};
+        double entrada = 0;
+        double saida = 1;
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) return false; // Paralelo ao lado e fora dele
+            } else {
+                double t = q[i] / p[i];
+                if (p[i] < 0) {
+                    if (t > saida) return false;
+                    entrada = Math.max(entrada, t);
+                } else {
+                    if (t < entrada) return false;
+                    saida = Math.min(saida, t);
+                }
+            }
+        }
+        return entrada <= saida;
     }
 
     // Getters
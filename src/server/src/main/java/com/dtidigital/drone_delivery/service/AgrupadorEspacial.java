@@ -0,0 +1,100 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dtidigital.drone_delivery.enums.Prioridade;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Pré-etapa da alocação para filas grandes: distribui os pedidos em células de uma grade
+ * e, dentro de cada célula, os reparte em agrupamentos cujo peso cabe em um drone.
+ * Os agrupamentos saem ordenados como os pedidos: prioridade mais alta primeiro e,
+ * no empate, mais próximos da base. Custo linear na fila (mais a ordenação).
+ */
+final class AgrupadorEspacial {
+
+    private final double tamanhoCelula;
+
+    AgrupadorEspacial(double tamanhoCelula) {
+        if (tamanhoCelula <= 0) {
+            throw new IllegalArgumentException("Tamanho da célula deve ser positivo");
+        }
+        this.tamanhoCelula = tamanhoCelula;
+    }
+
+    /**
+     * @param capacidade peso máximo de cada agrupamento (pedidos mais pesados ficam sozinhos)
+     */
+    List<Agrupamento> agrupar(List<Pedido> pedidos, double capacidade) {
+        Map<Long, List<Pedido>> celulas = new HashMap<>();
+        for (Pedido pedido : pedidos) {
+            long cx = (long) Math.floor(pedido.getX() / tamanhoCelula);
+            long cy = (long) Math.floor(pedido.getY() / tamanhoCelula);
+            celulas.computeIfAbsent((cx << 32) ^ (cy & 0xFFFFFFFFL), c -> new ArrayList<>()).add(pedido);
+        }
+
+        Comparator<Pedido> ordemNaCelula = Comparator.comparing(Pedido::getPrioridade)
+            .thenComparingDouble(p -> Math.hypot(p.getX(), p.getY()));
+        List<Agrupamento> agrupamentos = new ArrayList<>();
+        for (List<Pedido> celula : celulas.values()) {
+            celula.sort(ordemNaCelula);
+            Agrupamento atual = new Agrupamento();
+            for (Pedido pedido : celula) {
+                if (!atual.pedidos.isEmpty() && atual.peso + pedido.getPeso() > capacidade) {
+                    agrupamentos.add(atual);
+                    atual = new Agrupamento();
+                }
+                atual.adicionar(pedido);
+            }
+            agrupamentos.add(atual);
+        }
+
+        agrupamentos.sort(Comparator.comparing((Agrupamento a) -> a.prioridade)
+            .thenComparingDouble(Agrupamento::getDistanciaBase));
+        return agrupamentos;
+    }
+
+    /**
+     * Pedidos vizinhos que seguem juntos para um mesmo drone
+     */
+    static final class Agrupamento {
+        private final List<Pedido> pedidos = new ArrayList<>();
+        private double peso;
+        private Prioridade prioridade; // A mais alta do agrupamento
+        private double somaX;
+        private double somaY;
+
+        private void adicionar(Pedido pedido) {
+            pedidos.add(pedido);
+            peso += pedido.getPeso();
+            somaX += pedido.getX();
+            somaY += pedido.getY();
+            if (prioridade == null || pedido.getPrioridade().compareTo(prioridade) < 0) {
+                prioridade = pedido.getPrioridade();
+            }
+        }
+
+        List<Pedido> getPedidos() {
+            return pedidos;
+        }
+
+        double getPeso() {
+            return peso;
+        }
+
+        Prioridade getPrioridade() {
+            return prioridade;
+        }
+
+        /**
+         * Distância da base ao centro do agrupamento
+         */
+        double getDistanciaBase() {
+            return Math.hypot(somaX / pedidos.size(), somaY / pedidos.size());
+        }
+    }
+}
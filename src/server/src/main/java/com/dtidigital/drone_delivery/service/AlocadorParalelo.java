@@ -0,0 +1,155 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.dtidigital.drone_delivery.model.Drone;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Alocação por pacotes avaliados em paralelo. A cada rodada, cada drone ainda sem
+ * pacote escolhe o melhor pacote dentro de uma janela da fila restante (janelas de
+ * drones vizinhos se sobrepõem pela metade), em tarefas de um {@link ForkJoinPool}.
+ * A junção é determinística: propostas em ordem decrescente de eficiência (empate
+ * pelo índice do drone) são aceitas se não disputam pedidos já aceitos; os drones
+ * preteridos concorrem na rodada seguinte. Cada tarefa usa a própria matriz de
+ * distâncias, pequena, para não materializar uma matriz de toda a fila.
+ */
+final class AlocadorParalelo {
+
+    private static final int TAMANHO_JANELA = 24;
+    private static final int PASSO_JANELA = TAMANHO_JANELA / 2;
+    private static final int DRONES_POR_TAREFA = 4;
+
+    private final OtimizadorEntregas otimizador;
+    private final ForkJoinPool pool;
+
+    AlocadorParalelo(OtimizadorEntregas otimizador, ForkJoinPool pool) {
+        this.otimizador = otimizador;
+        this.pool = pool;
+    }
+
+    /**
+     * @param pedidosOrdenados fila em ordem de prioridade (as janelas seguem essa ordem)
+     */
+    List<List<Pedido>> alocar(List<Drone> drones, List<Pedido> pedidosOrdenados) {
+        List<List<Pedido>> alocacoes = new ArrayList<>(drones.size());
+        for (int i = 0; i < drones.size(); i++) {
+            alocacoes.add(new ArrayList<>());
+        }
+
+        List<Pedido> restantes = new ArrayList<>(pedidosOrdenados);
+        List<Integer> pendentes = new ArrayList<>(drones.size());
+        for (int i = 0; i < drones.size(); i++) {
+            pendentes.add(i);
+        }
+
+        while (!pendentes.isEmpty() && !restantes.isEmpty()) {
+            Proposta[] propostas = new Proposta[pendentes.size()];
+            pool.invoke(new AvaliacaoPacotes(drones, pendentes, restantes, propostas, 0, propostas.length));
+
+            List<Proposta> ordenadas = new ArrayList<>();
+            for (Proposta proposta : propostas) {
+                if (!proposta.pedidos.isEmpty()) ordenadas.add(proposta);
+            }
+            if (ordenadas.isEmpty()) {
+                break; // Nenhum drone pendente consegue levar pedidos
+            }
+            ordenadas.sort((a, b) -> {
+                int comparacao = Double.compare(b.eficiencia, a.eficiencia);
+                return comparacao != 0 ? comparacao : Integer.compare(a.drone, b.drone);
+            });
+
+            Set<Pedido> aceitos = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Integer> proximosPendentes = new ArrayList<>();
+            for (Proposta proposta : ordenadas) {
+                boolean conflito = false;
+                for (Pedido pedido : proposta.pedidos) {
+                    if (aceitos.contains(pedido)) {
+                        conflito = true;
+                        break;
+                    }
+                }
+                if (conflito) {
+                    proximosPendentes.add(proposta.drone);
+                } else {
+                    aceitos.addAll(proposta.pedidos);
+                    alocacoes.set(proposta.drone, proposta.pedidos);
+                }
+            }
+
+            restantes.removeIf(aceitos::contains);
+            proximosPendentes.sort(null);
+            pendentes = proximosPendentes;
+        }
+        return alocacoes;
+    }
+
+    /**
+     * Janela da fila restante avaliada pelo drone na posição {@code posicao} da rodada
+     */
+    private static List<Pedido> janela(List<Pedido> restantes, int posicao) {
+        int inicio = Math.min(posicao * PASSO_JANELA, Math.max(0, restantes.size() - TAMANHO_JANELA));
+        return restantes.subList(inicio, Math.min(restantes.size(), inicio + TAMANHO_JANELA));
+    }
+
+    private static final class Proposta {
+        private final int drone;
+        private final List<Pedido> pedidos;
+        private final double eficiencia;
+
+        Proposta(int drone, List<Pedido> pedidos, double eficiencia) {
+            this.drone = drone;
+            this.pedidos = pedidos;
+            this.eficiencia = eficiencia;
+        }
+    }
+
+    /**
+     * Divide os drones pendentes ao meio até blocos pequenos e avalia cada bloco.
+     * RecursiveAction é Serializable por herança, mas a tarefa só vive dentro do pool
+     * durante uma avaliação e nunca é serializada.
+     */
+    @SuppressWarnings("serial")
+    private final class AvaliacaoPacotes extends RecursiveAction {
+        private final List<Drone> drones;
+        private final List<Integer> pendentes;
+        private final List<Pedido> restantes;
+        private final Proposta[] propostas;
+        private final int inicio;
+        private final int fim;
+
+        AvaliacaoPacotes(List<Drone> drones, List<Integer> pendentes, List<Pedido> restantes,
+                         Proposta[] propostas, int inicio, int fim) {
+            this.drones = drones;
+            this.pendentes = pendentes;
+            this.restantes = restantes;
+            this.propostas = propostas;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        @Override
+        protected void compute() {
+            if (fim - inicio <= DRONES_POR_TAREFA) {
+                for (int i = inicio; i < fim; i++) {
+                    int indiceDrone = pendentes.get(i);
+                    Drone drone = drones.get(indiceDrone);
+                    List<Pedido> candidatos = janela(restantes, i);
+                    MatrizDistancias matriz = new MatrizDistancias(candidatos.size());
+                    List<Pedido> pacote = otimizador.encontrarMelhorCombinacao(drone, candidatos, matriz);
+                    propostas[i] = new Proposta(indiceDrone, pacote, otimizador.calcularEficiencia(drone, pacote, matriz));
+                }
+                return;
+            }
+            int meio = (inicio + fim) >>> 1;
+            invokeAll(new AvaliacaoPacotes(drones, pendentes, restantes, propostas, inicio, meio),
+                      new AvaliacaoPacotes(drones, pendentes, restantes, propostas, meio, fim));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.Arrays;
+
+/**
+ * Atribuição de custo mínimo (método húngaro com potenciais) de linhas a colunas
+ * distintas, para matrizes com no máximo tantas linhas quanto colunas.
+ * Custo O(linhas² × colunas).
+ */
+final class AtribuicaoHungara {
+
+    private AtribuicaoHungara() {
+    }
+
+    /**
+     * @param custo custo[linha][coluna], com {@code linhas <= colunas}
+     * @return a coluna atribuída a cada linha
+     */
+    static int[] resolver(double[][] custo) {
+        int linhas = custo.length;
+        if (linhas == 0) {
+            return new int[0];
+        }
+        int colunas = custo[0].length;
+        if (linhas > colunas) {
+            throw new IllegalArgumentException("Mais linhas que colunas na atribuição");
+        }
+
+        // Índices 1-based; a coluna 0 é a sentinela do caminho aumentante
+        double[] u = new double[linhas + 1];
+        double[] v = new double[colunas + 1];
+        int[] linhaDaColuna = new int[colunas + 1];
+        int[] caminho = new int[colunas + 1];
+        double[] minimo = new double[colunas + 1];
+        boolean[] usada = new boolean[colunas + 1];
+
+        for (int i = 1; i <= linhas; i++) {
+            linhaDaColuna[0] = i;
+            int coluna = 0;
+            Arrays.fill(minimo, Double.POSITIVE_INFINITY);
+            Arrays.fill(usada, false);
+            do {
+                usada[coluna] = true;
+                int linha = linhaDaColuna[coluna];
+                double delta = Double.POSITIVE_INFINITY;
+                int proxima = 0;
+                for (int j = 1; j <= colunas; j++) {
+                    if (usada[j]) continue;
+                    double reduzido = custo[linha - 1][j - 1] - u[linha] - v[j];
+                    if (reduzido < minimo[j]) {
+                        minimo[j] = reduzido;
+                        caminho[j] = coluna;
+                    }
+                    if (minimo[j] < delta) {
+                        delta = minimo[j];
+                        proxima = j;
+                    }
+                }
+                for (int j = 0; j <= colunas; j++) {
+                    if (usada[j]) {
+                        u[linhaDaColuna[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimo[j] -= delta;
+                    }
+                }
+                coluna = proxima;
+            } while (linhaDaColuna[coluna] != 0);
+            do {
+                int anterior = caminho[coluna];
+                linhaDaColuna[coluna] = linhaDaColuna[anterior];
+                coluna = anterior;
+            } while (coluna != 0);
+        }
+
+        int[] atribuicao = new int[linhas];
+        for (int j = 1; j <= colunas; j++) {
+            if (linhaDaColuna[j] != 0) {
+                atribuicao[linhaDaColuna[j] - 1] = j - 1;
+            }
+        }
+        return atribuicao;
+    }
+}
@@ -0,0 +1,200 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A* na {@link GradeOcupacao} com vizinhança de 8 células e heurística octil. A fila de
+ * prioridade é um heap binário de índices inteiros, e os vetores de custo, pai e heap são
+ * reaproveitados por thread (marcados por geração, sem limpeza entre consultas). O caminho
+ * encontrado é suavizado: de cada ponto segue até o mais distante ainda visível em linha reta.
+ */
+final class BuscaAEstrela {
+
+    private static final double DIAGONAL = Math.sqrt(2);
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private BuscaAEstrela() {
+    }
+
+    /**
+     * @return pontos da rota (início, desvios e destino), ou nulo se não houver caminho livre
+     *         ou se uma das pontas estiver fora da grade ou dentro de uma zona
+     */
+    static List<CalculadorRota.Point> buscar(GradeOcupacao grade, int xInicio, int yInicio, int xDestino, int yDestino) {
+        int limite = grade.getLimite();
+        if (!dentro(xInicio, yInicio, limite) || !dentro(xDestino, yDestino, limite)
+                || grade.ocupada(xInicio, yInicio) || grade.ocupada(xDestino, yDestino)) {
+            return null;
+        }
+
+        int lado = limite + 1;
+        Buffers b = BUFFERS.get();
+        b.preparar(lado * lado);
+        int geracao = b.geracao;
+
+        int origem = xInicio * lado + yInicio;
+        int alvo = xDestino * lado + yDestino;
+        b.g[origem] = 0;
+        b.f[origem] = heuristica(xInicio, yInicio, xDestino, yDestino);
+        b.pai[origem] = -1;
+        b.visto[origem] = geracao;
+        b.empilhar(origem);
+
+        while (b.tamanhoHeap > 0) {
+            int atual = b.desempilhar();
+            if (atual == alvo) {
+                return suavizar(grade, b, alvo, lado);
+            }
+            b.fechado[atual] = geracao;
+            int ax = atual / lado;
+            int ay = atual % lado;
+            for (int d = 0; d < 8; d++) {
+                int nx = ax + DX[d];
+                int ny = ay + DY[d];
+                if (!dentro(nx, ny, limite) || grade.ocupada(nx, ny)) continue;
+                int vizinho = nx * lado + ny;
+                if (b.fechado[vizinho] == geracao) continue;
+                double custo = b.g[atual] + (d < 4 ? 1.0 : DIAGONAL);
+                if (b.visto[vizinho] != geracao) {
+                    b.visto[vizinho] = geracao;
+                    b.g[vizinho] = custo;
+                    b.f[vizinho] = custo + heuristica(nx, ny, xDestino, yDestino);
+                    b.pai[vizinho] = atual;
+                    b.empilhar(vizinho);
+                } else if (custo < b.g[vizinho]) {
+                    b.f[vizinho] -= b.g[vizinho] - custo;
+                    b.g[vizinho] = custo;
+                    b.pai[vizinho] = atual;
+                    b.subir(b.posicao[vizinho]);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean dentro(int x, int y, int limite) {
+        return x >= 0 && y >= 0 && x <= limite && y <= limite;
+    }
+
+    private static double heuristica(int x, int y, int xDestino, int yDestino) {
+        int dx = Math.abs(x - xDestino);
+        int dy = Math.abs(y - yDestino);
+        return dx + dy + (DIAGONAL - 2) * Math.min(dx, dy);
+    }
+
+    /**
+     * Refaz o caminho pelos pais e mantém só os pontos em que a linha reta deixa de ser livre
+     */
+    private static List<CalculadorRota.Point> suavizar(GradeOcupacao grade, Buffers b, int alvo, int lado) {
+        int tamanho = 0;
+        for (int no = alvo; no != -1; no = b.pai[no]) {
+            b.caminho[tamanho++] = no;
+        }
+        // caminho[tamanho - 1] é a origem; percorrer de trás para frente
+        List<CalculadorRota.Point> rota = new ArrayList<>();
+        int ancora = tamanho - 1;
+        rota.add(new CalculadorRota.Point(b.caminho[ancora] / lado, b.caminho[ancora] % lado));
+        while (ancora > 0) {
+            int ax = b.caminho[ancora] / lado;
+            int ay = b.caminho[ancora] % lado;
+            int proximo = ancora - 1;
+            while (proximo > 0 && grade.linhaLivre(ax, ay, b.caminho[proximo - 1] / lado, b.caminho[proximo - 1] % lado)) {
+                proximo--;
+            }
+            rota.add(new CalculadorRota.Point(b.caminho[proximo] / lado, b.caminho[proximo] % lado));
+            ancora = proximo;
+        }
+        return rota;
+    }
+
+    /**
+     * Vetores de trabalho de uma thread, crescidos sob demanda
+     */
+    private static final class Buffers {
+        private double[] g = new double[0];
+        private double[] f = new double[0];
+        private int[] pai = new int[0];
+        private int[] visto = new int[0];
+        private int[] fechado = new int[0];
+        private int[] heap = new int[0];
+        private int[] posicao = new int[0];
+        private int[] caminho = new int[0];
+        private int tamanhoHeap;
+        private int geracao;
+
+        private void preparar(int nos) {
+            if (g.length < nos) {
+                g = new double[nos];
+                f = new double[nos];
+                pai = new int[nos];
+                visto = new int[nos];
+                fechado = new int[nos];
+                heap = new int[nos];
+                posicao = new int[nos];
+                caminho = new int[nos];
+                geracao = 0;
+            }
+            if (++geracao == Integer.MAX_VALUE) {
+                Arrays.fill(visto, 0);
+                Arrays.fill(fechado, 0);
+                geracao = 1;
+            }
+            tamanhoHeap = 0;
+        }
+
+        /** Ordem do heap: menor f; no empate, maior g (mais perto do destino) */
+        private boolean antes(int a, int b) {
+            return f[a] < f[b] || (f[a] == f[b] && g[a] > g[b]);
+        }
+
+        private void empilhar(int no) {
+            heap[tamanhoHeap] = no;
+            posicao[no] = tamanhoHeap;
+            subir(tamanhoHeap++);
+        }
+
+        private int desempilhar() {
+            int topo = heap[0];
+            int ultimo = heap[--tamanhoHeap];
+            if (tamanhoHeap > 0) {
+                heap[0] = ultimo;
+                posicao[ultimo] = 0;
+                descer(0);
+            }
+            return topo;
+        }
+
+        private void subir(int i) {
+            int no = heap[i];
+            while (i > 0) {
+                int acima = (i - 1) >>> 1;
+                if (!antes(no, heap[acima])) break;
+                heap[i] = heap[acima];
+                posicao[heap[i]] = i;
+                i = acima;
+            }
+            heap[i] = no;
+            posicao[no] = i;
+        }
+
+        private void descer(int i) {
+            int no = heap[i];
+            while (true) {
+                int filho = 2 * i + 1;
+                if (filho >= tamanhoHeap) break;
+                if (filho + 1 < tamanhoHeap && antes(heap[filho + 1], heap[filho])) filho++;
+                if (!antes(heap[filho], no)) break;
+                heap[i] = heap[filho];
+                posicao[heap[i]] = i;
+                i = filho;
+            }
+            heap[i] = no;
+            posicao[no] = i;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dtidigital.drone_delivery.model.ZonaExclusao;
+
+/**
+ * Cache LRU de rotas seguras por (origem, destino), válido para uma versão das zonas.
+ * Quando as zonas mudam, só saem as rotas cujo retângulo envolvente encosta (com uma
+ * unidade de folga) nas zonas alteradas; as demais seguem válidas na nova versão (uma zona
+ * nova nunca cruza uma rota mantida; uma removida pode, no máximo, deixar uma rota distante
+ * de ser a mais curta). Consulta de versão mais antiga é ignorada; de versão mais nova que a
+ * conhecida esvazia o cache.
+ */
+final class CacheRotas {
+
+    private final int capacidade;
+    private final LinkedHashMap<Chave, Entrada> rotas;
+    private long versao;
+
+    private long acertos = 0;
+    private long falhas = 0;
+    private long despejos = 0;
+    private long invalidadas = 0;
+
+    CacheRotas(int capacidade) {
+        this.capacidade = Math.max(1, capacidade);
+        this.rotas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, Entrada> maisAntiga) {
+                if (size() > CacheRotas.this.capacidade) {
+                    despejos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    synchronized List<CalculadorRota.Point> buscar(int xInicio, int yInicio, int xDestino, int yDestino, long versaoZonas) {
+        sincronizarVersao(versaoZonas);
+        Entrada entrada = versaoZonas == versao ? rotas.get(new Chave(xInicio, yInicio, xDestino, yDestino)) : null;
+        if (entrada == null) {
+            falhas++;
+            return null;
+        }
+        acertos++;
+        return entrada.rota;
+    }
+
+    synchronized void guardar(int xInicio, int yInicio, int xDestino, int yDestino, long versaoZonas, List<CalculadorRota.Point> rota) {
+        sincronizarVersao(versaoZonas);
+        if (versaoZonas == versao) {
+            rotas.put(new Chave(xInicio, yInicio, xDestino, yDestino), new Entrada(rota));
+        }
+    }
+
+    /**
+     * Passa para a nova versão descartando só as rotas próximas às zonas alteradas
+     * (na edição, informar a zona antes e depois da alteração)
+     */
+    synchronized void invalidar(long versaoAnterior, long novaVersao, List<ZonaExclusao> zonasAlteradas) {
+        if (versao != versaoAnterior) {
+            invalidadas += rotas.size();
+            rotas.clear();
+        } else {
+            Iterator<Entrada> it = rotas.values().iterator();
+            while (it.hasNext()) {
+                Entrada entrada = it.next();
+                for (ZonaExclusao zona : zonasAlteradas) {
+                    if (entrada.encosta(zona)) {
+                        it.remove();
+                        invalidadas++;
+                        break;
+                    }
+                }
+            }
+        }
+        versao = novaVersao;
+    }
+
+    synchronized Map<String, Object> getEstatisticas() {
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("capacidade", capacidade);
+        estatisticas.put("rotas", rotas.size());
+        estatisticas.put("versaoZonas", versao);
+        estatisticas.put("acertos", acertos);
+        estatisticas.put("falhas", falhas);
+        estatisticas.put("taxaAcerto", acertos + falhas > 0 ? (double) acertos / (acertos + falhas) : 0.0);
+        estatisticas.put("despejos", despejos);
+        estatisticas.put("invalidadas", invalidadas);
+        return estatisticas;
+    }
+
+    private void sincronizarVersao(long versaoZonas) {
+        if (versaoZonas > versao) {
+            // Alteração de zonas não informada: nada do que está no cache é confiável
+            invalidadas += rotas.size();
+            rotas.clear();
+            versao = versaoZonas;
+        }
+    }
+
+    private static final class Chave {
+        private final int xInicio;
+        private final int yInicio;
+        private final int xDestino;
+        private final int yDestino;
+
+        private Chave(int xInicio, int yInicio, int xDestino, int yDestino) {
+            this.xInicio = xInicio;
+            this.yInicio = yInicio;
+            this.xDestino = xDestino;
+            this.yDestino = yDestino;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Chave)) return false;
+            Chave outra = (Chave) obj;
+            return xInicio == outra.xInicio && yInicio == outra.yInicio
+                && xDestino == outra.xDestino && yDestino == outra.yDestino;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((xInicio * 31 + yInicio) * 31 + xDestino) * 31 + yDestino;
+        }
+    }
+
+    private static final class Entrada {
+        private final List<CalculadorRota.Point> rota;
+        private final int xMin;
+        private final int yMin;
+        private final int xMax;
+        private final int yMax;
+
+        private Entrada(List<CalculadorRota.Point> rota) {
+            this.rota = List.copyOf(rota);
+            int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+            for (CalculadorRota.Point p : rota) {
+                x0 = Math.min(x0, p.x);
+                y0 = Math.min(y0, p.y);
+                x1 = Math.max(x1, p.x);
+                y1 = Math.max(y1, p.y);
+            }
+            this.xMin = x0;
+            this.yMin = y0;
+            this.xMax = x1;
+            this.yMax = y1;
+        }
+
+        /** A folga de uma unidade cobre os cantos afastados por onde os desvios passam */
+        private boolean encosta(ZonaExclusao zona) {
+            return xMin <= zona.getX2() + 1 && xMax >= zona.getX1() - 1
+                && yMin <= zona.getY2() + 1 && yMax >= zona.getY1() - 1;
+        }
+    }
+}
@@ -1,134 +1,142 @@
 package com.dtidigital.drone_delivery.service;
 
+import com.dtidigital.drone_delivery.enums.MotorRota;
 import com.dtidigital.drone_delivery.model.ZonaExclusao;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 
 /**
- * Serviço para calcular rotas que evitam zonas de exclusão
+ * Serviço para calcular rotas que evitam zonas de exclusão, pelo grafo de visibilidade
+ * dos cantos das zonas ou por A* na grade de ocupação. As estruturas de cada motor são
+ * mantidas em cache pela versão do conjunto de zonas.
  */
 @Component
 public class CalculadorRota {
     
+    private static final long SEM_VERSAO = -1;
+    
+    private MotorRota motor = MotorRota.VISIBILIDADE;
+    private volatile GradeOcupacao gradeEmCache; // Última grade construída (imutável)
+    private volatile GrafoVisibilidade grafoEmCache; // Último grafo construído (imutável)
+    private volatile CacheRotas cacheRotas = new CacheRotas(10_000);
+    
+    @Value("${drone.rota.motor:VISIBILIDADE}")
+    public void setMotor(MotorRota motor) {
+        this.motor = motor;
+    }
+    
+    public MotorRota getMotor() {
+        return motor;
+    }
+    
+    @Value("${drone.rota.cache-capacidade:10000}")
+    public void setCapacidadeCache(int capacidade) {
+        this.cacheRotas = new CacheRotas(capacidade);
+    }
+    
     /**
-     * Calcula uma rota que evita zonas de exclusão usando algoritmo A*
+     * Avisa o cache de rotas que as zonas passaram para uma nova versão; só as rotas
+     * próximas às zonas alteradas (na edição, antes e depois) são descartadas
      */
-    public List<Point> calcularRotaSegura(int xInicio, int yInicio, int xDestino, int yDestino, 
-                                         List<ZonaExclusao> zonasExclusao, int limiteGrid) {
-        
-        // Se a rota direta não intercepta nenhuma zona, usar a rota direta
-        if (!interceptaAlgumaZona(xInicio, yInicio, xDestino, yDestino, zonasExclusao)) {
-            List<Point> rotaDireta = new ArrayList<>();
-            rotaDireta.add(new Point(xInicio, yInicio));
-            rotaDireta.add(new Point(xDestino, yDestino));
-            return rotaDireta;
-        }
-        
-        // Caso contrário, usar algoritmo A* para encontrar rota alternativa
-        return encontrarRotaAlternativa(xInicio, yInicio, xDestino, yDestino, zonasExclusao, limiteGrid);
+    public void invalidarRotas(long versaoAnterior, long novaVersao, List<ZonaExclusao> zonasAlteradas) {
+        cacheRotas.invalidar(versaoAnterior, novaVersao, zonasAlteradas);
     }
     
     /**
-     * Verifica se uma linha reta intercepta alguma zona de exclusão
+     * Acertos, falhas, despejos e invalidações do cache de rotas
      */
-    private boolean interceptaAlgumaZona(int x1, int y1, int x2, int y2, List<ZonaExclusao> zonas) {
-        for (ZonaExclusao zona : zonas) {
-            if (zona.interceptaRota(x1, y1, x2, y2)) {
-                return true;
-            }
-        }
-        return false;
+    public Map<String, Object> getEstatisticasCache() {
+        return cacheRotas.getEstatisticas();
     }
     
     /**
-     * Algoritmo A* simplificado para encontrar rota alternativa
+     * Calcula uma rota que evita zonas de exclusão
+     * (sem versão das zonas, grade e grafo são montados a cada chamada)
      */
-    private List<Point> encontrarRotaAlternativa(int xInicio, int yInicio, int xDestino, int yDestino, 
-                                                List<ZonaExclusao> zonasExclusao, int limiteGrid) {
-        
-        Set<Point> pontosProibidos = criarSetPontosProibidos(zonasExclusao, limiteGrid);
-        
-        // Usar pontos de contorno das zonas como waypoints potenciais
-        List<Point> waypoints = gerarWaypoints(zonasExclusao);
-        
-        Point inicio = new Point(xInicio, yInicio);
-        Point destino = new Point(xDestino, yDestino);
-        
-        // Encontrar a melhor rota através dos waypoints
-        return encontrarMelhorRota(inicio, destino, waypoints, pontosProibidos);
+    public List<Point> calcularRotaSegura(int xInicio, int yInicio, int xDestino, int yDestino, 
+                                         List<ZonaExclusao> zonasExclusao, int limiteGrid) {
+        return calcularRotaSegura(xInicio, yInicio, xDestino, yDestino, zonasExclusao, SEM_VERSAO, limiteGrid);
     }
     
     /**
-     * Cria conjunto de pontos proibidos baseado nas zonas de exclusão
+     * Calcula uma rota que evita zonas de exclusão, reutilizando grafo e grade enquanto a
+     * versão das zonas for a mesma. O grafo de visibilidade não depende do limite da grade;
+     * com cantos demais, ou no motor GRADE, se a linha reta toca alguma zona o desvio é
+     * buscado por A* na grade. Sem caminho livre (ponta dentro de uma zona ou fora da
+     * grade), mantém a rota direta. Rotas com versão passam pelo cache LRU.
      */
-    private Set<Point> criarSetPontosProibidos(List<ZonaExclusao> zonas, int limiteGrid) {
-        Set<Point> pontosProibidos = new HashSet<>();
-        
-        for (ZonaExclusao zona : zonas) {
-            // Marcar todos os pontos dentro da zona como proibidos
-            for (int x = Math.max(0, zona.getX1()); x <= Math.min(limiteGrid, zona.getX2()); x++) {
-                for (int y = Math.max(0, zona.getY1()); y <= Math.min(limiteGrid, zona.getY2()); y++) {
-                    pontosProibidos.add(new Point(x, y));
+    public List<Point> calcularRotaSegura(int xInicio, int yInicio, int xDestino, int yDestino, 
+                                         List<ZonaExclusao> zonasExclusao, long versaoZonas, int limiteGrid) {
+        if (versaoZonas == SEM_VERSAO) {
+            return rotear(xInicio, yInicio, xDestino, yDestino, zonasExclusao, versaoZonas, limiteGrid);
+        }
+        CacheRotas cache = cacheRotas;
+        List<Point> rota = cache.buscar(xInicio, yInicio, xDestino, yDestino, versaoZonas);
+        if (rota == null) {
+            rota = rotear(xInicio, yInicio, xDestino, yDestino, zonasExclusao, versaoZonas, limiteGrid);
+            cache.guardar(xInicio, yInicio, xDestino, yDestino, versaoZonas, rota);
+        }
+        return rota;
+    }
+    
+    private List<Point> rotear(int xInicio, int yInicio, int xDestino, int yDestino,
+                               List<ZonaExclusao> zonasExclusao, long versaoZonas, int limiteGrid) {
+        GrafoVisibilidade grafo = motor == MotorRota.VISIBILIDADE && !zonasExclusao.isEmpty()
+            ? obterGrafo(zonasExclusao, versaoZonas) : null;
+        if (grafo != null) {
+            List<Point> rota = grafo.rotear(xInicio, yInicio, xDestino, yDestino);
+            if (rota != null) {
+                return rota;
+            }
+        } else if (!zonasExclusao.isEmpty()) {
+            GradeOcupacao grade = obterGrade(zonasExclusao, versaoZonas, limiteGrid);
+            if (!grade.linhaLivre(xInicio, yInicio, xDestino, yDestino)) {
+                List<Point> desvio = BuscaAEstrela.buscar(grade, xInicio, yInicio, xDestino, yDestino);
+                if (desvio != null) {
+                    return desvio;
                 }
             }
         }
         
-        return pontosProibidos;
+        // Rota direta
+        List<Point> rotaDireta = new ArrayList<>();
+        rotaDireta.add(new Point(xInicio, yInicio));
+        rotaDireta.add(new Point(xDestino, yDestino));
+        return rotaDireta;
     }
     
     /**
-     * Gera waypoints (pontos de contorno) das zonas de exclusão
+     * Grade dos pontos proibidos pelas zonas de exclusão, reconstruída só quando a versão
+     * das zonas (ou o limite) muda; construções concorrentes da mesma versão são equivalentes
      */
-    private List<Point> gerarWaypoints(List<ZonaExclusao> zonas) {
-        List<Point> waypoints = new ArrayList<>();
-        
-        for (ZonaExclusao zona : zonas) {
-            // Adicionar pontos nos cantos da zona (com margem de segurança)
-            int margem = 2;
-            
-            // Cantos da zona com margem
-            waypoints.add(new Point(zona.getX1() - margem, zona.getY1() - margem));
-            waypoints.add(new Point(zona.getX2() + margem, zona.getY1() - margem));
-            waypoints.add(new Point(zona.getX1() - margem, zona.getY2() + margem));
-            waypoints.add(new Point(zona.getX2() + margem, zona.getY2() + margem));
+    private GradeOcupacao obterGrade(List<ZonaExclusao> zonas, long versaoZonas, int limiteGrid) {
+        if (versaoZonas == SEM_VERSAO) {
+            return new GradeOcupacao(zonas, versaoZonas, limiteGrid);
         }
-        
-        // Filtrar waypoints inválidos (negativos ou que interceptam outras zonas)
-        waypoints.removeIf(p -> p.x < 0 || p.y < 0);
-        
-        return waypoints;
+        GradeOcupacao grade = gradeEmCache;
+        if (grade == null || !grade.isVersao(versaoZonas, limiteGrid)) {
+            grade = new GradeOcupacao(zonas, versaoZonas, limiteGrid);
+            gradeEmCache = grade;
+        }
+        return grade;
     }
     
     /**
-     * Encontra a melhor rota usando os waypoints disponíveis
+     * Grafo de visibilidade das zonas, reconstruído só quando a versão muda
+     * (nulo se houver cantos demais para o cálculo de todos os pares)
      */
-    private List<Point> encontrarMelhorRota(Point inicio, Point destino, List<Point> waypoints, Set<Point> pontosProibidos) {
-        
-        // Algoritmo simples: tentar rota direta, senão usar waypoint mais próximo
-        List<Point> melhorRota = new ArrayList<>();
-        melhorRota.add(inicio);
-        
-        // Se ainda há interferência, usar waypoint intermediário
-        Point melhorWaypoint = null;
-        double menorDistanciaTotal = Double.MAX_VALUE;
-        
-        for (Point waypoint : waypoints) {
-            if (!pontosProibidos.contains(waypoint)) {
-                double distanciaTotal = calcularDistancia(inicio, waypoint) + calcularDistancia(waypoint, destino);
-                if (distanciaTotal < menorDistanciaTotal) {
-                    menorDistanciaTotal = distanciaTotal;
-                    melhorWaypoint = waypoint;
-                }
-            }
+    private GrafoVisibilidade obterGrafo(List<ZonaExclusao> zonas, long versaoZonas) {
+        if (versaoZonas == SEM_VERSAO) {
+            return GrafoVisibilidade.construir(zonas, versaoZonas);
         }
-        
-        if (melhorWaypoint != null) {
-            melhorRota.add(melhorWaypoint);
+        GrafoVisibilidade grafo = grafoEmCache;
+        if (grafo == null || !grafo.isVersao(versaoZonas)) {
+            grafo = GrafoVisibilidade.construir(zonas, versaoZonas);
+            grafoEmCache = grafo;
         }
-        
-        melhorRota.add(destino);
-        return melhorRota;
+        return grafo;
     }
     
     /**
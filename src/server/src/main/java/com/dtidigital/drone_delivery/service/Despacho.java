@@ -0,0 +1,104 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dtidigital.drone_delivery.enums.TipoPlanejamento;
+
+/**
+ * Rodada de despacho de missões. Cada drone alocado executa sua missão de forma
+ * assíncrona e em paralelo; o despacho é concluído quando todas as missões retornam
+ * à base e informa o tempo de relógio do ciclo e a soma dos tempos das missões.
+ */
+public class Despacho {
+
+    private final String id = UUID.randomUUID().toString();
+    private final LocalDateTime criadoEm = LocalDateTime.now();
+    private final long inicioNanos = System.nanoTime();
+    private final int totalMissoes;
+    private final int pedidosDespachados;
+    private final TipoPlanejamento planejamento;
+    private final boolean replanejadoNaEscritora;
+    private final AtomicInteger missoesConcluidas = new AtomicInteger();
+    private final AtomicInteger entregasRealizadas = new AtomicInteger();
+    private final AtomicLong tempoMissoesNanos = new AtomicLong();
+    private final CompletableFuture<Despacho> conclusao = new CompletableFuture<>();
+    private volatile LocalDateTime concluidoEm;
+    private volatile long duracaoNanos = -1;
+
+    Despacho(int totalMissoes, int pedidosDespachados, TipoPlanejamento planejamento, boolean replanejadoNaEscritora) {
+        this.totalMissoes = totalMissoes;
+        this.pedidosDespachados = pedidosDespachados;
+        this.planejamento = planejamento;
+        this.replanejadoNaEscritora = replanejadoNaEscritora;
+        if (totalMissoes == 0) {
+            concluir();
+        }
+    }
+
+    void registrarEntrega() {
+        entregasRealizadas.incrementAndGet();
+    }
+
+    /**
+     * Registra o fim de uma missão; retorna true quando era a última do despacho
+     */
+    boolean registrarMissaoConcluida(long duracaoMissaoNanos) {
+        tempoMissoesNanos.addAndGet(duracaoMissaoNanos);
+        return missoesConcluidas.incrementAndGet() == totalMissoes;
+    }
+
+    /**
+     * Libera quem aguarda o despacho (chamado depois que o estado final foi publicado)
+     */
+    void concluir() {
+        duracaoNanos = System.nanoTime() - inicioNanos;
+        concluidoEm = LocalDateTime.now();
+        if (totalMissoes > 0) {
+            System.out.println("⏱️ Despacho " + id + " concluído: " + totalMissoes + " missões, " +
+                              entregasRealizadas.get() + " entregas em " + getDuracaoMs() + " ms (soma das missões: " +
+                              getTempoMissoesMs() + " ms)");
+        }
+        conclusao.complete(this);
+    }
+
+    /**
+     * Bloqueia a thread chamadora até que todas as missões do despacho terminem
+     */
+    public Despacho aguardarConclusao() {
+        return conclusao.join();
+    }
+
+    public String getId() { return id; }
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+    public LocalDateTime getConcluidoEm() { return concluidoEm; }
+    public int getTotalMissoes() { return totalMissoes; }
+    public int getPedidosDespachados() { return pedidosDespachados; }
+    public TipoPlanejamento getPlanejamento() { return planejamento; }
+    /** Indica que as opções de planejamento não foram honradas: a thread escritora replanejou com o prazo padrão */
+    public boolean isReplanejadoNaEscritora() { return replanejadoNaEscritora; }
+    public int getMissoesConcluidas() { return missoesConcluidas.get(); }
+    public int getEntregasRealizadas() { return entregasRealizadas.get(); }
+
+    /**
+     * Tempo de relógio do ciclo: até agora se em andamento, ou total se concluído
+     */
+    public long getDuracaoMs() {
+        long duracao = duracaoNanos;
+        return (duracao >= 0 ? duracao : System.nanoTime() - inicioNanos) / 1_000_000;
+    }
+
+    /**
+     * Soma dos tempos das missões concluídas (igual à duração se fossem sequenciais)
+     */
+    public long getTempoMissoesMs() {
+        return tempoMissoesNanos.get() / 1_000_000;
+    }
+
+    public String getStatus() {
+        return conclusao.isDone() ? "CONCLUIDO" : "EM_ANDAMENTO";
+    }
+}
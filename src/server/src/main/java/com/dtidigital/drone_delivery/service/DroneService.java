@@ -1,258 +1,970 @@
 package com.dtidigital.drone_delivery.service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.dtidigital.drone_delivery.enums.EstadoDrone;
+import com.dtidigital.drone_delivery.enums.EstadoPedido;
+import com.dtidigital.drone_delivery.enums.ModoSimulacao;
+import com.dtidigital.drone_delivery.enums.TipoEvento;
+import com.dtidigital.drone_delivery.enums.TipoPlanejamento;
 import com.dtidigital.drone_delivery.model.Drone;
 import com.dtidigital.drone_delivery.model.Pedido;
 import com.dtidigital.drone_delivery.model.Entrega;
 import com.dtidigital.drone_delivery.model.ZonaExclusao;
 
+/**
+ * Serviço central da frota. Todas as mutações de estado passam pelo
+ * {@link ProcessadorComandos} e são executadas por uma única thread escritora,
+ * tanto as vindas das requisições HTTP quanto as do {@link SimuladorTempoReal}.
+ * Após cada lote de comandos é publicada uma {@link FotografiaFrota} imutável,
+ * que atende os endpoints de leitura sem locks. As missões dos drones são
+ * calculadas em paralelo em threads virtuais e executadas como cadeias de eventos
+ * no relógio virtual da {@link SimulacaoEventos}, em tempo real ou em velocidade máxima.
+ */
 @Service
 public class DroneService {
 
-    private final List<Drone> drones = new ArrayList<>();
-    private final List<Pedido> filaDePedidos = new LinkedList<>();
-    private final List<Entrega> entregasRealizadas = new ArrayList<>();
-    private final List<ZonaExclusao> zonasExclusao = new ArrayList<>();
+    private final List<Drone> drones = new CopyOnWriteArrayList<>();
+    private final Map<String, Drone> indiceDrones = new ConcurrentHashMap<>();
+    private final FilaPedidos filaDePedidos = new FilaPedidos();
+    private final RegistroPedidos registroPedidos = new RegistroPedidos();
+    private final RegistroEntregas registroEntregas = new RegistroEntregas();
+    private final RastreadorAlteracoes alteracoes = new RastreadorAlteracoes(); // Somente thread escritora
+    private final JanelaLote janelaLote = new JanelaLote(); // Somente thread escritora
+    private final List<ZonaExclusao> zonasExclusao = new CopyOnWriteArrayList<>();
+    private volatile long versaoZonas = 0; // Incrementada a cada alteração de zonas (thread escritora)
+    private volatile IndiceZonas indiceZonas = IndiceZonas.vazio(); // Reconstruído junto com a versão
+    private final ProcessadorComandos processador =
+        new ProcessadorComandos("drone-service-escritor", this::aoFinalizarLote);
+    private final SimulacaoEventos simulacao = new SimulacaoEventos(processador);
+    
+    private volatile FotografiaFrota fotografia;
+    
+    private final ExecutorService executorMissoes = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Drone, Missao> missoesAtivas = new IdentityHashMap<>(); // Somente thread escritora
+    private final Map<String, Despacho> despachos = new ConcurrentHashMap<>();
+    private final Deque<String> historicoDespachos = new ConcurrentLinkedDeque<>();
+    private final List<Despacho> despachosConcluidos = new ArrayList<>(); // Somente thread escritora
+    private volatile long falhasCalculoMissao = 0; // Incrementada só pela thread escritora
     
     private final SimuladorBateria simuladorBateria;
     private final OtimizadorEntregas otimizadorEntregas;
     private final CalculadorRota calculadorRota;
+    private final PlanejadorSegundoPlano planejadorSegundoPlano;
     
     private static final double VELOCIDADE_DRONE_KM_H = 30.0;
     private static final double BATERIA_MINIMA_RETORNO = 5.0;
     private static final double BATERIA_CRITICA = 10.0;
     private static final double BATERIA_BAIXA = 20.0;
+    private static final long TEMPO_CARREGAMENTO_MS = 100;
+    private static final long TEMPO_ENTREGA_MS = 50;
+    private static final double DURACAO_VOO_MS_POR_MINUTO = 1.0; // Escala compacta, como carregamento e entrega
+    private static final double TAXA_RECARGA_POR_MINUTO = 1.5;
+    private static final int MAXIMO_DESPACHOS_HISTORICO = 100;
 
     @Autowired
     public DroneService(SimuladorBateria simuladorBateria, OtimizadorEntregas otimizadorEntregas, CalculadorRota calculadorRota) {
         this.simuladorBateria = simuladorBateria;
         this.otimizadorEntregas = otimizadorEntregas;
         this.calculadorRota = calculadorRota;
+        this.planejadorSegundoPlano = new PlanejadorSegundoPlano(otimizadorEntregas);
         inicializarZonasExclusao();
+        publicarFotografia();
+        processador.iniciar();
+        simulacao.iniciar();
     }
 
     public DroneService() {
         this.simuladorBateria = new SimuladorBateria();
         this.otimizadorEntregas = new OtimizadorEntregas();
         this.calculadorRota = new CalculadorRota();
+        this.planejadorSegundoPlano = new PlanejadorSegundoPlano(otimizadorEntregas);
         inicializarZonasExclusao();
+        publicarFotografia();
+        processador.iniciar();
+        simulacao.iniciar();
     }
 
     private void inicializarZonasExclusao() {
     }
 
+    @PreDestroy
+    public void encerrar() {
+        planejadorSegundoPlano.parar();
+        simulacao.encerrar();
+        executorMissoes.shutdownNow();
+        processador.encerrar();
+    }
+
+    /**
+     * Processa os eventos vencidos, publica uma nova fotografia imutável do estado e só
+     * então conclui os despachos encerrados no lote (executado ao final de cada lote)
+     */
+    private void aoFinalizarLote() {
+        try {
+            simulacao.processarVencidos();
+            publicarFotografia();
+        } finally {
+            for (Despacho despacho : despachosConcluidos) {
+                despacho.concluir();
+            }
+            despachosConcluidos.clear();
+            simulacao.sinalizar();
+        }
+    }
+
+    private void publicarFotografia() {
+        FotografiaFrota anterior = fotografia;
+        fotografia = new FotografiaFrota(
+            anterior != null ? anterior.getVersao() + 1 : 1,
+            simulacao.agora(),
+            FotografiaFrota.copiarDrones(drones),
+            filaDePedidos.fotografar(), // Visão persistente da fila, O(1)
+            // Zonas só são copiadas quando mudam de versão (a edição substitui o objeto da zona)
+            anterior != null && anterior.getVersaoZonas() == versaoZonas ? anterior.getZonas() : FotografiaFrota.copiarZonas(zonasExclusao),
+            versaoZonas,
+            indiceZonas,
+            registroEntregas.listar(),
+            registroEntregas.resumir(),
+            simuladorBateria,
+            janelaLote.getRelatorio(),
+            janelaLote.fotografarRetidos()
+        );
+    }
+    
+    /**
+     * Última fotografia publicada do estado da frota (leitura sem locks)
+     */
+    public FotografiaFrota getFotografia() {
+        return fotografia;
+    }
+
+    /**
+     * Simulação por eventos discretos que conduz as missões (modo, relógio e avanço acelerado)
+     */
+    public SimulacaoEventos getSimulacao() {
+        return simulacao;
+    }
+
+    /**
+     * Fração máxima de uma CPU usada pelo planejamento em segundo plano
+     */
+    @Value("${drone.planejador.fracao-cpu:0.25}")
+    public void setFracaoCpuPlanejador(double fracaoCpu) {
+        planejadorSegundoPlano.setFracaoCpu(fracaoCpu);
+    }
+
+    /**
+     * Duração (ms) de cada fatia de melhoria do planejamento em segundo plano
+     */
+    @Value("${drone.planejador.fatia-ms:20}")
+    public void setFatiaPlanejador(long fatiaMs) {
+        planejadorSegundoPlano.setFatiaMs(fatiaMs);
+    }
+
+    /**
+     * Tempo máximo (ms de simulação) que um pedido novo aguarda consolidação; zero despacha de imediato
+     */
+    @Value("${drone.lote.janela-ms:0}")
+    public void setJanelaLoteMs(long janelaMs) {
+        processador.executarAcao(() -> janelaLote.setJanelaMs(janelaMs));
+    }
+
+    /**
+     * Pedidos acumulados em uma mesma área que liberam a área antes do fim da janela
+     */
+    @Value("${drone.lote.pedidos-por-area:5}")
+    public void setPedidosPorAreaLote(int pedidosPorArea) {
+        processador.executarAcao(() -> janelaLote.setPedidosPorArea(pedidosPorArea));
+    }
+
+    /**
+     * Lado (km) das áreas da janela de consolidação
+     */
+    @Value("${drone.lote.area-km:5}")
+    public void setAreaLoteKm(double areaKm) {
+        processador.executarAcao(() -> janelaLote.setAreaKm(areaKm));
+    }
+
+    /**
+     * Política de consolidação em vigor, com a espera e os pedidos por missão obtidos
+     */
+    public Map<String, Object> getRelatorioLote() {
+        return fotografia.getRelatorioLote();
+    }
+
+    /**
+     * Passa a melhorar continuamente o plano da fila entre os ciclos de despacho
+     */
+    public void iniciarPlanejamentoSegundoPlano() {
+        planejadorSegundoPlano.iniciar(this::getFotografia);
+    }
+
+    public void pararPlanejamentoSegundoPlano() {
+        planejadorSegundoPlano.parar();
+    }
+
+    @Value("${drone.simulacao.modo:TEMPO_REAL}")
+    public void setModoSimulacao(ModoSimulacao modo) {
+        simulacao.setModo(modo);
+    }
+
+    /**
+     * Agenda uma ação periódica no relógio da simulação, executada na thread escritora
+     */
+    void agendarPeriodico(long atrasoInicialMs, long periodoMs, BooleanSupplier ativo, Runnable acao) {
+        processador.executarAcao(() ->
+            simulacao.agendarPeriodico(atrasoInicialMs, periodoMs, TipoEvento.PERIODICO, ativo, acao));
+    }
+
+    /**
+     * Interrompe a missão em andamento do drone, se houver, e retira do índice os pedidos
+     * não entregues; os eventos pendentes dela passam a ser ignorados (thread escritora)
+     */
+    void interromperMissao(Drone drone) {
+        missoesAtivas.remove(drone);
+        cancelarPedidosNaoEntregues(drone);
+    }
+
+    /**
+     * Informa ao planejamento incremental que o drone voltou a ficar disponível (thread escritora)
+     */
+    void marcarDroneLiberado(Drone drone) {
+        alteracoes.marcarDrone(drone);
+    }
+
+    /**
+     * Executa uma mutação de estado na thread escritora e aguarda o resultado
+     */
+    <T> T executar(Supplier<T> acao) {
+        return processador.executar(acao);
+    }
+
+    /**
+     * Executa uma mutação de estado sem retorno na thread escritora
+     */
+    void executarAcao(Runnable acao) {
+        processador.executarAcao(acao);
+    }
+
     public void cadastrarDrone(String id, double capacidade, double autonomia) {
-        Drone novoDrone = new Drone(id, capacidade, autonomia);
-        drones.add(novoDrone);
+        processador.executarAcao(() -> {
+            Drone novoDrone = new Drone(id, capacidade, autonomia);
+            drones.add(novoDrone);
+            indiceDrones.putIfAbsent(id, novoDrone);
+            alteracoes.marcarDrone(novoDrone);
+        });
     }
 
+    /**
+     * Drones da última fotografia publicada (cópias imutáveis)
+     */
     public List<Drone> getDrones() {
+        return fotografia.getDrones();
+    }
+
+    /**
+     * Drones vivos da frota, para comandos que já executam na thread escritora
+     */
+    List<Drone> getDronesVivos() {
         return drones;
     }
 
     public boolean adicionarPedido(Pedido pedido) {
-        // Verificar se o destino está em zona de exclusão
-        for (ZonaExclusao zona : zonasExclusao) {
-            if (zona.contemPonto(pedido.getX(), pedido.getY())) {
+        return processador.executar(() -> {
+            // Verificar se o destino está em zona de exclusão
+            ZonaExclusao zona = buscarZonaContendo(pedido.getX(), pedido.getY());
+            if (zona != null) {
                 System.out.println("⚠️ Pedido rejeitado: destino (" + pedido.getX() + ", " + pedido.getY() + 
                                  ") está na zona de exclusão '" + zona.getNome() + "' - " + zona.getMotivo());
                 return false; // Pedido rejeitado
             }
-        }
         
-        filaDePedidos.add(pedido);
-        ordenarFila();
-        return true; // Pedido aceito
+            filaDePedidos.adicionar(pedido);
+            registroPedidos.registrarNaFila(pedido);
+            janelaLote.registrarChegada(pedido, simulacao.agora());
+            alteracoes.marcarPedido(pedido.getId());
+            return true; // Pedido aceito
+        });
     }
     
-    public String getZonaExclusaoInfo(int x, int y) {
-        for (ZonaExclusao zona : zonasExclusao) {
-            if (zona.contemPonto(x, y)) {
-                return "Coordenada (" + x + ", " + y + ") está na zona de exclusão '" + 
-                       zona.getNome() + "' - " + zona.getMotivo();
+    /**
+     * Adiciona um lote de pedidos validando todos os destinos em uma única passada
+     * e inserindo os aceitos na fila de uma só vez.
+     * Retorna, para cada pedido, null se aceito ou o motivo da rejeição.
+     */
+    public List<String> adicionarPedidosEmLote(List<Pedido> pedidos) {
+        return processador.executar(() -> {
+            List<String> motivos = new ArrayList<>(pedidos.size());
+            List<Pedido> aceitos = new ArrayList<>(pedidos.size());
+        
+            for (Pedido pedido : pedidos) {
+                ZonaExclusao zona = buscarZonaContendo(pedido.getX(), pedido.getY());
+                if (zona != null) {
+                    motivos.add("Destino está na zona de exclusão '" + zona.getNome() + "' - " + zona.getMotivo());
+                } else {
+                    motivos.add(null);
+                    aceitos.add(pedido);
+                }
+            }
+        
+            filaDePedidos.adicionarTodos(aceitos);
+            long agora = simulacao.agora();
+            for (Pedido pedido : aceitos) {
+                registroPedidos.registrarNaFila(pedido);
+                janelaLote.registrarChegada(pedido, agora);
+                alteracoes.marcarPedido(pedido.getId());
             }
+            return motivos;
+        });
+    }
+    
+    public String getZonaExclusaoInfo(int x, int y) {
+        ZonaExclusao zona = buscarZonaContendo(x, y);
+        if (zona != null) {
+            return "Coordenada (" + x + ", " + y + ") está na zona de exclusão '" + 
+                   zona.getNome() + "' - " + zona.getMotivo();
         }
         return "Coordenada (" + x + ", " + y + ") não está em zona de exclusão";
     }
-
-    private void ordenarFila() {
-        filaDePedidos.sort(Comparator
-                .comparing(Pedido::getPrioridade)
-                .thenComparing(p -> calcularDistancia(0, 0, p.getX(), p.getY())));
+    
+    private ZonaExclusao buscarZonaContendo(int x, int y) {
+        return indiceZonas.zonaContendo(x, y);
     }
 
+    /**
+     * Despacha as entregas e aguarda o retorno de todas as missões
+     */
     public void simularEntrega() {
+        if (processador.isThreadEscritora()) {
+            throw new IllegalStateException("simularEntrega não pode aguardar missões na thread escritora");
+        }
+        despacharEntregas().aguardarConclusao();
+    }
+
+    /**
+     * Aloca os pedidos aos drones disponíveis e inicia as missões de forma assíncrona.
+     * Retorna imediatamente com o despacho, que pode ser consultado pelo ID.
+     */
+    public Despacho despacharEntregas() {
+        return despacharEntregas(null);
+    }
+
+    /**
+     * Despacha com prazo e meta de qualidade próprios para o planejamento (nulo usa os padrões).
+     * A busca com essas opções roda na thread chamadora, sobre cópias dos drones e dos pedidos
+     * que a janela de consolidação libera; a thread escritora só confirma o plano se eles não
+     * mudaram, ou replaneja com o prazo padrão e registra isso no despacho.
+     *
+     * @throws IllegalArgumentException se o prazo exceder o máximo configurado
+     */
+    public Despacho despacharEntregas(OpcoesPlanejamento opcoes) {
+        if (opcoes != null && opcoes.getPrazoMs() != null && opcoes.getPrazoMs() > otimizadorEntregas.getPrazoMaximoMs()) {
+            throw new IllegalArgumentException("Prazo de planejamento acima do máximo de "
+                + otimizadorEntregas.getPrazoMaximoMs() + " ms");
+        }
+        PlanejadorSegundoPlano.PlanoTentativo planoPrevio = opcoes != null ? planejarForaDaEscritora(opcoes) : null;
+        List<Missao> missoes = new ArrayList<>();
+        Despacho despacho = processador.executar(() -> planejarDespacho(missoes, opcoes, planoPrevio));
+        
+        despachos.put(despacho.getId(), despacho);
+        historicoDespachos.addLast(despacho.getId());
+        while (historicoDespachos.size() > MAXIMO_DESPACHOS_HISTORICO) {
+            String antigo = historicoDespachos.pollFirst();
+            if (antigo != null) {
+                despachos.remove(antigo);
+            }
+        }
+        
+        for (Missao missao : missoes) {
+            calcularEtapasEmSegundoPlano(missao);
+        }
+        return despacho;
+    }
+
+    public Despacho buscarDespacho(String despachoId) {
+        return despachos.get(despachoId);
+    }
+
+    /**
+     * Plano de alocação mais recente; durante o planejamento expõe o melhor plano até o momento
+     */
+    public PlanoAlocacao getUltimoPlano() {
+        return otimizadorEntregas.getUltimoPlano();
+    }
+
+    /**
+     * Planeja o despacho apenas sobre o que mudou desde o último ciclo: drones liberados
+     * concorrem por toda a fila; os demais drones ociosos, que já não conseguiram atender
+     * os pedidos antigos, concorrem apenas pelos pedidos novos ou editados. Sem alterações
+     * o ciclo é ignorado; zonas alteradas exigem replanejamento completo. Pedidos retidos
+     * pela janela de consolidação só entram no ciclo em que forem liberados.
+     */
+    private Despacho planejarDespacho(List<Missao> missoes, OpcoesPlanejamento opcoes,
+                                      PlanejadorSegundoPlano.PlanoTentativo planoPrevio) {
+        long agora = simulacao.agora();
+        CicloDespacho ciclo = prepararCiclo(agora);
+        if (ciclo == null) {
+            alteracoes.limpar();
+            return new Despacho(0, 0, TipoPlanejamento.IGNORADO, false);
+        }
+        
+        List<Drone> dronesAlocados = new ArrayList<>();
+        List<List<Pedido>> pedidosPorDrone = new ArrayList<>();
+        MatrizDistancias matriz = otimizadorEntregas.novaMatriz(ciclo.pedidosLiberados.size()); // Compartilhada por todas as etapas do ciclo
+        boolean replanejado = false;
+        
+        if (!ciclo.dronesLiberados.isEmpty()) {
+            // Usar otimizador para melhor alocação de pedidos
+            replanejado = alocarPedidos(ciclo.dronesLiberados, ciclo.pedidosLiberados, dronesAlocados, pedidosPorDrone,
+                matriz, opcoes, planoPrevio);
+        }
+        
+        if (!ciclo.dronesInalterados.isEmpty() && !alteracoes.getPedidosAlterados().isEmpty()) {
+            // Pedidos já alocados acima saíram da fila
+            replanejado |= alocarPedidos(ciclo.dronesInalterados, pedidosAlteradosLiberados(ciclo.liberados),
+                dronesAlocados, pedidosPorDrone, matriz, opcoes, planoPrevio);
+        }
+        alteracoes.limpar();
+        
+        int pedidosDespachados = pedidosPorDrone.stream().mapToInt(List::size).sum();
+        Despacho despacho = new Despacho(dronesAlocados.size(), pedidosDespachados,
+            ciclo.completo ? TipoPlanejamento.COMPLETO : TipoPlanejamento.INCREMENTAL, replanejado);
+        List<ZonaExclusao> zonasDaMissao = FotografiaFrota.copiarZonas(zonasExclusao);
+        for (int i = 0; i < dronesAlocados.size(); i++) {
+            Missao missao = new Missao(despacho, dronesAlocados.get(i), pedidosPorDrone.get(i), zonasDaMissao, versaoZonas, matriz, agora);
+            janelaLote.registrarMissao(pedidosPorDrone.get(i), agora);
+            missoesAtivas.put(missao.drone, missao);
+            missoes.add(missao);
+        }
+        return despacho;
+    }
+
+    /**
+     * Separa os drones ociosos do ciclo e aplica a janela de consolidação; nulo se o ciclo
+     * deve ser ignorado. Pedidos que saem da retenção passam a contar como alterados.
+     */
+    private CicloDespacho prepararCiclo(long agora) {
         // Primeiro, verificar e gerenciar drones com bateria baixa
         gerenciarBateriaBaixa();
         
-        if (filaDePedidos.isEmpty()) {
-            return;
+        if (filaDePedidos.isEmpty() || (!alteracoes.possuiAlteracoes() && !janelaLote.possuiVencidos(agora))) {
+            return null;
         }
         
-        // Usar otimizador para melhor alocação de pedidos
-        List<Pedido> pedidosValidos = filaDePedidos.stream()
-            .filter(p -> !verificarZonaExclusao(0, 0, p.getX(), p.getY()))
-            .toList();
-            
-        List<List<Pedido>> alocacoesOtimizadas = otimizadorEntregas.otimizarAlocacao(
-            drones.stream().filter(d -> d.getEstado() == EstadoDrone.IDLE).toList(),
-            new ArrayList<>(pedidosValidos)
-        );
-        
-        int index = 0;
+        boolean completo = alteracoes.isReplanejamentoCompleto();
+        List<Drone> dronesLiberados = new ArrayList<>();
+        List<Drone> dronesInalterados = new ArrayList<>();
         for (Drone drone : drones) {
-            if (drone.getEstado() == EstadoDrone.IDLE && index < alocacoesOtimizadas.size()) {
-                List<Pedido> pedidosParaDrone = alocacoesOtimizadas.get(index);
-                if (!pedidosParaDrone.isEmpty()) {
-                    // Verificar se drone tem bateria suficiente antes de alocar
-                    if (verificarBateriaSuficienteParaMissao(drone, pedidosParaDrone)) {
-                        // Remover pedidos alocados da fila
-                        filaDePedidos.removeAll(pedidosParaDrone);
-                        // Executar entregas com simulação avançada
-                        executarEntregasAvancadas(drone, pedidosParaDrone);
-                    }
+            if (drone.getEstado() == EstadoDrone.IDLE) {
+                if (completo || alteracoes.isDroneLiberado(drone)) {
+                    dronesLiberados.add(drone);
+                } else {
+                    dronesInalterados.add(drone);
+                }
+            }
+        }
+        
+        // Janela de consolidação: pedidos retidos ficam na fila; os que saem dela contam como alterados.
+        // Só drones liberados revisam a fila inteira; sem eles basta reavaliar retidos e alterados.
+        List<String> liberadosDaRetencao = new ArrayList<>();
+        List<Pedido> pedidosLiberados;
+        if (!dronesLiberados.isEmpty()) {
+            List<Pedido> pedidosValidos = filaDePedidos.listarEmOrdem().stream()
+                .filter(p -> !verificarZonaExclusao(0, 0, p.getX(), p.getY()))
+                .toList();
+            pedidosLiberados = janelaLote.liberar(pedidosValidos, agora, liberadosDaRetencao);
+        } else {
+            pedidosLiberados = janelaLote.liberarAlterados(pedidosRetidosOuAlterados(), agora, liberadosDaRetencao);
+        }
+        liberadosDaRetencao.forEach(alteracoes::marcarPedido);
+        return new CicloDespacho(completo, dronesLiberados, dronesInalterados, pedidosLiberados);
+    }
+
+    /**
+     * Pedidos alterados desde o último ciclo, ainda na fila, que a janela liberou neste ciclo
+     */
+    private List<Pedido> pedidosAlteradosLiberados(Set<Pedido> liberados) {
+        List<Pedido> pedidosAlterados = new ArrayList<>();
+        for (String pedidoId : alteracoes.getPedidosAlterados()) {
+            Pedido pedido = filaDePedidos.buscar(pedidoId);
+            if (pedido != null && liberados.contains(pedido)) {
+                pedidosAlterados.add(pedido);
+            }
+        }
+        return pedidosAlterados;
+    }
+
+    /**
+     * Pedidos válidos (rota direta fora das zonas) ainda na fila que estão retidos na janela
+     * ou foram alterados desde o último ciclo
+     */
+    private List<Pedido> pedidosRetidosOuAlterados() {
+        Set<String> ids = new LinkedHashSet<>(alteracoes.getPedidosAlterados());
+        ids.addAll(janelaLote.getRetidos());
+        List<Pedido> pedidos = new ArrayList<>(ids.size());
+        for (String pedidoId : ids) {
+            Pedido pedido = filaDePedidos.buscar(pedidoId);
+            if (pedido != null && !verificarZonaExclusao(0, 0, pedido.getX(), pedido.getY())) {
+                pedidos.add(pedido);
+            }
+        }
+        return pedidos;
+    }
+
+    /**
+     * Planeja com as opções do despacho fora da thread escritora. A escritora só aplica a
+     * janela de consolidação, como o ciclo seguinte fará, e copia os drones e pedidos da
+     * primeira alocação do ciclo; a busca roda na thread chamadora sobre essas cópias.
+     * Nulo se não houver o que planejar.
+     */
+    private PlanejadorSegundoPlano.PlanoTentativo planejarForaDaEscritora(OpcoesPlanejamento opcoes) {
+        List<Drone> candidatos = new ArrayList<>();
+        List<Pedido> pedidos = new ArrayList<>();
+        processador.executarAcao(() -> copiarPrimeiraAlocacao(candidatos, pedidos));
+        if (candidatos.isEmpty() || pedidos.isEmpty()) {
+            return null;
+        }
+        PlanoAlocacao plano = otimizadorEntregas.novoPlano(pedidos.size(), opcoes);
+        List<List<Pedido>> alocacoes = otimizadorEntregas.otimizarAlocacao(plano, candidatos, pedidos, otimizadorEntregas.novaMatriz(pedidos.size()));
+        List<List<String>> idsPorDrone = new ArrayList<>(alocacoes.size());
+        for (List<Pedido> sequencia : alocacoes) {
+            idsPorDrone.add(sequencia.stream().map(Pedido::getId).toList());
+        }
+        return new PlanejadorSegundoPlano.PlanoTentativo(
+            PlanejadorSegundoPlano.assinatura(candidatos, pedidos), plano, List.copyOf(idsPorDrone));
+    }
+
+    /**
+     * Copia os drones e pedidos que a primeira alocação do próximo ciclo receberá: os drones
+     * liberados com os pedidos que a janela libera ou, sem eles, os demais ociosos com os
+     * pedidos alterados (thread escritora)
+     */
+    private void copiarPrimeiraAlocacao(List<Drone> candidatos, List<Pedido> pedidos) {
+        CicloDespacho ciclo = prepararCiclo(simulacao.agora());
+        if (ciclo == null) {
+            return;
+        }
+        boolean liberados = !ciclo.dronesLiberados.isEmpty();
+        for (Drone drone : liberados ? ciclo.dronesLiberados : ciclo.dronesInalterados) {
+            candidatos.add(new Drone(drone));
+        }
+        for (Pedido pedido : liberados ? ciclo.pedidosLiberados : pedidosAlteradosLiberados(ciclo.liberados)) {
+            pedidos.add(new Pedido(pedido));
+        }
+    }
+
+    /**
+     * Alocação do plano melhorado em segundo plano, se ele partiu exatamente destes
+     * drones e pedidos; nulo caso contrário
+     */
+    private List<List<Pedido>> alocacaoEmSegundoPlano(List<Drone> candidatos, List<Pedido> pedidos,
+                                                      MatrizDistancias matriz) {
+        if (!planejadorSegundoPlano.isAtivo()) {
+            return null;
+        }
+        PlanejadorSegundoPlano.PlanoTentativo tentativo =
+            planejadorSegundoPlano.planoPara(PlanejadorSegundoPlano.assinatura(candidatos, pedidos));
+        if (tentativo == null) {
+            return null;
+        }
+        return adotarTentativo(tentativo, candidatos, pedidos, matriz);
+    }
+
+    /**
+     * Alocação do plano calculado sobre a fotografia, se o estado vivo ainda é o mesmo; nulo caso contrário
+     */
+    private List<List<Pedido>> alocacaoPrevia(PlanejadorSegundoPlano.PlanoTentativo planoPrevio,
+                                              List<Drone> candidatos, List<Pedido> pedidos, MatrizDistancias matriz) {
+        if (planoPrevio == null || planoPrevio.getAssinatura() != PlanejadorSegundoPlano.assinatura(candidatos, pedidos)) {
+            return null;
+        }
+        return adotarTentativo(planoPrevio, candidatos, pedidos, matriz);
+    }
+
+    /**
+     * Alocação do plano tentativo sobre os pedidos vivos; nula se algum ID não for resolvido,
+     * o que só acontece em colisão da assinatura de 64 bits
+     */
+    private List<List<Pedido>> adotarTentativo(PlanejadorSegundoPlano.PlanoTentativo tentativo,
+                                               List<Drone> candidatos, List<Pedido> pedidos, MatrizDistancias matriz) {
+        Map<String, Pedido> pedidosPorId = new HashMap<>();
+        for (Pedido pedido : pedidos) {
+            pedidosPorId.put(pedido.getId(), pedido);
+        }
+        if (tentativo.getPedidosPorDrone().size() != candidatos.size()) {
+            return null;
+        }
+        List<List<Pedido>> alocacoes = new ArrayList<>();
+        for (List<String> ids : tentativo.getPedidosPorDrone()) {
+            List<Pedido> sequencia = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                Pedido pedido = pedidosPorId.remove(id); // Cada pedido uma única vez
+                if (pedido == null) {
+                    return null; // Colisão de assinatura: o plano não é deste estado, replaneja
                 }
-                index++;
+                sequencia.add(pedido);
             }
+            alocacoes.add(sequencia);
         }
+        return otimizadorEntregas.adotarPlano(tentativo.getPlano(), candidatos, alocacoes, matriz);
     }
 
-    private void executarEntregasAvancadas(Drone drone, List<Pedido> pedidos) {
-        drone.setEstado(EstadoDrone.CARREGANDO);
+    /**
+     * Otimiza a alocação dos pedidos entre os drones candidatos e retira da fila os alocados.
+     * Retorna true se o plano das opções não valia para estes drones e pedidos e a thread
+     * escritora replanejou com o prazo padrão.
+     */
+    private boolean alocarPedidos(List<Drone> candidatos, List<Pedido> pedidos,
+                               List<Drone> dronesAlocados, List<List<Pedido>> pedidosPorDrone,
+                               MatrizDistancias matriz, OpcoesPlanejamento opcoes,
+                               PlanejadorSegundoPlano.PlanoTentativo planoPrevio) {
+        if (pedidos.isEmpty()) {
+            return false;
+        }
+        boolean replanejado = false;
+        List<List<Pedido>> alocacoesOtimizadas = opcoes == null
+            ? alocacaoEmSegundoPlano(candidatos, pedidos, matriz)
+            : alocacaoPrevia(planoPrevio, candidatos, pedidos, matriz);
+        if (alocacoesOtimizadas == null) {
+            // Na thread escritora o prazo é sempre o padrão; só a meta das opções é mantida
+            OpcoesPlanejamento opcoesEscritora = opcoes != null ? new OpcoesPlanejamento(null, opcoes.getAlvoKmPorEntrega()) : null;
+            alocacoesOtimizadas = otimizadorEntregas.otimizarAlocacao(candidatos, new ArrayList<>(pedidos), matriz, opcoesEscritora);
+            replanejado = opcoes != null;
+        }
         
-        // Simular tempo de carregamento
-        try {
-            Thread.sleep(100); // Simular 100ms de carregamento
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        for (int index = 0; index < candidatos.size() && index < alocacoesOtimizadas.size(); index++) {
+            Drone drone = candidatos.get(index);
+            List<Pedido> pedidosParaDrone = alocacoesOtimizadas.get(index);
+            if (!pedidosParaDrone.isEmpty()) {
+                // Verificar se drone tem bateria suficiente antes de alocar
+                if (verificarBateriaSuficienteParaMissao(drone, pedidosParaDrone, matriz)) {
+                    // Remover pedidos alocados da fila
+                    for (Pedido pedido : pedidosParaDrone) {
+                        filaDePedidos.remover(pedido.getId());
+                        registroPedidos.registrarEmEntrega(pedido, drone.getId());
+                        drone.adicionarPedido(pedido);
+                    }
+                    drone.setEstado(EstadoDrone.CARREGANDO);
+                    dronesAlocados.add(drone);
+                    pedidosPorDrone.add(pedidosParaDrone);
+                }
+            }
         }
+        return replanejado;
+    }
 
+    /**
+     * Missões cujo cálculo de etapas falhou e que foram iniciadas sem entregas
+     */
+    long getFalhasCalculoMissao() {
+        return falhasCalculoMissao;
+    }
+
+    /**
+     * Calcula as etapas da missão em uma thread virtual, sobre as cópias isoladas da
+     * missão (sem tocar no estado compartilhado), e enfileira o início da missão na
+     * thread escritora quando o cálculo termina: quem despacha nunca aguarda o cálculo,
+     * nem mesmo um despacho feito por um evento da própria thread escritora
+     */
+    private void calcularEtapasEmSegundoPlano(Missao missao) {
+        CompletableFuture.supplyAsync(() -> calcularEtapas(missao), executorMissoes)
+            .whenComplete((etapas, erro) -> processador.enviar(() -> {
+                if (erro != null) {
+                    falhasCalculoMissao++; // A missão segue sem etapas e o drone volta à base
+                }
+                missao.etapas = erro == null ? etapas : List.of();
+                iniciarMissao(missao);
+                return null;
+            }));
+    }
+
+    /**
+     * Calcula rota otimizada, rotas seguras e consumo de cada entrega sem tocar no
+     * estado compartilhado (usa as zonas e a posição copiadas no planejamento)
+     */
+    private List<EtapaEntrega> calcularEtapas(Missao missao) {
         // Usar rota otimizada do OtimizadorEntregas
-        List<Pedido> rotaOtimizada = otimizadorEntregas.otimizarRota(pedidos);
+        List<Pedido> rotaOtimizada = otimizadorEntregas.otimizarRota(missao.pedidos, missao.matriz);
+        double pesoTotal = rotaOtimizada.stream().mapToDouble(Pedido::getPeso).sum();
         
+        List<EtapaEntrega> etapas = new ArrayList<>(rotaOtimizada.size());
+        int posX = missao.origemX;
+        int posY = missao.origemY;
+        int indiceAtual = posX == 0 && posY == 0 ? MatrizDistancias.BASE : -1;
         for (Pedido pedido : rotaOtimizada) {
-            Entrega entrega = new Entrega(drone.getId(), pedido);
-            
-            drone.setEstado(EstadoDrone.EM_VOO);
-            
+            int indicePedido = missao.matriz.indice(pedido); // Já indexado no planejamento
             // **NOVA FUNCIONALIDADE**: Calcular rota segura que evita zonas de exclusão
             List<CalculadorRota.Point> rotaSegura = calculadorRota.calcularRotaSegura(
-                drone.getPosX(), drone.getPosY(), 
+                posX, posY, 
                 pedido.getX(), pedido.getY(), 
-                zonasExclusao, 200 // limite do grid
+                missao.zonas, missao.versaoZonas, 200 // limite do grid
             );
             
             // Calcular distância total da rota segura (pode ser maior que rota direta)
-            double distanciaTotal = calculadorRota.calcularDistanciaTotal(rotaSegura);
-            double tempo = calcularTempo(distanciaTotal);
+            double distanciaTotal = rotaSegura.size() == 2 && indiceAtual >= 0
+                ? missao.matriz.distancia(indiceAtual, indicePedido)
+                : calculadorRota.calcularDistanciaTotal(rotaSegura);
             
             // Verificar se a rota é diferente da direta
             if (rotaSegura.size() > 2) {
-                System.out.println("🛣️ Drone " + drone.getId() + " usando rota alternativa para evitar zona de exclusão");
+                System.out.println("🛣️ Drone " + missao.drone.getId() + " usando rota alternativa para evitar zona de exclusão");
                 System.out.println("   Rota: " + rotaSegura);
                 System.out.println("   Distância: " + Math.round(distanciaTotal) + " unidades (vs " + 
-                                 Math.round(calcularDistancia(drone.getPosX(), drone.getPosY(), pedido.getX(), pedido.getY())) + " direta)");
+                                 Math.round(calcularDistancia(posX, posY, pedido.getX(), pedido.getY())) + " direta)");
             }
             
             // Usar simulador avançado de bateria
-            double pesoTotal = rotaOtimizada.stream().mapToDouble(Pedido::getPeso).sum();
-            boolean condicaoAdversa = Math.random() < 0.3; // 30% chance de condições adversas
+            boolean condicaoAdversa = ThreadLocalRandom.current().nextDouble() < 0.3; // 30% chance de condições adversas
             double bateriaConsumida = simuladorBateria.calcularConsumoReal(distanciaTotal, pesoTotal, condicaoAdversa);
             
-            // Verificar se há bateria suficiente para continuar e retornar
-            double distanciaRetorno = calcularDistancia(pedido.getX(), pedido.getY(), 0, 0);
-            if (!simuladorBateria.bateriaSuficienteParaRetorno(drone.getBateriaAtual() - bateriaConsumida, distanciaRetorno)) {
-                // Bateria insuficiente - retornar à base imediatamente
-                System.out.println("⚠️ Drone " + drone.getId() + " cancelando entrega - bateria insuficiente para retorno seguro");
-                break;
-            }
-            
-            // Consumir bateria e mover drone
-            drone.consumirBateria(bateriaConsumida);
-            drone.setPosicao(pedido.getX(), pedido.getY());
-            
-            // Verificar novamente após consumo se ainda é seguro continuar
-            if (simuladorBateria.isBateriaCritica(drone.getBateriaAtual())) {
-                System.out.println("🔋 Drone " + drone.getId() + " com bateria crítica - interrompendo entregas");
-                break;
-            }
-            
-            drone.setEstado(EstadoDrone.ENTREGANDO);
-            
-            // Simular tempo de entrega
-            try {
-                Thread.sleep(50); // 50ms para entrega
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            etapas.add(new EtapaEntrega(pedido, distanciaTotal, calcularTempo(distanciaTotal), bateriaConsumida));
+            posX = pedido.getX();
+            posY = pedido.getY();
+            indiceAtual = indicePedido;
+        }
+        return etapas;
+    }
+
+    private boolean isMissaoAtiva(Missao missao) {
+        return missoesAtivas.get(missao.drone) == missao;
+    }
+
+    /**
+     * Encerra a missão no despacho (uma única vez), com sua duração no relógio da simulação
+     */
+    private void encerrarMissao(Missao missao) {
+        if (!missao.encerrada) {
+            missao.encerrada = true;
+            if (missao.despacho.registrarMissaoConcluida((simulacao.agora() - missao.inicio) * 1_000_000L)) {
+                despachosConcluidos.add(missao.despacho); // Liberado após a publicação da fotografia
             }
-            
-            entrega.finalizar(distanciaTotal, tempo, bateriaConsumida);
-            entregasRealizadas.add(entrega);
         }
+    }
 
-        // Retornar à base
+    private static long duracaoVoo(double tempoMinutos) {
+        return Math.round(tempoMinutos * DURACAO_VOO_MS_POR_MINUTO);
+    }
+
+    // Cadeia de eventos da missão (thread escritora):
+    // CARREGAMENTO -> (DECOLAGEM -> CHEGADA -> ENTREGA)* -> RETORNO [-> RECARGA_CONCLUIDA]
+
+    private void iniciarMissao(Missao missao) {
+        if (!isMissaoAtiva(missao)) {
+            encerrarMissao(missao);
+            return;
+        }
+        simulacao.agendar(TEMPO_CARREGAMENTO_MS, TipoEvento.CARREGAMENTO,
+            () -> simulacao.agendar(0, TipoEvento.DECOLAGEM, () -> decolar(missao)));
+    }
+
+    /**
+     * Decola rumo ao próximo pedido, ou inicia o retorno se não houver mais entregas
+     */
+    private void decolar(Missao missao) {
+        if (!isMissaoAtiva(missao)) {
+            encerrarMissao(missao);
+            return;
+        }
+        if (missao.proximaEtapa >= missao.etapas.size()) {
+            iniciarRetorno(missao);
+            return;
+        }
+        EtapaEntrega etapa = missao.etapas.get(missao.proximaEtapa++);
+        Drone drone = missao.drone;
+        Pedido pedido = etapa.pedido;
+        drone.setEstado(EstadoDrone.EM_VOO);
+        
+        // Verificar se há bateria suficiente para continuar e retornar
+        double distanciaRetorno = calcularDistancia(pedido.getX(), pedido.getY(), 0, 0);
+        if (!simuladorBateria.bateriaSuficienteParaRetorno(drone.getBateriaAtual() - etapa.bateriaConsumida, distanciaRetorno)) {
+            // Bateria insuficiente - retornar à base imediatamente
+            System.out.println("⚠️ Drone " + drone.getId() + " cancelando entrega - bateria insuficiente para retorno seguro");
+            iniciarRetorno(missao);
+            return;
+        }
+        
+        missao.entregaEmAndamento = new Entrega(drone.getId(), pedido);
+        simulacao.agendar(duracaoVoo(etapa.tempo), TipoEvento.CHEGADA, () -> chegar(missao, etapa));
+    }
+
+    private void chegar(Missao missao, EtapaEntrega etapa) {
+        if (!isMissaoAtiva(missao)) {
+            encerrarMissao(missao);
+            return;
+        }
+        Drone drone = missao.drone;
+        
+        // Consumir bateria e mover drone
+        drone.consumirBateria(etapa.bateriaConsumida);
+        drone.setPosicao(etapa.pedido.getX(), etapa.pedido.getY());
+        
+        // Verificar novamente após consumo se ainda é seguro continuar
+        if (simuladorBateria.isBateriaCritica(drone.getBateriaAtual())) {
+            System.out.println("🔋 Drone " + drone.getId() + " com bateria crítica - interrompendo entregas");
+            missao.entregaEmAndamento = null;
+            iniciarRetorno(missao);
+            return;
+        }
+        
+        drone.setEstado(EstadoDrone.ENTREGANDO);
+        simulacao.agendar(TEMPO_ENTREGA_MS, TipoEvento.ENTREGA, () -> entregar(missao, etapa));
+    }
+
+    private void entregar(Missao missao, EtapaEntrega etapa) {
+        Entrega entrega = missao.entregaEmAndamento;
+        missao.entregaEmAndamento = null;
+        if (!isMissaoAtiva(missao) || entrega == null) {
+            encerrarMissao(missao); // Missão interrompida (ex.: retorno de emergência) durante a entrega
+            return;
+        }
+        entrega.finalizar(etapa.distancia, etapa.tempo, etapa.bateriaConsumida);
+        registroEntregas.registrar(entrega);
+        registroPedidos.registrarEntregue(entrega);
+        missao.despacho.registrarEntrega();
+        
+        simulacao.agendar(0, TipoEvento.DECOLAGEM, () -> decolar(missao));
+    }
+
+    private void iniciarRetorno(Missao missao) {
+        Drone drone = missao.drone;
         drone.setEstado(EstadoDrone.RETORNANDO);
         double distanciaRetorno = calcularDistancia(drone.getPosX(), drone.getPosY(), 0, 0);
+        simulacao.agendar(duracaoVoo(calcularTempo(distanciaRetorno)), TipoEvento.RETORNO, () -> retornarBase(missao));
+    }
+
+    private void retornarBase(Missao missao) {
+        if (!isMissaoAtiva(missao)) {
+            encerrarMissao(missao);
+            return;
+        }
+        missoesAtivas.remove(missao.drone);
+        Drone drone = missao.drone;
+        
+        // Retornar à base
+        double distanciaRetorno = calcularDistancia(drone.getPosX(), drone.getPosY(), 0, 0);
         double bateriaRetorno = simuladorBateria.calcularConsumoReal(distanciaRetorno, 0, false);
         
         drone.consumirBateria(bateriaRetorno);
         drone.setPosicao(0, 0);
+        cancelarPedidosNaoEntregues(drone);
         drone.limparPedidos();
         
         // Verificar se precisa recarregar baseado nos novos critérios
         if (simuladorBateria.isBateriaBaixa(drone.getBateriaAtual())) {
-            drone.iniciarRecarga();
+            iniciarRecarga(drone);
             System.out.println("🔋 Drone " + drone.getId() + " iniciando recarga - bateria em " + 
                               Math.round(drone.getBateriaAtual()) + "%");
         } else {
             drone.setEstado(EstadoDrone.IDLE);
+            alteracoes.marcarDrone(drone);
         }
+        encerrarMissao(missao);
     }
 
-    private boolean verificarZonaExclusao(int x1, int y1, int x2, int y2) {
-        for (ZonaExclusao zona : zonasExclusao) {
-            if (zona.interceptaRota(x1, y1, x2, y2)) {
-                return true;
+    /**
+     * Inicia a recarga no relógio da simulação e agenda sua conclusão
+     */
+    private void iniciarRecarga(Drone drone) {
+        long inicio = simulacao.agora();
+        drone.iniciarRecarga(inicio);
+        
+        double minutos = Math.max(0, 100.0 - drone.getBateriaAtual()) / TAXA_RECARGA_POR_MINUTO;
+        simulacao.agendar(Math.round(minutos * 60_000), TipoEvento.RECARGA_CONCLUIDA, () -> {
+            if (drone.isRecargaIniciadaEm(inicio)) {
+                drone.finalizarRecarga();
+                alteracoes.marcarDrone(drone);
             }
-        }
-        return false;
+        });
+    }
+
+    private boolean verificarZonaExclusao(int x1, int y1, int x2, int y2) {
+        return indiceZonas.intercepta(x1, y1, x2, y2);
     }
 
     public List<Entrega> getEntregasRealizadas() {
-        return entregasRealizadas;
+        return registroEntregas.listar();
     }
 
     public List<Pedido> getPedidosNaFila() {
-        return new ArrayList<>(filaDePedidos);
+        return fotografia.getFila();
     }
 
     public List<ZonaExclusao> getZonasExclusao() {
-        return zonasExclusao;
+        return fotografia.getZonas();
     }
 
     public void adicionarZonaExclusao(int x1, int y1, int x2, int y2, String nome, String motivo) {
-        zonasExclusao.add(new ZonaExclusao(x1, y1, x2, y2, nome, motivo));
+        processador.executarAcao(() -> {
+            ZonaExclusao zona = new ZonaExclusao(x1, y1, x2, y2, nome, motivo);
+            zonasExclusao.add(zona);
+            alteracoes.marcarZonas();
+            avancarVersaoZonas(List.of(zona));
+        });
     }
 
     public boolean editarZonaExclusao(String zonaId, int x1, int y1, int x2, int y2, String nome, String motivo) {
-        for (ZonaExclusao zona : zonasExclusao) {
-            if (zona.getId().equals(zonaId)) {
-                zona.setNome(nome);
-                zona.setMotivo(motivo);
-                zona.setCoordenadas(x1, y1, x2, y2);
-                return true;
+        return processador.executar(() -> {
+            for (int i = 0; i < zonasExclusao.size(); i++) {
+                ZonaExclusao anterior = zonasExclusao.get(i);
+                if (anterior.getId().equals(zonaId)) {
+                    // Substitui em vez de alterar: quem leu a zona anterior continua vendo coordenadas coerentes com a versão lida
+                    ZonaExclusao editada = new ZonaExclusao(anterior);
+                    editada.setNome(nome);
+                    editada.setMotivo(motivo);
+                    editada.setCoordenadas(x1, y1, x2, y2);
+                    zonasExclusao.set(i, editada);
+                    alteracoes.marcarZonas();
+                    avancarVersaoZonas(List.of(anterior, editada));
+                    return true;
+                }
             }
-        }
-        return false;
+            return false;
+        });
     }
 
     public boolean removerZonaExclusao(String zonaId) {
-        return zonasExclusao.removeIf(zona -> zona.getId().equals(zonaId));
+        return processador.executar(() -> {
+            ZonaExclusao removida = buscarZonaExclusao(zonaId);
+            if (removida == null) {
+                return false;
+            }
+            zonasExclusao.remove(removida);
+            alteracoes.marcarZonas();
+            avancarVersaoZonas(List.of(removida));
+            return true;
+        });
+    }
+
+    /**
+     * Reconstrói o índice espacial e publica a nova versão das zonas depois de descartar
+     * do cache as rotas próximas às zonas alteradas (thread escritora)
+     */
+    private void avancarVersaoZonas(List<ZonaExclusao> zonasAlteradas) {
+        indiceZonas = new IndiceZonas(zonasExclusao);
+        calculadorRota.invalidarRotas(versaoZonas, versaoZonas + 1, zonasAlteradas);
+        versaoZonas++;
+    }
+
+    /**
+     * Acertos, falhas, despejos e invalidações do cache de rotas seguras
+     */
+    public Map<String, Object> getEstatisticasCacheRotas() {
+        return calculadorRota.getEstatisticasCache();
     }
 
     public ZonaExclusao buscarZonaExclusao(String zonaId) {
@@ -270,9 +982,10 @@ public class DroneService {
     public Map<String, Object> calcularRotaComInfo(int xInicio, int yInicio, int xDestino, int yDestino) {
         Map<String, Object> resultado = new HashMap<>();
         
-        // Calcular rota segura
+        // Calcular rota segura com as zonas e a versão da mesma fotografia
+        FotografiaFrota atual = fotografia;
         List<CalculadorRota.Point> rotaSegura = calculadorRota.calcularRotaSegura(
-            xInicio, yInicio, xDestino, yDestino, zonasExclusao, 200
+            xInicio, yInicio, xDestino, yDestino, atual.getZonas(), atual.getVersaoZonas(), 200
         );
         
         // Calcular distâncias
@@ -280,14 +993,11 @@ public class DroneService {
         double distanciaSegura = calculadorRota.calcularDistanciaTotal(rotaSegura);
         
         // Verificar se há zonas interceptadas
-        boolean interceptaZona = false;
         List<String> zonasInterceptadas = new ArrayList<>();
-        for (ZonaExclusao zona : zonasExclusao) {
-            if (zona.interceptaRota(xInicio, yInicio, xDestino, yDestino)) {
-                interceptaZona = true;
-                zonasInterceptadas.add(zona.getNome());
-            }
+        for (ZonaExclusao zona : atual.getIndiceZonas().interceptadas(xInicio, yInicio, xDestino, yDestino)) {
+            zonasInterceptadas.add(zona.getNome());
         }
+        boolean interceptaZona = !zonasInterceptadas.isEmpty();
         
         // Montar resultado
         resultado.put("rotaSegura", rotaSegura);
@@ -302,109 +1012,7 @@ public class DroneService {
     }
 
     public Map<String, Object> getEstatisticas() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Estatísticas básicas
-        stats.put("totalEntregas", entregasRealizadas.size());
-        stats.put("totalDrones", drones.size());
-        stats.put("pedidosNaFila", filaDePedidos.size());
-        stats.put("zonasExclusao", zonasExclusao.size());
-        
-        // Estatísticas de bateria
-        if (!drones.isEmpty()) {
-            double bateriaMedia = drones.stream()
-                    .mapToDouble(Drone::getBateriaAtual)
-                    .average()
-                    .orElse(0);
-            stats.put("bateriaMedia", Math.round(bateriaMedia * 10.0) / 10.0);
-            
-            // Drones ativos (não em recarga ou idle)
-            long dronesAtivos = drones.stream()
-                    .filter(d -> d.getEstado() == EstadoDrone.EM_VOO || 
-                               d.getEstado() == EstadoDrone.ENTREGANDO ||
-                               d.getEstado() == EstadoDrone.CARREGANDO)
-                    .count();
-            stats.put("dronesAtivos", dronesAtivos);
-            
-            // Status da frota
-            Map<String, Long> statusFrota = drones.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            d -> d.getEstado().toString(),
-                            java.util.stream.Collectors.counting()));
-            stats.put("statusFrota", statusFrota);
-        } else {
-            stats.put("bateriaMedia", 0);
-            stats.put("dronesAtivos", 0);
-            stats.put("statusFrota", new HashMap<>());
-        }
-        
-        // Estatísticas de entregas
-        if (!entregasRealizadas.isEmpty()) {
-            // Tempo médio de entrega
-            double tempoMedio = entregasRealizadas.stream()
-                    .mapToDouble(Entrega::getTempoTotalMinutos)
-                    .average()
-                    .orElse(0);
-            stats.put("tempoMedioEntrega", Math.round(tempoMedio * 100.0) / 100.0);
-            
-            // Distância total percorrida
-            double distanciaTotal = entregasRealizadas.stream()
-                    .mapToDouble(Entrega::getDistanciaPercorrida)
-                    .sum();
-            stats.put("distanciaTotal", Math.round(distanciaTotal * 100.0) / 100.0);
-            
-            // Drone mais eficiente (que fez mais entregas)
-            Map<String, Long> entregasPorDrone = entregasRealizadas.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            Entrega::getDroneId, 
-                            java.util.stream.Collectors.counting()));
-            
-            String droneMaisEficiente = entregasPorDrone.entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .map(Map.Entry::getKey)
-                    .orElse("Nenhum");
-            
-            stats.put("droneMaisEficiente", droneMaisEficiente);
-            
-            // Eficiência geral (entregas por hora)
-            long tempoTotalMinutos = entregasRealizadas.stream()
-                    .mapToLong(e -> (long) e.getTempoTotalMinutos())
-                    .sum();
-            double eficienciaGeral = tempoTotalMinutos > 0 ? 
-                    (entregasRealizadas.size() * 60.0) / tempoTotalMinutos : 0;
-            stats.put("eficienciaGeral", Math.round(eficienciaGeral * 100.0) / 100.0);
-            
-            // Consumo médio de bateria por entrega
-            double consumoMedio = entregasRealizadas.stream()
-                    .mapToDouble(Entrega::getBateriaConsumida)
-                    .average()
-                    .orElse(0);
-            stats.put("consumoMedioBateria", Math.round(consumoMedio * 100.0) / 100.0);
-            
-        } else {
-            stats.put("tempoMedioEntrega", 0);
-            stats.put("distanciaTotal", 0);
-            stats.put("droneMaisEficiente", "Nenhum");
-            stats.put("eficienciaGeral", 0);
-            stats.put("consumoMedioBateria", 0);
-        }
-        
-        // Estatísticas de prioridade
-        if (!filaDePedidos.isEmpty()) {
-            Map<String, Long> pedidosPorPrioridade = filaDePedidos.stream()
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            p -> p.getPrioridade().toString(),
-                            java.util.stream.Collectors.counting()));
-            stats.put("pedidosPorPrioridade", pedidosPorPrioridade);
-        } else {
-            stats.put("pedidosPorPrioridade", new HashMap<>());
-        }
-        
-        // Estatísticas de tempo real
-        stats.put("timestamp", System.currentTimeMillis());
-        stats.put("sistemaAtivo", true);
-        
-        return stats;
+        return fotografia.getEstatisticas();
     }
 
     private double calcularDistancia(int x1, int y1, int x2, int y2) {
@@ -418,48 +1026,47 @@ public class DroneService {
     }
 
     public String getStatusPedido(String pedidoId) {
-        // Verificar se está na fila
-        for (Pedido pedido : filaDePedidos) {
-            if (pedido.getId().equals(pedidoId)) {
-                int posicao = filaDePedidos.indexOf(pedido) + 1;
-                return "Pedido na fila, posição: " + posicao;
-            }
-        }
-        
-        // Verificar se está em entrega
-        for (Drone drone : drones) {
-            for (Pedido pedido : drone.getPedidosAlocados()) {
-                if (pedido.getId().equals(pedidoId)) {
-                    double distancia = calcularDistancia(0, 0, drone.getPosX(), drone.getPosY());
-                    return "Em entrega - Drone a " + Math.round(distancia) + " metros da base";
-                }
-            }
+        RegistroPedidos.SituacaoPedido situacao = registroPedidos.buscar(pedidoId);
+        if (situacao == null) {
+            return "Pedido não encontrado";
         }
         
-        // Verificar se foi entregue
-        for (Entrega entrega : entregasRealizadas) {
-            if (entrega.getPedido().getId().equals(pedidoId)) {
-                return "Entregue em " + entrega.getFimEntrega().toString();
-            }
+        FotografiaFrota atual = fotografia;
+        switch (situacao.getEstado()) {
+            case NA_FILA:
+                // Posição lida da fila da fotografia (O(log n)); ausente se o pedido chegou no lote em andamento
+                int posicao = atual.posicaoNaFila(pedidoId);
+                return posicao > 0 ? "Pedido na fila, posição: " + posicao : "Pedido na fila";
+            case EM_ENTREGA:
+                Drone drone = atual.buscarDrone(situacao.getDroneId());
+                double distancia = drone != null ? calcularDistancia(0, 0, drone.getPosX(), drone.getPosY()) : 0;
+                return "Em entrega - Drone a " + Math.round(distancia) + " metros da base";
+            case ENTREGUE:
+                return "Entregue em " + situacao.getFimEntrega().toString();
+            default:
+                return "Pedido não encontrado";
         }
-        
-        return "Pedido não encontrado";
     }
 
     public boolean recarregarDrone(String droneId) {
-        for (Drone drone : drones) {
-            if (drone.getId().equals(droneId)) {
-                drone.recarregar();
-                return true;
+        return processador.executar(() -> {
+            Drone drone = indiceDrones.get(droneId);
+            if (drone == null) {
+                return false;
             }
-        }
-        return false;
+            drone.recarregar();
+            alteracoes.marcarDrone(drone);
+            return true;
+        });
     }
 
     public void recarregarTodosDrones() {
-        for (Drone drone : drones) {
-            drone.recarregar();
-        }
+        processador.executarAcao(() -> {
+            for (Drone drone : drones) {
+                drone.recarregar();
+                alteracoes.marcarDrone(drone);
+            }
+        });
     }
     
     /**
@@ -469,7 +1076,10 @@ public class DroneService {
         for (Drone drone : drones) {
             // Atualizar recarga de drones que estão carregando
             if (drone.getEstado() == EstadoDrone.CHARGING) {
-                drone.atualizarRecarga(1.5); // 1.5% por minuto
+                drone.atualizarRecarga(TAXA_RECARGA_POR_MINUTO, simulacao.agora()); // 1.5% por minuto
+                if (drone.getEstado() == EstadoDrone.IDLE) {
+                    alteracoes.marcarDrone(drone);
+                }
                 continue;
             }
             
@@ -500,6 +1110,7 @@ public class DroneService {
         System.out.println("⚠️ ALERTA: Drone " + drone.getId() + " com bateria baixa (" + 
                           Math.round(drone.getBateriaAtual()) + "%) - Retornando à base!");
         
+        interromperMissao(drone); // Já cancela os pedidos não entregues
         drone.retornoEmergencia();
         
         // Simular retorno imediato à base
@@ -510,29 +1121,30 @@ public class DroneService {
         drone.setPosicao(0, 0);
         
         // Iniciar recarga automática
-        drone.iniciarRecarga();
+        iniciarRecarga(drone);
         System.out.println("🔋 Drone " + drone.getId() + " iniciou recarga automática");
     }
     
+    /**
+     * Retira do índice os pedidos alocados ao drone que não chegaram a ser entregues
+     */
+    private void cancelarPedidosNaoEntregues(Drone drone) {
+        for (Pedido pedido : drone.getPedidosAlocados()) {
+            RegistroPedidos.SituacaoPedido situacao = registroPedidos.buscar(pedido.getId());
+            if (situacao != null && situacao.getEstado() == EstadoPedido.EM_ENTREGA) {
+                registroPedidos.remover(pedido.getId());
+            }
+        }
+    }
+    
     /**
      * Verifica se drone tem bateria suficiente para missão
      */
-    private boolean verificarBateriaSuficienteParaMissao(Drone drone, List<Pedido> pedidos) {
+    private boolean verificarBateriaSuficienteParaMissao(Drone drone, List<Pedido> pedidos, MatrizDistancias matriz) {
         if (pedidos.isEmpty()) return true;
         
-        // Calcular distância total da missão
-        double distanciaTotal = 0;
-        int currentX = drone.getPosX();
-        int currentY = drone.getPosY();
-        
-        for (Pedido pedido : pedidos) {
-            distanciaTotal += calcularDistancia(currentX, currentY, pedido.getX(), pedido.getY());
-            currentX = pedido.getX();
-            currentY = pedido.getY();
-        }
-        
-        // Adicionar distância de retorno à base
-        distanciaTotal += calcularDistancia(currentX, currentY, 0, 0);
+        // Distância total da missão, a mesma medida usada pela atribuição dos pacotes
+        double distanciaTotal = otimizadorEntregas.calcularDistanciaMissao(drone, pedidos, matriz);
         
         // Calcular peso total
         double pesoTotal = pedidos.stream().mapToDouble(Pedido::getPeso).sum();
@@ -542,172 +1154,207 @@ public class DroneService {
     }
     
     /**
-     * Retorna status detalhado da bateria de todos os drones
+     * Retorna status detalhado da bateria de todos os drones, na última fotografia publicada
      */
     public Map<String, Object> getStatusBateria() {
-        Map<String, Object> status = new HashMap<>();
-        List<Map<String, Object>> dronesStatus = new ArrayList<>();
-        
-        int dronesComBateriaBaixa = 0;
-        int dronesEmRecarga = 0;
-        
-        for (Drone drone : drones) {
-            Map<String, Object> droneInfo = new HashMap<>();
-            droneInfo.put("id", drone.getId());
-            droneInfo.put("bateria", Math.round(drone.getBateriaAtual() * 100.0) / 100.0);
-            droneInfo.put("estado", drone.getEstado().toString());
-            droneInfo.put("posicao", Map.of("x", drone.getPosX(), "y", drone.getPosY()));
-            droneInfo.put("bateriaBaixa", simuladorBateria.isBateriaBaixa(drone.getBateriaAtual()));
-            droneInfo.put("bateriaCritica", simuladorBateria.isBateriaCritica(drone.getBateriaAtual()));
-            droneInfo.put("emRecarga", drone.isEmRecarga());
-            
-            if (drone.isEmRecarga()) {
-                droneInfo.put("tempoRecargaMinutos", drone.getTempoRecargaMinutos());
-                dronesEmRecarga++;
-            }
-            
-            if (simuladorBateria.isBateriaBaixa(drone.getBateriaAtual())) {
-                dronesComBateriaBaixa++;
-            }
-            
-            dronesStatus.add(droneInfo);
-        }
-        
-        status.put("drones", dronesStatus);
-        status.put("totalDrones", drones.size());
-        status.put("dronesComBateriaBaixa", dronesComBateriaBaixa);
-        status.put("dronesEmRecarga", dronesEmRecarga);
-        status.put("timestamp", System.currentTimeMillis());
-        
-        return status;
+        return fotografia.getStatusBateria();
     }
     
     /**
      * Força retorno manual de um drone específico
      */
     public boolean forcarRetornoManual(String droneId) {
-        for (Drone drone : drones) {
-            if (drone.getId().equals(droneId)) {
-                if (drone.getEstado() == EstadoDrone.IDLE || 
-                    drone.getEstado() == EstadoDrone.CHARGING) {
-                    return false; // Já está na base
-                }
-                
-                forcarRetornoEmergencia(drone);
-                return true;
+        return processador.executar(() -> {
+            Drone drone = indiceDrones.get(droneId);
+            if (drone == null) {
+                return false;
             }
-        }
-        return false;
+            if (drone.getEstado() == EstadoDrone.IDLE || 
+                drone.getEstado() == EstadoDrone.CHARGING) {
+                return false; // Já está na base
+            }
+        
+            forcarRetornoEmergencia(drone);
+            return true;
+        });
     }
     
     /**
      * Edita um drone existente
      */
     public boolean editarDrone(String id, double capacidade, double autonomia) {
-        for (Drone drone : drones) {
-            if (drone.getId().equals(id)) {
-                // Só permitir edição se drone estiver IDLE
-                if (drone.getEstado() != EstadoDrone.IDLE) {
-                    return false;
-                }
-                
-                // Atualizar propriedades
-                drone.setCapacidadeMaxima(capacidade);
-                drone.setAutonomiaMaxima(autonomia);
-                
-                // Se a nova autonomia for menor que a bateria atual, ajustar
-                if (drone.getBateriaAtual() > autonomia) {
-                    drone.setBateriaAtual(autonomia);
-                }
-                
-                return true;
+        return processador.executar(() -> {
+            Drone drone = indiceDrones.get(id);
+            // Só permitir edição se drone existir e estiver IDLE
+            if (drone == null || drone.getEstado() != EstadoDrone.IDLE) {
+                return false;
             }
-        }
-        return false;
+        
+            // Atualizar propriedades
+            drone.setCapacidadeMaxima(capacidade);
+            drone.setAutonomiaMaxima(autonomia);
+        
+            // Se a nova autonomia for menor que a bateria atual, ajustar
+            if (drone.getBateriaAtual() > autonomia) {
+                drone.setBateriaAtual(autonomia);
+            }
+            alteracoes.marcarDrone(drone);
+        
+            return true;
+        });
     }
     
     /**
      * Remove um drone do sistema
      */
     public boolean removerDrone(String id) {
-        for (int i = 0; i < drones.size(); i++) {
-            Drone drone = drones.get(i);
-            if (drone.getId().equals(id)) {
-                // Só permitir remoção se drone estiver IDLE
-                if (drone.getEstado() != EstadoDrone.IDLE) {
-                    return false;
+        return processador.executar(() -> {
+            Drone drone = indiceDrones.get(id);
+            // Só permitir remoção se drone existir e estiver IDLE
+            if (drone == null || drone.getEstado() != EstadoDrone.IDLE) {
+                return false;
+            }
+        
+            drones.remove(drone);
+            indiceDrones.remove(id);
+            // Reindexar eventual drone cadastrado com o mesmo ID
+            for (Drone outro : drones) {
+                if (outro.getId().equals(id)) {
+                    indiceDrones.put(id, outro);
+                    break;
                 }
-                
-                drones.remove(i);
-                return true;
             }
-        }
-        return false;
+            return true;
+        });
     }
     
     /**
      * Edita um pedido na fila
      */
     public boolean editarPedido(String id, String cliente, int x, int y, double peso, String prioridade) {
-        // Verificar se o novo destino está em zona de exclusão
-        for (ZonaExclusao zona : zonasExclusao) {
-            if (zona.contemPonto(x, y)) {
+        return processador.executar(() -> {
+            // Verificar se o novo destino está em zona de exclusão
+            ZonaExclusao zona = buscarZonaContendo(x, y);
+            if (zona != null) {
                 System.out.println("⚠️ Edição de pedido rejeitada: novo destino (" + x + ", " + y + 
                                  ") está na zona de exclusão '" + zona.getNome() + "' - " + zona.getMotivo());
                 return false; // Edição rejeitada
             }
-        }
         
-        for (Pedido pedido : filaDePedidos) {
-            if (pedido.getId().equals(id)) {
-                pedido.setCliente(cliente);
-                pedido.setX(x);
-                pedido.setY(y);
-                pedido.setPeso(peso);
-                pedido.setPrioridade(com.dtidigital.drone_delivery.enums.Prioridade.valueOf(prioridade));
-                
-                // Reordenar fila após edição
-                ordenarFila();
-                return true;
+            Pedido pedido = registroPedidos.buscarNaFila(id);
+            if (pedido == null) {
+                return false;
             }
-        }
-        return false;
+        
+            pedido.setCliente(cliente);
+            pedido.setX(x);
+            pedido.setY(y);
+            pedido.setPeso(peso);
+            pedido.setPrioridade(com.dtidigital.drone_delivery.enums.Prioridade.valueOf(prioridade));
+        
+            // Reposicionar pedido na fila com a nova chave
+            filaDePedidos.atualizar(id);
+            alteracoes.marcarPedido(id);
+            return true;
+        });
     }
     
     /**
      * Remove um pedido da fila
      */
     public boolean removerPedido(String id) {
-        for (int i = 0; i < filaDePedidos.size(); i++) {
-            if (filaDePedidos.get(i).getId().equals(id)) {
-                filaDePedidos.remove(i);
-                return true;
+        return processador.executar(() -> {
+            if (registroPedidos.buscarNaFila(id) == null) {
+                return false;
             }
-        }
-        return false;
+            filaDePedidos.remover(id);
+            registroPedidos.remover(id);
+            janelaLote.descartar(id);
+            return true;
+        });
     }
     
     /**
      * Busca um pedido por ID
      */
     public Pedido buscarPedido(String id) {
-        for (Pedido pedido : filaDePedidos) {
-            if (pedido.getId().equals(id)) {
-                return pedido;
-            }
-        }
-        return null;
+        return fotografia.buscarPedidoNaFila(id);
     }
     
     /**
      * Busca um drone por ID
      */
     public Drone buscarDrone(String id) {
-        for (Drone drone : drones) {
-            if (drone.getId().equals(id)) {
-                return drone;
-            }
+        return fotografia.buscarDrone(id);
+    }
+    
+    /**
+     * Drones ociosos e pedidos liberados pela janela em um ciclo de despacho (thread escritora)
+     */
+    private static final class CicloDespacho {
+        private final boolean completo;
+        private final List<Drone> dronesLiberados;
+        private final List<Drone> dronesInalterados;
+        private final List<Pedido> pedidosLiberados;
+        private final Set<Pedido> liberados = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        CicloDespacho(boolean completo, List<Drone> dronesLiberados, List<Drone> dronesInalterados,
+                      List<Pedido> pedidosLiberados) {
+            this.completo = completo;
+            this.dronesLiberados = dronesLiberados;
+            this.dronesInalterados = dronesInalterados;
+            this.pedidosLiberados = pedidosLiberados;
+            this.liberados.addAll(pedidosLiberados);
+        }
+    }
+
+    /**
+     * Missão de um drone. Os campos finais são cópias isoladas feitas no planejamento
+     * e podem ser lidos no cálculo paralelo; os demais só mudam na thread escritora.
+     */
+    private static final class Missao {
+        private final Despacho despacho;
+        private final Drone drone;
+        private final List<Pedido> pedidos;
+        private final List<ZonaExclusao> zonas;
+        private final long versaoZonas;
+        private final MatrizDistancias matriz; // Somente leitura após o planejamento
+        private final int origemX;
+        private final int origemY;
+        private final long inicio;
+        private List<EtapaEntrega> etapas = List.of();
+        private int proximaEtapa = 0;
+        private Entrega entregaEmAndamento;
+        private boolean encerrada = false;
+
+        Missao(Despacho despacho, Drone drone, List<Pedido> pedidos, List<ZonaExclusao> zonas, long versaoZonas,
+               MatrizDistancias matriz, long inicio) {
+            this.despacho = despacho;
+            this.drone = drone;
+            this.pedidos = List.copyOf(pedidos);
+            this.zonas = zonas;
+            this.versaoZonas = versaoZonas;
+            this.matriz = matriz;
+            this.origemX = drone.getPosX();
+            this.origemY = drone.getPosY();
+            this.inicio = inicio;
+        }
+    }
+    
+    /**
+     * Resultado pré-calculado de uma entrega da missão
+     */
+    private static final class EtapaEntrega {
+        private final Pedido pedido;
+        private final double distancia;
+        private final double tempo;
+        private final double bateriaConsumida;
+
+        EtapaEntrega(Pedido pedido, double distancia, double tempo, double bateriaConsumida) {
+            this.pedido = pedido;
+            this.distancia = distancia;
+            this.tempo = tempo;
+            this.bateriaConsumida = bateriaConsumida;
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,478 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.*;
+
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Fila de prioridade indexada para os pedidos pendentes, implementada como árvore
+ * de estatística de ordem (treap com tamanho de subárvore).
+ * A chave de ordenação (prioridade + distância até a base) é calculada uma única vez
+ * por pedido; inserir, editar, remover, retirar o próximo e consultar a posição de
+ * um pedido custam O(log n).
+ * A árvore é persistente: os nós são imutáveis e cada alteração copia só o caminho até
+ * a raiz, de modo que {@link #fotografar()} entrega em O(1) uma visão imutável da fila
+ * que pode ser lida por outras threads enquanto a fila segue sendo alterada.
+ * O índice por ID também é um treap persistente, para que a visão responda a busca e a
+ * posição de um pedido em O(log n) sem consultar a fila viva.
+ */
+public class FilaPedidos {
+
+    private No raiz;
+    private long versao = 0;
+    private long proximaSequencia = 0;
+    private long sementeAleatoria = 0x9E3779B97F4A7C15L;
+    private Entrada indice; // Nó com a chave atual de cada pedido, por ID
+
+    /**
+     * Adiciona um pedido na fila
+     */
+    public void adicionar(Pedido pedido) {
+        if (contem(pedido.getId())) {
+            atualizar(pedido.getId());
+            return;
+        }
+
+        No no = new No(pedido, proximaSequencia++, proximoPesoAleatorio());
+        indice = inserirEntrada(indice, new Entrada(pedido.getId(), no, proximoPesoAleatorio(), null, null));
+        inserir(no);
+        versao++;
+    }
+
+    /**
+     * Adiciona um lote de pedidos na fila em uma única operação
+     */
+    public void adicionarTodos(Collection<Pedido> pedidos) {
+        for (Pedido pedido : pedidos) {
+            adicionar(pedido);
+        }
+    }
+
+    /**
+     * Recalcula a chave de um pedido após edição e reposiciona na árvore
+     */
+    public boolean atualizar(String pedidoId) {
+        No anterior = procurar(indice, pedidoId);
+        if (anterior == null) return false;
+
+        raiz = removerNo(raiz, anterior);
+        No no = new No(anterior.pedido, anterior.sequencia, anterior.peso);
+        indice = substituirEntrada(indice, pedidoId, no);
+        inserir(no);
+        versao++;
+        return true;
+    }
+
+    /**
+     * Remove um pedido da fila pelo ID
+     */
+    public Pedido remover(String pedidoId) {
+        No no = procurar(indice, pedidoId);
+        if (no == null) return null;
+
+        indice = removerEntrada(indice, pedidoId);
+        raiz = removerNo(raiz, no);
+        versao++;
+        return no.pedido;
+    }
+
+    /**
+     * Retira o pedido de maior prioridade da fila
+     */
+    public Pedido proximo() {
+        No primeiro = espiarNo();
+        if (primeiro == null) return null;
+
+        indice = removerEntrada(indice, primeiro.pedido.getId());
+        raiz = removerNo(raiz, primeiro);
+        versao++;
+        return primeiro.pedido;
+    }
+
+    /**
+     * Consulta o pedido de maior prioridade sem removê-lo
+     */
+    public Pedido espiar() {
+        No primeiro = espiarNo();
+        return primeiro != null ? primeiro.pedido : null;
+    }
+
+    public Pedido buscar(String pedidoId) {
+        No no = procurar(indice, pedidoId);
+        return no != null ? no.pedido : null;
+    }
+
+    public boolean contem(String pedidoId) {
+        return procurar(indice, pedidoId) != null;
+    }
+
+    public int tamanho() {
+        return tamanho(raiz);
+    }
+
+    public boolean isEmpty() {
+        return raiz == null;
+    }
+
+    /**
+     * Contador de modificações, usado para saber se a fila mudou desde a última leitura
+     */
+    public long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Posição (1-based) do pedido na ordem de atendimento, ou -1 se não estiver na fila
+     */
+    public int posicao(String pedidoId) {
+        No alvo = procurar(indice, pedidoId);
+        return alvo != null ? posicao(raiz, alvo) : -1;
+    }
+
+    private static int posicao(No raiz, No alvo) {
+        int anteriores = 0;
+        No atual = raiz;
+        while (atual != null) {
+            int comparacao = alvo.compareTo(atual);
+            if (comparacao < 0) {
+                atual = atual.esquerda;
+            } else if (comparacao > 0) {
+                anteriores += tamanho(atual.esquerda) + 1;
+                atual = atual.direita;
+            } else {
+                return anteriores + tamanho(atual.esquerda) + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lista os pedidos na ordem de atendimento (percurso em ordem, O(n))
+     */
+    public List<Pedido> listarEmOrdem() {
+        List<Pedido> pedidos = new ArrayList<>(tamanho());
+        Deque<No> pilha = new ArrayDeque<>();
+        No atual = raiz;
+        while (atual != null || !pilha.isEmpty()) {
+            while (atual != null) {
+                pilha.push(atual);
+                atual = atual.esquerda;
+            }
+            atual = pilha.pop();
+            pedidos.add(atual.pedido);
+            atual = atual.direita;
+        }
+        return pedidos;
+    }
+
+    /**
+     * Visão imutável da fila atual, em ordem de atendimento, com cópias dos pedidos
+     * tiradas na inserção ou na última atualização. Custa O(1): compartilha os nós
+     * com a fila, que nunca são alterados depois de criados.
+     */
+    public Visao fotografar() {
+        return new Visao(raiz, indice);
+    }
+
+    private No espiarNo() {
+        No atual = raiz;
+        if (atual == null) return null;
+        while (atual.esquerda != null) {
+            atual = atual.esquerda;
+        }
+        return atual;
+    }
+
+    private void inserir(No no) {
+        No[] partes = dividir(raiz, no);
+        raiz = unir(unir(partes[0], no), partes[1]);
+    }
+
+    /**
+     * Divide a árvore em nós menores que a chave e nós maiores ou iguais, copiando o caminho
+     */
+    private No[] dividir(No no, No chave) {
+        if (no == null) return new No[] { null, null };
+
+        if (no.compareTo(chave) < 0) {
+            No[] partes = dividir(no.direita, chave);
+            partes[0] = no.comFilhos(no.esquerda, partes[0]);
+            return partes;
+        }
+        No[] partes = dividir(no.esquerda, chave);
+        partes[1] = no.comFilhos(partes[1], no.direita);
+        return partes;
+    }
+
+    private No unir(No esquerda, No direita) {
+        if (esquerda == null) return direita;
+        if (direita == null) return esquerda;
+
+        if (esquerda.peso > direita.peso) {
+            return esquerda.comFilhos(esquerda.esquerda, unir(esquerda.direita, direita));
+        }
+        return direita.comFilhos(unir(esquerda, direita.esquerda), direita.direita);
+    }
+
+    private No removerNo(No atual, No alvo) {
+        if (atual == null) return null;
+
+        int comparacao = alvo.compareTo(atual);
+        if (comparacao == 0) {
+            return unir(atual.esquerda, atual.direita);
+        }
+        if (comparacao < 0) {
+            return atual.comFilhos(removerNo(atual.esquerda, alvo), atual.direita);
+        }
+        return atual.comFilhos(atual.esquerda, removerNo(atual.direita, alvo));
+    }
+
+    private static int tamanho(No no) {
+        return no != null ? no.tamanho : 0;
+    }
+
+    private static No procurar(Entrada atual, String pedidoId) {
+        while (atual != null) {
+            int comparacao = pedidoId.compareTo(atual.pedidoId);
+            if (comparacao == 0) {
+                return atual.no;
+            }
+            atual = comparacao < 0 ? atual.esquerda : atual.direita;
+        }
+        return null;
+    }
+
+    /** Insere uma entrada cujo ID ainda não está no índice, copiando o caminho */
+    private static Entrada inserirEntrada(Entrada atual, Entrada nova) {
+        if (atual == null) return nova;
+
+        if (nova.peso > atual.peso) {
+            Entrada[] partes = dividirIndice(atual, nova.pedidoId);
+            return nova.comFilhos(partes[0], partes[1]);
+        }
+        if (nova.pedidoId.compareTo(atual.pedidoId) < 0) {
+            return atual.comFilhos(inserirEntrada(atual.esquerda, nova), atual.direita);
+        }
+        return atual.comFilhos(atual.esquerda, inserirEntrada(atual.direita, nova));
+    }
+
+    private static Entrada[] dividirIndice(Entrada atual, String pedidoId) {
+        if (atual == null) return new Entrada[] { null, null };
+
+        if (atual.pedidoId.compareTo(pedidoId) < 0) {
+            Entrada[] partes = dividirIndice(atual.direita, pedidoId);
+            partes[0] = atual.comFilhos(atual.esquerda, partes[0]);
+            return partes;
+        }
+        Entrada[] partes = dividirIndice(atual.esquerda, pedidoId);
+        partes[1] = atual.comFilhos(partes[1], atual.direita);
+        return partes;
+    }
+
+    /** Troca o nó de um ID já indexado, sem mudar a forma da árvore */
+    private static Entrada substituirEntrada(Entrada atual, String pedidoId, No no) {
+        int comparacao = pedidoId.compareTo(atual.pedidoId);
+        if (comparacao == 0) {
+            return new Entrada(pedidoId, no, atual.peso, atual.esquerda, atual.direita);
+        }
+        if (comparacao < 0) {
+            return atual.comFilhos(substituirEntrada(atual.esquerda, pedidoId, no), atual.direita);
+        }
+        return atual.comFilhos(atual.esquerda, substituirEntrada(atual.direita, pedidoId, no));
+    }
+
+    private static Entrada removerEntrada(Entrada atual, String pedidoId) {
+        if (atual == null) return null;
+
+        int comparacao = pedidoId.compareTo(atual.pedidoId);
+        if (comparacao == 0) {
+            return unirIndice(atual.esquerda, atual.direita);
+        }
+        if (comparacao < 0) {
+            return atual.comFilhos(removerEntrada(atual.esquerda, pedidoId), atual.direita);
+        }
+        return atual.comFilhos(atual.esquerda, removerEntrada(atual.direita, pedidoId));
+    }
+
+    private static Entrada unirIndice(Entrada esquerda, Entrada direita) {
+        if (esquerda == null) return direita;
+        if (direita == null) return esquerda;
+
+        if (esquerda.peso > direita.peso) {
+            return esquerda.comFilhos(esquerda.esquerda, unirIndice(esquerda.direita, direita));
+        }
+        return direita.comFilhos(unirIndice(esquerda, direita.esquerda), direita.direita);
+    }
+
+    private int proximoPesoAleatorio() {
+        // xorshift determinístico para balancear o treap
+        sementeAleatoria ^= sementeAleatoria << 13;
+        sementeAleatoria ^= sementeAleatoria >>> 7;
+        sementeAleatoria ^= sementeAleatoria << 17;
+        return (int) sementeAleatoria;
+    }
+
+    /**
+     * Nó imutável da árvore com a chave de ordenação pré-calculada. Guarda o pedido vivo,
+     * usado pela thread escritora, e uma cópia congelada, exposta pelas fotografias.
+     */
+    private static final class No implements Comparable<No> {
+        private final Pedido pedido;
+        private final Pedido copia;
+        private final long sequencia; // Desempate estável pela ordem de chegada
+        private final int peso;
+        private final int prioridade;
+        private final double distanciaBase;
+        private final int tamanho;
+        private final No esquerda;
+        private final No direita;
+
+        No(Pedido pedido, long sequencia, int peso) {
+            double dx = pedido.getX();
+            double dy = pedido.getY();
+            this.pedido = pedido;
+            this.copia = new Pedido(pedido);
+            this.sequencia = sequencia;
+            this.peso = peso;
+            this.prioridade = pedido.getPrioridade().ordinal();
+            this.distanciaBase = Math.sqrt(dx * dx + dy * dy);
+            this.tamanho = 1;
+            this.esquerda = null;
+            this.direita = null;
+        }
+
+        private No(No base, No esquerda, No direita) {
+            this.pedido = base.pedido;
+            this.copia = base.copia;
+            this.sequencia = base.sequencia;
+            this.peso = base.peso;
+            this.prioridade = base.prioridade;
+            this.distanciaBase = base.distanciaBase;
+            this.tamanho = tamanho(esquerda) + tamanho(direita) + 1;
+            this.esquerda = esquerda;
+            this.direita = direita;
+        }
+
+        /** Cópia deste nó com outros filhos (os originais seguem intactos) */
+        No comFilhos(No esquerda, No direita) {
+            return esquerda == this.esquerda && direita == this.direita ? this : new No(this, esquerda, direita);
+        }
+
+        @Override
+        public int compareTo(No outro) {
+            if (prioridade != outro.prioridade) {
+                return Integer.compare(prioridade, outro.prioridade);
+            }
+            int comparacaoDistancia = Double.compare(distanciaBase, outro.distanciaBase);
+            if (comparacaoDistancia != 0) {
+                return comparacaoDistancia;
+            }
+            return Long.compare(sequencia, outro.sequencia);
+        }
+    }
+
+    /**
+     * Entrada imutável do índice por ID (treap ordenado pelo ID do pedido)
+     */
+    private static final class Entrada {
+        private final String pedidoId;
+        private final No no;
+        private final int peso;
+        private final Entrada esquerda;
+        private final Entrada direita;
+
+        Entrada(String pedidoId, No no, int peso, Entrada esquerda, Entrada direita) {
+            this.pedidoId = pedidoId;
+            this.no = no;
+            this.peso = peso;
+            this.esquerda = esquerda;
+            this.direita = direita;
+        }
+
+        Entrada comFilhos(Entrada esquerda, Entrada direita) {
+            return esquerda == this.esquerda && direita == this.direita ? this : new Entrada(pedidoId, no, peso, esquerda, direita);
+        }
+    }
+
+    /**
+     * Lista somente leitura sobre uma raiz da árvore: acesso por índice em O(log n)
+     * pelo tamanho das subárvores, iteração em ordem em O(n), e busca e posição de um
+     * pedido por ID em O(log n) pelo índice da mesma versão
+     */
+    public static final class Visao extends AbstractList<Pedido> {
+        private final No raiz;
+        private final Entrada indicePorId;
+
+        private Visao(No raiz, Entrada indicePorId) {
+            this.raiz = raiz;
+            this.indicePorId = indicePorId;
+        }
+
+        /**
+         * Posição (1-based) do pedido nesta versão da fila, ou -1 se não estiver nela
+         */
+        public int posicao(String pedidoId) {
+            No alvo = procurar(indicePorId, pedidoId);
+            return alvo != null ? FilaPedidos.posicao(raiz, alvo) : -1;
+        }
+
+        /**
+         * Cópia congelada do pedido nesta versão da fila, ou null se não estiver nela
+         */
+        public Pedido buscar(String pedidoId) {
+            No no = procurar(indicePorId, pedidoId);
+            return no != null ? no.copia : null;
+        }
+
+        @Override
+        public Pedido get(int indice) {
+            if (indice < 0 || indice >= size()) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fora da fila de " + size());
+            }
+            No atual = raiz;
+            while (true) {
+                int esquerda = tamanho(atual.esquerda);
+                if (indice < esquerda) {
+                    atual = atual.esquerda;
+                } else if (indice > esquerda) {
+                    indice -= esquerda + 1;
+                    atual = atual.direita;
+                } else {
+                    return atual.copia;
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return tamanho(raiz);
+        }
+
+        @Override
+        public Iterator<Pedido> iterator() {
+            return new Iterator<>() {
+                private final Deque<No> pilha = new ArrayDeque<>();
+                private No atual = raiz;
+
+                @Override
+                public boolean hasNext() {
+                    return atual != null || !pilha.isEmpty();
+                }
+
+                @Override
+                public Pedido next() {
+                    while (atual != null) {
+                        pilha.push(atual);
+                        atual = atual.esquerda;
+                    }
+                    if (pilha.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    No no = pilha.pop();
+                    atual = no.direita;
+                    return no.copia;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import com.dtidigital.drone_delivery.enums.EstadoDrone;
+import com.dtidigital.drone_delivery.model.Drone;
+import com.dtidigital.drone_delivery.model.Entrega;
+import com.dtidigital.drone_delivery.model.Pedido;
+import com.dtidigital.drone_delivery.model.ZonaExclusao;
+
+/**
+ * Fotografia imutável e versionada do estado da frota (drones, fila, zonas, entregas e
+ * relatório da janela de consolidação).
+ * Publicada pela thread escritora após cada lote de comandos e lida pelos endpoints
+ * através de uma referência volátil, sem locks e sem interferir no despacho.
+ */
+public final class FotografiaFrota {
+
+    private final long versao;
+    private final long instantePublicacao;
+    private final long instanteSimulacao;
+    private final List<Drone> drones;
+    private final Map<String, Drone> dronesPorId;
+    private final FilaPedidos.Visao fila;
+    private final List<ZonaExclusao> zonas;
+    private final long versaoZonas;
+    private final IndiceZonas indiceZonas;
+    private final List<Entrega> entregas;
+    private final RegistroEntregas.Resumo resumoEntregas;
+    private final SimuladorBateria simuladorBateria;
+    private final Map<String, Object> relatorioLote;
+    private final Set<String> retidos;
+
+    // Derivados calculados sob demanda (idempotentes, publicação benigna)
+    private volatile Map<String, Object> estatisticasBase;
+
+    FotografiaFrota(long versao, long instanteSimulacao, List<Drone> drones, FilaPedidos.Visao fila,
+                    List<ZonaExclusao> zonas, long versaoZonas, IndiceZonas indiceZonas, List<Entrega> entregas, RegistroEntregas.Resumo resumoEntregas,
+                    SimuladorBateria simuladorBateria, Map<String, Object> relatorioLote, Set<String> retidos) {
+        this.versao = versao;
+        this.instantePublicacao = System.currentTimeMillis();
+        this.instanteSimulacao = instanteSimulacao;
+        this.drones = drones;
+        this.fila = fila;
+        this.zonas = zonas;
+        this.versaoZonas = versaoZonas;
+        this.indiceZonas = indiceZonas;
+        this.entregas = entregas;
+        this.resumoEntregas = resumoEntregas;
+        this.simuladorBateria = simuladorBateria;
+        this.relatorioLote = Collections.unmodifiableMap(relatorioLote);
+        this.retidos = retidos;
+
+        Map<String, Drone> porId = new HashMap<>();
+        for (Drone drone : drones) {
+            porId.putIfAbsent(drone.getId(), drone);
+        }
+        this.dronesPorId = Collections.unmodifiableMap(porId);
+    }
+
+    /**
+     * Copia os drones vivos para uma lista imutável
+     */
+    static List<Drone> copiarDrones(List<Drone> drones) {
+        List<Drone> copia = new ArrayList<>(drones.size());
+        for (Drone drone : drones) {
+            copia.add(new Drone(drone));
+        }
+        return Collections.unmodifiableList(copia);
+    }
+
+    /**
+     * Copia as zonas de exclusão para uma lista imutável
+     */
+    static List<ZonaExclusao> copiarZonas(List<ZonaExclusao> zonas) {
+        List<ZonaExclusao> copia = new ArrayList<>(zonas.size());
+        for (ZonaExclusao zona : zonas) {
+            copia.add(new ZonaExclusao(zona));
+        }
+        return Collections.unmodifiableList(copia);
+    }
+
+    public long getVersao() { return versao; }
+    public long getInstantePublicacao() { return instantePublicacao; }
+    public long getInstanteSimulacao() { return instanteSimulacao; }
+    public List<Drone> getDrones() { return drones; }
+    public List<Pedido> getFila() { return fila; }
+    public List<ZonaExclusao> getZonas() { return zonas; }
+    /** Versão das zonas desta fotografia, coerente com {@link #getZonas()} */
+    public long getVersaoZonas() { return versaoZonas; }
+    IndiceZonas getIndiceZonas() { return indiceZonas; }
+    public List<Entrega> getEntregas() { return entregas; }
+    /** Política de consolidação em vigor e seus indicadores no momento da publicação */
+    public Map<String, Object> getRelatorioLote() { return relatorioLote; }
+    /** Pedidos da fila retidos pela janela de consolidação no último ciclo de despacho */
+    Set<String> getRetidos() { return retidos; }
+
+    /**
+     * Posição (1-based) do pedido na fila desta fotografia, ou -1 se não estiver nela
+     */
+    public int posicaoNaFila(String pedidoId) {
+        return fila.posicao(pedidoId);
+    }
+
+    /**
+     * Pedido aguardando na fila desta fotografia, ou null se não estiver nela
+     */
+    public Pedido buscarPedidoNaFila(String pedidoId) {
+        return fila.buscar(pedidoId);
+    }
+
+    public Drone buscarDrone(String droneId) {
+        return dronesPorId.get(droneId);
+    }
+
+    public ZonaExclusao buscarZona(String zonaId) {
+        for (ZonaExclusao zona : zonas) {
+            if (zona.getId().equals(zonaId)) {
+                return zona;
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> getEstatisticas() {
+        Map<String, Object> base = estatisticasBase;
+        if (base == null) {
+            base = calcularEstatisticas();
+            estatisticasBase = base;
+        }
+
+        Map<String, Object> stats = new HashMap<>(base);
+        // Estatísticas de tempo real
+        stats.put("timestamp", System.currentTimeMillis());
+        stats.put("sistemaAtivo", true);
+        return stats;
+    }
+
+    public Map<String, Object> getStatusBateria() {
+        return calcularStatusBateria(drones, simuladorBateria, instanteSimulacao);
+    }
+
+    private Map<String, Object> calcularEstatisticas() {
+        Map<String, Object> stats = new HashMap<>();
+
+        // Estatísticas básicas
+        stats.put("totalEntregas", resumoEntregas.getTotalEntregas());
+        stats.put("totalDrones", drones.size());
+        stats.put("pedidosNaFila", fila.size());
+        stats.put("zonasExclusao", zonas.size());
+        stats.put("versaoFotografia", versao);
+
+        // Estatísticas de bateria
+        if (!drones.isEmpty()) {
+            double bateriaMedia = drones.stream()
+                    .mapToDouble(Drone::getBateriaAtual)
+                    .average()
+                    .orElse(0);
+            stats.put("bateriaMedia", Math.round(bateriaMedia * 10.0) / 10.0);
+
+            // Drones ativos (não em recarga ou idle)
+            long dronesAtivos = drones.stream()
+                    .filter(d -> d.getEstado() == EstadoDrone.EM_VOO ||
+                               d.getEstado() == EstadoDrone.ENTREGANDO ||
+                               d.getEstado() == EstadoDrone.CARREGANDO)
+                    .count();
+            stats.put("dronesAtivos", dronesAtivos);
+
+            // Status da frota
+            Map<String, Long> statusFrota = drones.stream()
+                    .collect(Collectors.groupingBy(
+                            d -> d.getEstado().toString(),
+                            Collectors.counting()));
+            stats.put("statusFrota", statusFrota);
+        } else {
+            stats.put("bateriaMedia", 0);
+            stats.put("dronesAtivos", 0);
+            stats.put("statusFrota", new HashMap<>());
+        }
+
+        // Estatísticas de entregas (agregados mantidos incrementalmente)
+        if (resumoEntregas.getTotalEntregas() > 0) {
+            stats.put("tempoMedioEntrega", Math.round(resumoEntregas.getTempoMedio() * 100.0) / 100.0);
+            stats.put("distanciaTotal", Math.round(resumoEntregas.getDistanciaTotal() * 100.0) / 100.0);
+            stats.put("droneMaisEficiente", resumoEntregas.getDroneMaisEficiente());
+
+            // Eficiência geral (entregas por hora)
+            long tempoTotalMinutos = resumoEntregas.getTempoTotalMinutos();
+            double eficienciaGeral = tempoTotalMinutos > 0 ?
+                    (resumoEntregas.getTotalEntregas() * 60.0) / tempoTotalMinutos : 0;
+            stats.put("eficienciaGeral", Math.round(eficienciaGeral * 100.0) / 100.0);
+            stats.put("consumoMedioBateria", Math.round(resumoEntregas.getConsumoMedio() * 100.0) / 100.0);
+        } else {
+            stats.put("tempoMedioEntrega", 0);
+            stats.put("distanciaTotal", 0);
+            stats.put("droneMaisEficiente", "Nenhum");
+            stats.put("eficienciaGeral", 0);
+            stats.put("consumoMedioBateria", 0);
+        }
+
+        // Estatísticas de prioridade
+        if (!fila.isEmpty()) {
+            Map<String, Long> pedidosPorPrioridade = fila.stream()
+                    .collect(Collectors.groupingBy(
+                            p -> p.getPrioridade().toString(),
+                            Collectors.counting()));
+            stats.put("pedidosPorPrioridade", pedidosPorPrioridade);
+        } else {
+            stats.put("pedidosPorPrioridade", new HashMap<>());
+        }
+
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Monta o status detalhado da bateria para a lista de drones informada, no instante da simulação
+     */
+    private static Map<String, Object> calcularStatusBateria(List<Drone> drones, SimuladorBateria simuladorBateria, long agora) {
+        Map<String, Object> status = new HashMap<>();
+        List<Map<String, Object>> dronesStatus = new ArrayList<>();
+
+        int dronesComBateriaBaixa = 0;
+        int dronesEmRecarga = 0;
+
+        for (Drone drone : drones) {
+            Map<String, Object> droneInfo = new HashMap<>();
+            droneInfo.put("id", drone.getId());
+            droneInfo.put("bateria", Math.round(drone.getBateriaAtual() * 100.0) / 100.0);
+            droneInfo.put("estado", drone.getEstado().toString());
+            droneInfo.put("posicao", Map.of("x", drone.getPosX(), "y", drone.getPosY()));
+            droneInfo.put("bateriaBaixa", simuladorBateria.isBateriaBaixa(drone.getBateriaAtual()));
+            droneInfo.put("bateriaCritica", simuladorBateria.isBateriaCritica(drone.getBateriaAtual()));
+            droneInfo.put("emRecarga", drone.isEmRecarga());
+
+            if (drone.isEmRecarga()) {
+                droneInfo.put("tempoRecargaMinutos", drone.getTempoRecargaMinutos(agora));
+                dronesEmRecarga++;
+            }
+
+            if (simuladorBateria.isBateriaBaixa(drone.getBateriaAtual())) {
+                dronesComBateriaBaixa++;
+            }
+
+            dronesStatus.add(droneInfo);
+        }
+
+        status.put("drones", dronesStatus);
+        status.put("totalDrones", drones.size());
+        status.put("dronesComBateriaBaixa", dronesComBateriaBaixa);
+        status.put("dronesEmRecarga", dronesEmRecarga);
+        status.put("timestamp", System.currentTimeMillis());
+
+        return status;
+    }
+}
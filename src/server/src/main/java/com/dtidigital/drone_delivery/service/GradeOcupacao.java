@@ -0,0 +1,84 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.List;
+
+import com.dtidigital.drone_delivery.model.ZonaExclusao;
+
+/**
+ * Grade de ocupação das zonas de exclusão em um bitset {@code long[]}, cobrindo as
+ * células de (0, 0) a (limite, limite). Imutável depois de construída: pode ser
+ * compartilhada entre threads e reutilizada enquanto a versão das zonas não mudar.
+ */
+final class GradeOcupacao {
+
+    private final long versaoZonas;
+    private final int limite;
+    private final int lado;
+    private final long[] bits;
+
+    GradeOcupacao(List<ZonaExclusao> zonas, long versaoZonas, int limite) {
+        this.versaoZonas = versaoZonas;
+        this.limite = limite;
+        this.lado = limite + 1;
+        this.bits = new long[(int) (((long) lado * lado + 63) >>> 6)];
+        for (ZonaExclusao zona : zonas) {
+            int xMax = Math.min(limite, zona.getX2());
+            int yMax = Math.min(limite, zona.getY2());
+            for (int x = Math.max(0, zona.getX1()); x <= xMax; x++) {
+                for (int y = Math.max(0, zona.getY1()); y <= yMax; y++) {
+                    int celula = x * lado + y;
+                    bits[celula >>> 6] |= 1L << celula;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica se a célula está dentro de alguma zona (fora da grade nunca está)
+     */
+    boolean ocupada(int x, int y) {
+        if (x < 0 || y < 0 || x > limite || y > limite) {
+            return false;
+        }
+        int celula = x * lado + y;
+        return (bits[celula >>> 6] & (1L << celula)) != 0;
+    }
+
+    /**
+     * Indica se o segmento entre as duas células não toca nenhuma zona. Como as zonas têm
+     * cantos inteiros, basta olhar as células vizinhas a cada cruzamento do segmento com as
+     * linhas da grade (duas zonas encostadas contam como bloqueio, o que só é conservador)
+     */
+    boolean linhaLivre(int x0, int y0, int x1, int y1) {
+        if (ocupada(x0, y0) || ocupada(x1, y1)) {
+            return false;
+        }
+        int dx = x1 - x0;
+        int dy = y1 - y0;
+        for (int k = Math.min(x0, x1) + 1; k < Math.max(x0, x1); k++) {
+            long num = (long) (k - x0) * dy;
+            int yBaixo = y0 + (int) Math.floorDiv(num, (long) dx);
+            int yAlto = y0 - (int) Math.floorDiv(-num, (long) dx);
+            if (ocupada(k, yBaixo) && ocupada(k, yAlto)) {
+                return false;
+            }
+        }
+        for (int k = Math.min(y0, y1) + 1; k < Math.max(y0, y1); k++) {
+            long num = (long) (k - y0) * dx;
+            int xBaixo = x0 + (int) Math.floorDiv(num, (long) dy);
+            int xAlto = x0 - (int) Math.floorDiv(-num, (long) dy);
+            if (ocupada(xBaixo, k) && ocupada(xAlto, k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getLimite() {
+        return limite;
+    }
+
+    boolean isVersao(long versaoZonas, int limite) {
+        return this.versaoZonas == versaoZonas && this.limite == limite;
+    }
+}
@@ -0,0 +1,161 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.dtidigital.drone_delivery.model.ZonaExclusao;
+
+/**
+ * Grafo de visibilidade entre os cantos das zonas de exclusão, afastados uma unidade para
+ * fora de cada zona. Como as zonas são retângulos alinhados aos eixos, o menor caminho seguro
+ * passa por esses cantos. O grafo e os menores caminhos entre todos os pares de cantos
+ * (Floyd-Warshall) são calculados uma vez por versão das zonas; cada consulta só liga a
+ * origem e o destino aos cantos visíveis e escolhe o melhor par. Imutável depois de construído.
+ */
+final class GrafoVisibilidade {
+
+    /** Acima disso o cálculo de todos os pares fica caro e a rota usa a grade */
+    static final int MAX_CANTOS = 512;
+
+    private final long versaoZonas;
+    private final IndiceZonas indice;
+    private final int[] cantoX;
+    private final int[] cantoY;
+    private final double[] distancia; // distancia[a * n + b], menor caminho entre cantos
+    private final int[] proximo;      // proximo[a * n + b], canto seguinte no caminho (-1 se não há)
+
+    private GrafoVisibilidade(long versaoZonas, IndiceZonas indice, int[] cantoX, int[] cantoY) {
+        this.versaoZonas = versaoZonas;
+        this.indice = indice;
+        this.cantoX = cantoX;
+        this.cantoY = cantoY;
+        int n = cantoX.length;
+        this.distancia = new double[n * n];
+        this.proximo = new int[n * n];
+        calcularMenoresCaminhos(n);
+    }
+
+    /**
+     * Monta o grafo das zonas, ou devolve nulo se houver cantos demais
+     */
+    static GrafoVisibilidade construir(List<ZonaExclusao> zonas, long versaoZonas) {
+        IndiceZonas indice = new IndiceZonas(zonas);
+        Set<Long> cantos = new LinkedHashSet<>();
+        for (ZonaExclusao zona : zonas) {
+            int[] xs = {zona.getX1() - 1, zona.getX2() + 1};
+            int[] ys = {zona.getY1() - 1, zona.getY2() + 1};
+            for (int x : xs) {
+                for (int y : ys) {
+                    // Mesmo filtro dos antigos waypoints: sem coordenadas negativas
+                    if (x >= 0 && y >= 0 && indice.zonaContendo(x, y) == null) {
+                        cantos.add(((long) x << 32) | (y & 0xFFFFFFFFL));
+                    }
+                }
+            }
+        }
+        if (cantos.size() > MAX_CANTOS) {
+            return null;
+        }
+        int[] cantoX = new int[cantos.size()];
+        int[] cantoY = new int[cantos.size()];
+        int i = 0;
+        for (long canto : cantos) {
+            cantoX[i] = (int) (canto >> 32);
+            cantoY[i++] = (int) canto;
+        }
+        return new GrafoVisibilidade(versaoZonas, indice, cantoX, cantoY);
+    }
+
+    boolean isVersao(long versaoZonas) {
+        return this.versaoZonas == versaoZonas;
+    }
+
+    /**
+     * @return pontos da rota (início, cantos e destino), ou nulo se uma das pontas estiver
+     *         dentro de uma zona ou não houver caminho livre
+     */
+    List<CalculadorRota.Point> rotear(int xInicio, int yInicio, int xDestino, int yDestino) {
+        if (indice.zonaContendo(xInicio, yInicio) != null || indice.zonaContendo(xDestino, yDestino) != null) {
+            return null;
+        }
+        List<CalculadorRota.Point> rota = new ArrayList<>();
+        rota.add(new CalculadorRota.Point(xInicio, yInicio));
+        if (visivel(xInicio, yInicio, xDestino, yDestino)) {
+            rota.add(new CalculadorRota.Point(xDestino, yDestino));
+            return rota;
+        }
+
+        int n = cantoX.length;
+        double[] daOrigem = new double[n];
+        double[] aoDestino = new double[n];
+        for (int c = 0; c < n; c++) {
+            daOrigem[c] = visivel(xInicio, yInicio, cantoX[c], cantoY[c])
+                ? Math.hypot(cantoX[c] - xInicio, cantoY[c] - yInicio) : Double.POSITIVE_INFINITY;
+            aoDestino[c] = visivel(cantoX[c], cantoY[c], xDestino, yDestino)
+                ? Math.hypot(xDestino - cantoX[c], yDestino - cantoY[c]) : Double.POSITIVE_INFINITY;
+        }
+
+        double melhor = Double.POSITIVE_INFINITY;
+        int melhorEntrada = -1;
+        int melhorSaida = -1;
+        for (int a = 0; a < n; a++) {
+            if (daOrigem[a] == Double.POSITIVE_INFINITY) continue;
+            for (int b = 0; b < n; b++) {
+                double total = daOrigem[a] + distancia[a * n + b] + aoDestino[b];
+                if (total < melhor) {
+                    melhor = total;
+                    melhorEntrada = a;
+                    melhorSaida = b;
+                }
+            }
+        }
+        if (melhorEntrada < 0) {
+            return null;
+        }
+
+        for (int c = melhorEntrada; c != melhorSaida; c = proximo[c * n + melhorSaida]) {
+            rota.add(new CalculadorRota.Point(cantoX[c], cantoY[c]));
+        }
+        rota.add(new CalculadorRota.Point(cantoX[melhorSaida], cantoY[melhorSaida]));
+        rota.add(new CalculadorRota.Point(xDestino, yDestino));
+        return rota;
+    }
+
+    private void calcularMenoresCaminhos(int n) {
+        Arrays.fill(distancia, Double.POSITIVE_INFINITY);
+        Arrays.fill(proximo, -1);
+        for (int a = 0; a < n; a++) {
+            distancia[a * n + a] = 0;
+            proximo[a * n + a] = a;
+            for (int b = a + 1; b < n; b++) {
+                if (visivel(cantoX[a], cantoY[a], cantoX[b], cantoY[b])) {
+                    double d = Math.hypot(cantoX[b] - cantoX[a], cantoY[b] - cantoY[a]);
+                    distancia[a * n + b] = d;
+                    distancia[b * n + a] = d;
+                    proximo[a * n + b] = b;
+                    proximo[b * n + a] = a;
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int a = 0; a < n; a++) {
+                double ak = distancia[a * n + k];
+                if (ak == Double.POSITIVE_INFINITY) continue;
+                for (int b = 0; b < n; b++) {
+                    double viaK = ak + distancia[k * n + b];
+                    if (viaK < distancia[a * n + b]) {
+                        distancia[a * n + b] = viaK;
+                        proximo[a * n + b] = proximo[a * n + k];
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean visivel(int x0, int y0, int x1, int y1) {
+        return !indice.intercepta(x0, y0, x1, y1);
+    }
+}
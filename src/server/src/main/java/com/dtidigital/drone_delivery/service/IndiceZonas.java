@@ -0,0 +1,189 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import com.dtidigital.drone_delivery.model.ZonaExclusao;
+
+/**
+ * Índice espacial das zonas de exclusão em grade uniforme: cada zona é registrada nas
+ * células que seu retângulo cobre, e as consultas de ponto e de segmento só testam as
+ * zonas das células atravessadas. O lado da célula acompanha o tamanho médio das zonas,
+ * dobrando até haver no máximo cerca de quatro células por zona. Imutável: reconstruído
+ * a cada alteração de zonas e compartilhado entre threads.
+ */
+final class IndiceZonas {
+
+    private static final IndiceZonas VAZIO = new IndiceZonas(List.of());
+
+    private final ZonaExclusao[] zonas;
+    private final double minX;
+    private final double minY;
+    private final double lado;
+    private final int colunas;
+    private final int linhas;
+    private final int[] inicioCelula; // Zonas da célula c: indices[inicioCelula[c] .. inicioCelula[c + 1])
+    private final int[] indices;
+
+    IndiceZonas(List<ZonaExclusao> zonas) {
+        this.zonas = zonas.toArray(new ZonaExclusao[0]);
+        int n = this.zonas.length;
+        if (n == 0) {
+            minX = minY = 0;
+            lado = 1;
+            colunas = linhas = 0;
+            inicioCelula = new int[1];
+            indices = new int[0];
+            return;
+        }
+
+        int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+        double somaLados = 0;
+        for (ZonaExclusao zona : this.zonas) {
+            x0 = Math.min(x0, zona.getX1());
+            y0 = Math.min(y0, zona.getY1());
+            x1 = Math.max(x1, zona.getX2());
+            y1 = Math.max(y1, zona.getY2());
+            somaLados += Math.max(zona.getX2() - zona.getX1(), zona.getY2() - zona.getY1()) + 1;
+        }
+        double largura = (double) x1 - x0 + 1;
+        double altura = (double) y1 - y0 + 1;
+        double tamanho = Math.max(1, somaLados / n);
+        while (Math.ceil(largura / tamanho) * Math.ceil(altura / tamanho) > 4.0 * n + 16) {
+            tamanho *= 2;
+        }
+        minX = x0;
+        minY = y0;
+        lado = tamanho;
+        colunas = (int) Math.ceil(largura / tamanho);
+        linhas = (int) Math.ceil(altura / tamanho);
+
+        // Duas passadas: contagem por célula e depois preenchimento
+        inicioCelula = new int[colunas * linhas + 1];
+        for (ZonaExclusao zona : this.zonas) {
+            for (int cx = coluna(zona.getX1()); cx <= coluna(zona.getX2()); cx++) {
+                for (int cy = linha(zona.getY1()); cy <= linha(zona.getY2()); cy++) {
+                    inicioCelula[cx * linhas + cy + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < colunas * linhas; c++) {
+            inicioCelula[c + 1] += inicioCelula[c];
+        }
+        indices = new int[inicioCelula[colunas * linhas]];
+        int[] preenchidos = new int[colunas * linhas];
+        for (int i = 0; i < n; i++) {
+            ZonaExclusao zona = this.zonas[i];
+            for (int cx = coluna(zona.getX1()); cx <= coluna(zona.getX2()); cx++) {
+                for (int cy = linha(zona.getY1()); cy <= linha(zona.getY2()); cy++) {
+                    int celula = cx * linhas + cy;
+                    indices[inicioCelula[celula] + preenchidos[celula]++] = i;
+                }
+            }
+        }
+    }
+
+    static IndiceZonas vazio() {
+        return VAZIO;
+    }
+
+    boolean isVazio() {
+        return zonas.length == 0;
+    }
+
+    /**
+     * Primeira zona (na ordem de cadastro) que contém o ponto, ou nulo
+     */
+    ZonaExclusao zonaContendo(int x, int y) {
+        int cx = coluna(x);
+        int cy = linha(y);
+        if (cx < 0 || cy < 0 || cx >= colunas || cy >= linhas) {
+            return null;
+        }
+        int celula = cx * linhas + cy;
+        int melhor = Integer.MAX_VALUE;
+        for (int k = inicioCelula[celula]; k < inicioCelula[celula + 1]; k++) {
+            int i = indices[k];
+            if (i < melhor && zonas[i].contemPonto(x, y)) {
+                melhor = i;
+            }
+        }
+        return melhor == Integer.MAX_VALUE ? null : zonas[melhor];
+    }
+
+    /**
+     * Indica se o segmento toca alguma zona
+     */
+    boolean intercepta(int xInicio, int yInicio, int xFim, int yFim) {
+        return percorrer(xInicio, yInicio, xFim, yFim, null);
+    }
+
+    /**
+     * Zonas tocadas pelo segmento, na ordem de cadastro
+     */
+    List<ZonaExclusao> interceptadas(int xInicio, int yInicio, int xFim, int yFim) {
+        BitSet tocadas = new BitSet(zonas.length);
+        percorrer(xInicio, yInicio, xFim, yFim, tocadas);
+        List<ZonaExclusao> resultado = new ArrayList<>(tocadas.cardinality());
+        for (int i = tocadas.nextSetBit(0); i >= 0; i = tocadas.nextSetBit(i + 1)) {
+            resultado.add(zonas[i]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Visita, coluna a coluna da grade, as células cobertas pelo segmento e testa suas zonas
+     * pelo recorte exato; sem {@code tocadas}, para na primeira zona encontrada
+     */
+    private boolean percorrer(int xInicio, int yInicio, int xFim, int yFim, BitSet tocadas) {
+        if (zonas.length == 0) {
+            return false;
+        }
+        int xMenor = Math.min(xInicio, xFim);
+        int xMaior = Math.max(xInicio, xFim);
+        int cxInicial = Math.max(0, coluna(xMenor));
+        int cxFinal = Math.min(colunas - 1, coluna(xMaior));
+        double dx = (double) xFim - xInicio;
+        double dy = (double) yFim - yInicio;
+        boolean encontrou = false;
+        for (int cx = cxInicial; cx <= cxFinal; cx++) {
+            // Trecho do segmento dentro da faixa da coluna (bordas inclusas)
+            double xa = Math.max(xMenor, minX + cx * lado);
+            double xb = Math.min(xMaior, minX + (cx + 1) * lado);
+            double ya;
+            double yb;
+            if (dx == 0) {
+                ya = yInicio;
+                yb = yFim;
+            } else {
+                ya = yInicio + (xa - xInicio) * dy / dx;
+                yb = yInicio + (xb - xInicio) * dy / dx;
+            }
+            // Folga contra arredondamento nas bordas das células
+            int cyInicial = Math.max(0, linha(Math.min(ya, yb) - 1e-9));
+            int cyFinal = Math.min(linhas - 1, linha(Math.max(ya, yb) + 1e-9));
+            for (int cy = cyInicial; cy <= cyFinal; cy++) {
+                int celula = cx * linhas + cy;
+                for (int k = inicioCelula[celula]; k < inicioCelula[celula + 1]; k++) {
+                    int i = indices[k];
+                    if (tocadas != null && tocadas.get(i)) continue;
+                    if (zonas[i].interceptaRota(xInicio, yInicio, xFim, yFim)) {
+                        if (tocadas == null) return true;
+                        tocadas.set(i);
+                        encontrou = true;
+                    }
+                }
+            }
+        }
+        return encontrou;
+    }
+
+    private int coluna(double x) {
+        return (int) Math.floor((x - minX) / lado);
+    }
+
+    private int linha(double y) {
+        return (int) Math.floor((y - minY) / lado);
+    }
+}
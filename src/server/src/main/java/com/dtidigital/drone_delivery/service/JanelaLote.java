@@ -0,0 +1,211 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.dtidigital.drone_delivery.enums.Prioridade;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Janela de consolidação dos pedidos (horizonte rolante): um pedido novo fica retido até
+ * completar a janela ou até sua área (célula da grade) acumular pedidos suficientes;
+ * pedidos de prioridade ALTA nunca esperam. Mede o efeito da política: espera dos
+ * pedidos até o despacho e pedidos por missão. Janela zero desativa a retenção.
+ * A contagem de pedidos por área é recontada a cada revisão completa da fila e mantida
+ * incrementalmente entre elas. Usada apenas pela thread escritora, com o relógio da simulação.
+ */
+class JanelaLote {
+
+    private long janelaMs = 0;
+    private int pedidosPorArea = 5;
+    private double areaKm = 5.0;
+
+    private final Map<String, Long> chegadas = new HashMap<>();
+    private final Set<String> retidos = new HashSet<>();
+    private Set<String> retidosFotografados = Set.of(); // Cópia imutável, refeita só quando os retidos mudam
+    private final Map<String, Long> areaDoPedido = new HashMap<>();
+    private final Map<Long, Integer> pedidosNaArea = new HashMap<>();
+    private final Map<String, String> motivosLiberacao = new HashMap<>();
+    private long proximoVencimento = Long.MAX_VALUE;
+
+    // Indicadores acumulados
+    private long pedidosDespachados = 0;
+    private long missoes = 0;
+    private long somaEsperaMs = 0;
+    private long maiorEsperaMs = 0;
+    private final Map<String, Long> liberadosPorMotivo = new LinkedHashMap<>();
+
+    JanelaLote() {
+        for (String motivo : List.of("SEM_JANELA", "ALTA", "AREA", "PRAZO")) {
+            liberadosPorMotivo.put(motivo, 0L);
+        }
+    }
+
+    void setJanelaMs(long janelaMs) {
+        this.janelaMs = Math.max(0, janelaMs);
+    }
+
+    void setPedidosPorArea(int pedidosPorArea) {
+        this.pedidosPorArea = Math.max(1, pedidosPorArea);
+    }
+
+    void setAreaKm(double areaKm) {
+        if (areaKm > 0) {
+            this.areaKm = areaKm;
+        }
+    }
+
+    void registrarChegada(Pedido pedido, long agora) {
+        chegadas.put(pedido.getId(), agora);
+    }
+
+    void descartar(String pedidoId) {
+        chegadas.remove(pedidoId);
+        if (retidos.remove(pedidoId)) retidosFotografados = null;
+        motivosLiberacao.remove(pedidoId);
+        descontar(pedidoId);
+    }
+
+    Set<String> getRetidos() {
+        return Collections.unmodifiableSet(retidos);
+    }
+
+    /**
+     * Cópia imutável dos retidos para a fotografia; reaproveitada enquanto eles não mudam
+     */
+    Set<String> fotografarRetidos() {
+        if (retidosFotografados == null) {
+            retidosFotografados = Set.copyOf(retidos);
+        }
+        return retidosFotografados;
+    }
+
+    /**
+     * Indica se algum pedido retido já completou a janela (exige novo ciclo mesmo sem alterações)
+     */
+    boolean possuiVencidos(long agora) {
+        return !retidos.isEmpty() && agora >= proximoVencimento;
+    }
+
+    /**
+     * Separa os pedidos liberados para este ciclo, revendo a fila válida inteira. Os que
+     * estavam retidos e agora foram liberados são devolvidos em {@code liberadosDaRetencao},
+     * para serem replanejados.
+     */
+    List<Pedido> liberar(List<Pedido> pedidos, long agora, List<String> liberadosDaRetencao) {
+        areaDoPedido.clear();
+        pedidosNaArea.clear();
+        return reavaliar(pedidos, agora, liberadosDaRetencao);
+    }
+
+    /**
+     * Como {@link #liberar}, mas só para os pedidos retidos e os alterados desde o último
+     * ciclo (os demais já estavam liberados), usando a contagem por área mantida
+     */
+    List<Pedido> liberarAlterados(List<Pedido> retidosEAlterados, long agora, List<String> liberadosDaRetencao) {
+        return reavaliar(retidosEAlterados, agora, liberadosDaRetencao);
+    }
+
+    private List<Pedido> reavaliar(List<Pedido> pedidos, long agora, List<String> liberadosDaRetencao) {
+        for (Pedido pedido : pedidos) {
+            contar(pedido);
+        }
+        if (janelaMs == 0) {
+            for (String id : retidos) liberadosDaRetencao.add(id);
+            if (!retidos.isEmpty()) retidosFotografados = null;
+            retidos.clear();
+            proximoVencimento = Long.MAX_VALUE;
+            return pedidos;
+        }
+
+        List<Pedido> liberados = new ArrayList<>();
+        Set<String> aindaRetidos = new HashSet<>();
+        proximoVencimento = Long.MAX_VALUE;
+        for (Pedido pedido : pedidos) {
+            long chegada = chegadas.getOrDefault(pedido.getId(), agora - janelaMs);
+            String motivo = pedido.getPrioridade() == Prioridade.ALTA ? "ALTA"
+                : agora - chegada >= janelaMs ? "PRAZO"
+                : pedidosNaArea.get(area(pedido)) >= pedidosPorArea ? "AREA"
+                : null;
+            if (motivo != null) {
+                liberados.add(pedido);
+                motivosLiberacao.put(pedido.getId(), motivo);
+                if (retidos.contains(pedido.getId())) liberadosDaRetencao.add(pedido.getId());
+            } else {
+                aindaRetidos.add(pedido.getId());
+                proximoVencimento = Math.min(proximoVencimento, chegada + janelaMs);
+            }
+        }
+        if (!retidos.equals(aindaRetidos)) retidosFotografados = null;
+        retidos.clear();
+        retidos.addAll(aindaRetidos);
+        return liberados;
+    }
+
+    /**
+     * Registra uma missão despachada e a espera de cada pedido desde a chegada
+     */
+    void registrarMissao(List<Pedido> pedidos, long agora) {
+        missoes++;
+        for (Pedido pedido : pedidos) {
+            Long chegada = chegadas.remove(pedido.getId());
+            long espera = chegada != null ? Math.max(0, agora - chegada) : 0;
+            descontar(pedido.getId());
+            pedidosDespachados++;
+            somaEsperaMs += espera;
+            maiorEsperaMs = Math.max(maiorEsperaMs, espera);
+            String motivo = motivosLiberacao.remove(pedido.getId());
+            liberadosPorMotivo.merge(motivo != null ? motivo : "SEM_JANELA", 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Política em vigor e a troca obtida entre espera e consolidação
+     */
+    Map<String, Object> getRelatorio() {
+        Map<String, Object> relatorio = new LinkedHashMap<>();
+        relatorio.put("janelaMs", janelaMs);
+        relatorio.put("pedidosPorArea", pedidosPorArea);
+        relatorio.put("areaKm", areaKm);
+        relatorio.put("pedidosRetidos", retidos.size());
+        relatorio.put("pedidosDespachados", pedidosDespachados);
+        relatorio.put("missoes", missoes);
+        relatorio.put("pedidosPorMissao", missoes > 0 ? (double) pedidosDespachados / missoes : 0.0);
+        relatorio.put("esperaMediaMs", pedidosDespachados > 0 ? (double) somaEsperaMs / pedidosDespachados : 0.0);
+        relatorio.put("esperaMaximaMs", maiorEsperaMs);
+        relatorio.put("liberadosPorMotivo", Collections.unmodifiableMap(new LinkedHashMap<>(liberadosPorMotivo)));
+        return relatorio;
+    }
+
+    /** Conta o pedido na sua área atual (move a contagem se o destino foi editado) */
+    private void contar(Pedido pedido) {
+        long area = area(pedido);
+        Long anterior = areaDoPedido.put(pedido.getId(), area);
+        if (anterior != null && anterior == area) {
+            return;
+        }
+        if (anterior != null) {
+            pedidosNaArea.computeIfPresent(anterior, (a, n) -> n > 1 ? n - 1 : null);
+        }
+        pedidosNaArea.merge(area, 1, Integer::sum);
+    }
+
+    private void descontar(String pedidoId) {
+        Long area = areaDoPedido.remove(pedidoId);
+        if (area != null) {
+            pedidosNaArea.computeIfPresent(area, (a, n) -> n > 1 ? n - 1 : null);
+        }
+    }
+
+    private long area(Pedido pedido) {
+        long cx = (long) Math.floor(pedido.getX() / areaKm);
+        long cy = (long) Math.floor(pedido.getY() / areaKm);
+        return (cx << 32) ^ (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,115 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Matriz de distâncias euclidianas de um ciclo de despacho, em um único {@code double[]}
+ * achatado. O nó 0 é a base (0, 0); cada pedido recebe um índice na primeira consulta e
+ * apenas a sua linha é calculada. Como a memória cresce com o quadrado da capacidade, a
+ * matriz é dimensionada uma única vez pelo número de pedidos candidatos; só cresce
+ * (dobrando) se receber mais pedidos do que o previsto.
+ * Alocação, sequenciamento e verificação de bateria consultam a mesma matriz.
+ * Não é thread-safe para inclusão: é preenchida na thread escritora durante o
+ * planejamento e depois apenas lida pelo cálculo das missões daquele ciclo.
+ */
+public final class MatrizDistancias {
+
+    public static final int BASE = 0;
+
+    private static final int CAPACIDADE_INICIAL = 32;
+
+    private final Map<String, Integer> indices = new HashMap<>();
+    private int[] xs;
+    private int[] ys;
+    private double[] distancias;
+    private int capacidade;
+    private int tamanho = 1; // Base já incluída
+
+    /**
+     * Matriz pequena, para quem não sabe quantos pedidos vai indexar
+     */
+    public MatrizDistancias() {
+        this(CAPACIDADE_INICIAL - 1);
+    }
+
+    /**
+     * Matriz dimensionada para a base e até {@code pedidos} pedidos
+     */
+    public MatrizDistancias(int pedidos) {
+        capacidade = Math.max(2, pedidos + 1);
+        xs = new int[capacidade];
+        ys = new int[capacidade];
+        distancias = new double[capacidade * capacidade];
+    }
+
+    /**
+     * Índice do pedido na matriz, incluindo-o (e calculando sua linha) se necessário
+     */
+    public int indice(Pedido pedido) {
+        Integer indice = indices.get(pedido.getId());
+        if (indice != null) {
+            return indice;
+        }
+        int novo = incluir(pedido.getX(), pedido.getY());
+        indices.put(pedido.getId(), novo);
+        return novo;
+    }
+
+    public double distancia(int i, int j) {
+        return distancias[i * capacidade + j];
+    }
+
+    public double distancia(Pedido a, Pedido b) {
+        return distancia(indice(a), indice(b));
+    }
+
+    public double distanciaBase(Pedido pedido) {
+        return distancia(BASE, indice(pedido));
+    }
+
+    public int getX(int indice) {
+        return xs[indice];
+    }
+
+    public int getY(int indice) {
+        return ys[indice];
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private int incluir(int x, int y) {
+        if (tamanho == capacidade) {
+            crescer();
+        }
+        int novo = tamanho++;
+        xs[novo] = x;
+        ys[novo] = y;
+        int linha = novo * capacidade;
+        for (int j = 0; j < novo; j++) {
+            double dx = (double) xs[j] - x;
+            double dy = (double) ys[j] - y;
+            double d = Math.sqrt(dx * dx + dy * dy);
+            distancias[linha + j] = d;
+            distancias[j * capacidade + novo] = d;
+        }
+        return novo;
+    }
+
+    private void crescer() {
+        int novaCapacidade = capacidade * 2;
+        double[] novas = new double[novaCapacidade * novaCapacidade];
+        for (int i = 0; i < tamanho; i++) {
+            System.arraycopy(distancias, i * capacidade, novas, i * novaCapacidade, tamanho);
+        }
+        distancias = novas;
+        xs = Arrays.copyOf(xs, novaCapacidade);
+        ys = Arrays.copyOf(ys, novaCapacidade);
+        capacidade = novaCapacidade;
+    }
+}
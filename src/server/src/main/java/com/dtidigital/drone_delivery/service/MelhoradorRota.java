@@ -0,0 +1,173 @@
+package com.dtidigital.drone_delivery.service;
+
+/**
+ * Melhoria local de uma sequência de paradas com movimentos 2-opt e Or-opt.
+ * A sequência contém índices da {@link MatrizDistancias}; a primeira posição é um ponto
+ * fixo e, se fechado, a última também (a base). Os movimentos são avaliados por
+ * diferença de custo sobre a matriz e aplicados no próprio array, sem alocação
+ * por movimento.
+ */
+final class MelhoradorRota {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAXIMO_SEGMENTO_OR_OPT = 3;
+
+    private final MatrizDistancias matriz;
+    private final int[] sequencia;
+    private final int ultimoMovel;
+    private final int[] segmento = new int[MAXIMO_SEGMENTO_OR_OPT];
+
+    /**
+     * @param sequencia caminho a melhorar (posição 0 fixa; última posição fixa se fechado)
+     */
+    MelhoradorRota(MatrizDistancias matriz, int[] sequencia, boolean fechado) {
+        this.matriz = matriz;
+        this.sequencia = sequencia;
+        this.ultimoMovel = fechado ? sequencia.length - 2 : sequencia.length - 1;
+    }
+
+    /**
+     * Aplica movimentos de melhoria até não haver ganho; devolve a redução total de custo
+     */
+    double melhorar() {
+        double reducao = 0;
+        boolean melhorou = true;
+        while (melhorou) {
+            double ganho = doisOpt();
+            ganho += orOpt();
+            reducao += ganho;
+            melhorou = ganho > EPSILON;
+        }
+        return reducao;
+    }
+
+    /**
+     * Custo do caminho na ordem atual
+     */
+    double custo() {
+        double total = 0;
+        for (int k = 0; k + 1 < sequencia.length; k++) {
+            total += distancia(sequencia[k], sequencia[k + 1]);
+        }
+        return total;
+    }
+
+    /**
+     * Inverte trechos [i+1..j] enquanto houver ganho
+     */
+    private double doisOpt() {
+        double ganhoTotal = 0;
+        boolean melhorou = true;
+        while (melhorou) {
+            melhorou = false;
+            for (int i = 0; i < ultimoMovel - 1; i++) {
+                int a = sequencia[i];
+                int b = sequencia[i + 1];
+                double ab = distancia(a, b);
+                for (int j = i + 2; j <= ultimoMovel; j++) {
+                    int c = sequencia[j];
+                    double delta;
+                    if (j + 1 < sequencia.length) {
+                        int e = sequencia[j + 1];
+                        delta = distancia(a, c) + distancia(b, e) - ab - distancia(c, e);
+                    } else {
+                        delta = distancia(a, c) - ab; // Extremo livre do caminho aberto
+                    }
+                    if (delta < -EPSILON) {
+                        inverter(i + 1, j);
+                        ganhoTotal -= delta;
+                        melhorou = true;
+                        b = sequencia[i + 1];
+                        ab = distancia(a, b);
+                    }
+                }
+            }
+        }
+        return ganhoTotal;
+    }
+
+    /**
+     * Move trechos de 1 a 3 paradas consecutivas para a posição de menor custo
+     */
+    private double orOpt() {
+        double ganhoTotal = 0;
+        for (int tamanho = 1; tamanho <= MAXIMO_SEGMENTO_OR_OPT; tamanho++) {
+            boolean melhorou = true;
+            while (melhorou) {
+                melhorou = false;
+                for (int inicio = 1; inicio + tamanho - 1 <= ultimoMovel; inicio++) {
+                    double delta = moverMelhorPosicao(inicio, tamanho);
+                    if (delta < -EPSILON) {
+                        ganhoTotal -= delta;
+                        melhorou = true;
+                    }
+                }
+            }
+        }
+        return ganhoTotal;
+    }
+
+    private double moverMelhorPosicao(int inicio, int tamanho) {
+        int fim = inicio + tamanho - 1;
+        int anterior = sequencia[inicio - 1];
+        int primeiro = sequencia[inicio];
+        int ultimo = sequencia[fim];
+        boolean temSeguinte = fim + 1 < sequencia.length;
+        int seguinte = temSeguinte ? sequencia[fim + 1] : -1;
+        double ganhoRemocao = distancia(anterior, primeiro)
+            + (temSeguinte ? distancia(ultimo, seguinte) - distancia(anterior, seguinte) : 0);
+
+        double melhorDelta = -EPSILON;
+        int melhorPosicao = -1;
+        boolean melhorInvertido = false;
+        // Inserir entre sequencia[p] e sequencia[p + 1], fora do próprio trecho
+        for (int p = 0; p <= ultimoMovel; p++) {
+            if (p >= inicio - 1 && p <= fim) continue;
+            int u = sequencia[p];
+            boolean temV = p + 1 < sequencia.length;
+            int v = temV ? sequencia[p + 1] : -1;
+            double uv = temV ? distancia(u, v) : 0;
+            double direto = distancia(u, primeiro) + (temV ? distancia(ultimo, v) : 0) - uv;
+            double invertido = distancia(u, ultimo) + (temV ? distancia(primeiro, v) : 0) - uv;
+            if (direto - ganhoRemocao < melhorDelta) {
+                melhorDelta = direto - ganhoRemocao;
+                melhorPosicao = p;
+                melhorInvertido = false;
+            }
+            if (invertido - ganhoRemocao < melhorDelta) {
+                melhorDelta = invertido - ganhoRemocao;
+                melhorPosicao = p;
+                melhorInvertido = true;
+            }
+        }
+        if (melhorPosicao < 0) {
+            return 0;
+        }
+
+        for (int k = 0; k < tamanho; k++) {
+            segmento[k] = sequencia[melhorInvertido ? fim - k : inicio + k];
+        }
+        if (melhorPosicao > fim) {
+            // Desloca para trás o que está entre o trecho e a posição de destino
+            System.arraycopy(sequencia, fim + 1, sequencia, inicio, melhorPosicao - fim);
+            System.arraycopy(segmento, 0, sequencia, melhorPosicao - tamanho + 1, tamanho);
+        } else {
+            // Desloca para frente o que está entre a posição de destino e o trecho
+            System.arraycopy(sequencia, melhorPosicao + 1, sequencia, melhorPosicao + 1 + tamanho, inicio - melhorPosicao - 1);
+            System.arraycopy(segmento, 0, sequencia, melhorPosicao + 1, tamanho);
+        }
+        return melhorDelta;
+    }
+
+    private void inverter(int i, int j) {
+        while (i < j) {
+            int temporario = sequencia[i];
+            sequencia[i++] = sequencia[j];
+            sequencia[j--] = temporario;
+        }
+    }
+
+    private double distancia(int i, int j) {
+        return matriz.distancia(i, j);
+    }
+}
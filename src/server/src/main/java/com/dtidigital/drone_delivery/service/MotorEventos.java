@@ -0,0 +1,240 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+import com.dtidigital.drone_delivery.enums.TipoEvento;
+
+/**
+ * Motor de simulação por eventos discretos com relógio virtual.
+ * Os eventos ficam em um heap binário sobre arrays primitivos, ordenados por
+ * instante (ms) e, em empate, pela ordem de agendamento. O relógio só avança
+ * ao processar eventos, então um dia de operação pode ser simulado em segundos.
+ * Não é thread-safe: deve ser usado apenas pela thread escritora.
+ */
+public class MotorEventos {
+
+    private static final int CAPACIDADE_INICIAL = 256;
+    private static final TipoEvento[] TIPOS = TipoEvento.values();
+
+    private long agora;
+    private long[] instantes = new long[CAPACIDADE_INICIAL];
+    private long[] sequencias = new long[CAPACIDADE_INICIAL];
+    private byte[] tipos = new byte[CAPACIDADE_INICIAL];
+    private Runnable[] acoes = new Runnable[CAPACIDADE_INICIAL];
+    private int tamanho = 0;
+    private long proximaSequencia = 0;
+    private boolean processando = false;
+
+    private long eventosProcessados = 0;
+    private final long[] processadosPorTipo = new long[TIPOS.length];
+
+    public MotorEventos(long instanteInicial) {
+        this.agora = instanteInicial;
+    }
+
+    /**
+     * Instante atual do relógio virtual (ms)
+     */
+    public long agora() {
+        return agora;
+    }
+
+    /**
+     * Agenda um evento em um instante absoluto; instantes passados disparam no instante atual
+     */
+    public void agendar(long instante, TipoEvento tipo, Runnable acao) {
+        if (tamanho == instantes.length) {
+            int novaCapacidade = tamanho * 2;
+            instantes = Arrays.copyOf(instantes, novaCapacidade);
+            sequencias = Arrays.copyOf(sequencias, novaCapacidade);
+            tipos = Arrays.copyOf(tipos, novaCapacidade);
+            acoes = Arrays.copyOf(acoes, novaCapacidade);
+        }
+        int i = tamanho++;
+        instantes[i] = Math.max(instante, agora);
+        sequencias[i] = proximaSequencia++;
+        tipos[i] = (byte) tipo.ordinal();
+        acoes[i] = acao;
+        subir(i);
+    }
+
+    /**
+     * Agenda um evento para daqui a {@code atraso} ms do relógio virtual
+     */
+    public void agendarApos(long atraso, TipoEvento tipo, Runnable acao) {
+        agendar(agora + Math.max(0, atraso), tipo, acao);
+    }
+
+    /**
+     * Agenda um evento que se repete a cada {@code periodo} ms enquanto a condição for verdadeira
+     */
+    public void agendarPeriodico(long atrasoInicial, long periodo, TipoEvento tipo,
+                                 BooleanSupplier ativo, Runnable acao) {
+        agendarPeriodicoEm(agora + Math.max(0, atrasoInicial), periodo, tipo, ativo, acao);
+    }
+
+    /**
+     * Como {@link #agendarPeriodico}, com o primeiro disparo em um instante absoluto
+     */
+    public void agendarPeriodicoEm(long instanteInicial, long periodo, TipoEvento tipo,
+                                   BooleanSupplier ativo, Runnable acao) {
+        if (periodo <= 0) {
+            throw new IllegalArgumentException("Período deve ser positivo");
+        }
+        agendar(instanteInicial, tipo, new Runnable() {
+            @Override
+            public void run() {
+                if (!ativo.getAsBoolean()) return;
+                acao.run();
+                if (ativo.getAsBoolean()) {
+                    agendarApos(periodo, tipo, this);
+                }
+            }
+        });
+    }
+
+    /**
+     * Processa, em ordem, os eventos com instante até o limite (no máximo {@code maximoEventos}).
+     * Quando todos os eventos vencidos são processados o relógio avança até o limite.
+     */
+    public int processarAte(long limite, int maximoEventos) {
+        if (processando) return 0; // Chamada reentrante de dentro de um evento
+
+        processando = true;
+        int processados = 0;
+        try {
+            while (processados < maximoEventos && tamanho > 0 && instantes[0] <= limite) {
+                processarPrimeiro();
+                processados++;
+            }
+        } finally {
+            processando = false;
+        }
+        if ((tamanho == 0 || instantes[0] > limite) && limite > agora) {
+            agora = limite;
+        }
+        return processados;
+    }
+
+    /**
+     * Processa os próximos eventos sem limite de instante (modo velocidade máxima)
+     */
+    public int processarProximos(int maximoEventos) {
+        if (processando) return 0;
+
+        processando = true;
+        int processados = 0;
+        try {
+            while (processados < maximoEventos && tamanho > 0) {
+                processarPrimeiro();
+                processados++;
+            }
+        } finally {
+            processando = false;
+        }
+        return processados;
+    }
+
+    /**
+     * Instante do próximo evento, ou {@link Long#MAX_VALUE} se não houver eventos
+     */
+    public long proximoInstante() {
+        return tamanho > 0 ? instantes[0] : Long.MAX_VALUE;
+    }
+
+    public boolean isProcessando() {
+        return processando;
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public long getEventosProcessados() {
+        return eventosProcessados;
+    }
+
+    public long getEventosProcessados(TipoEvento tipo) {
+        return processadosPorTipo[tipo.ordinal()];
+    }
+
+    private void processarPrimeiro() {
+        long instante = instantes[0];
+        int tipo = tipos[0];
+        Runnable acao = acoes[0];
+
+        int ultimo = --tamanho;
+        if (ultimo > 0) {
+            mover(ultimo, 0);
+            descer(0);
+        }
+        acoes[ultimo] = null;
+
+        agora = instante;
+        eventosProcessados++;
+        processadosPorTipo[tipo]++;
+        try {
+            acao.run();
+        } catch (RuntimeException e) {
+            System.err.println("Erro no evento " + TIPOS[tipo] + ": " + e.getMessage());
+        }
+    }
+
+    private boolean antes(int a, int b) {
+        if (instantes[a] != instantes[b]) {
+            return instantes[a] < instantes[b];
+        }
+        return sequencias[a] < sequencias[b];
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int pai = (i - 1) >>> 1;
+            if (!antes(i, pai)) break;
+            trocar(i, pai);
+            i = pai;
+        }
+    }
+
+    private void descer(int i) {
+        while (true) {
+            int esquerda = 2 * i + 1;
+            if (esquerda >= tamanho) break;
+            int menor = esquerda;
+            int direita = esquerda + 1;
+            if (direita < tamanho && antes(direita, esquerda)) {
+                menor = direita;
+            }
+            if (!antes(menor, i)) break;
+            trocar(i, menor);
+            i = menor;
+        }
+    }
+
+    private void mover(int de, int para) {
+        instantes[para] = instantes[de];
+        sequencias[para] = sequencias[de];
+        tipos[para] = tipos[de];
+        acoes[para] = acoes[de];
+    }
+
+    private void trocar(int a, int b) {
+        long instante = instantes[a];
+        instantes[a] = instantes[b];
+        instantes[b] = instante;
+        long sequencia = sequencias[a];
+        sequencias[a] = sequencias[b];
+        sequencias[b] = sequencia;
+        byte tipo = tipos[a];
+        tipos[a] = tipos[b];
+        tipos[b] = tipo;
+        Runnable acao = acoes[a];
+        acoes[a] = acoes[b];
+        acoes[b] = acao;
+    }
+}
@@ -0,0 +1,31 @@
+package com.dtidigital.drone_delivery.service;
+
+/**
+ * Opções de um ciclo de planejamento: prazo para melhorar o plano (nulo usa o prazo
+ * configurado) e, opcionalmente, a meta de qualidade (km voados por entrega) que
+ * encerra a busca antes do prazo.
+ */
+public final class OpcoesPlanejamento {
+
+    private final Long prazoMs;
+    private final Double alvoKmPorEntrega;
+
+    public OpcoesPlanejamento(Long prazoMs, Double alvoKmPorEntrega) {
+        if (prazoMs != null && prazoMs < 0) {
+            throw new IllegalArgumentException("Prazo de planejamento não pode ser negativo");
+        }
+        if (alvoKmPorEntrega != null && alvoKmPorEntrega <= 0) {
+            throw new IllegalArgumentException("Meta de km por entrega deve ser positiva");
+        }
+        this.prazoMs = prazoMs;
+        this.alvoKmPorEntrega = alvoKmPorEntrega;
+    }
+
+    public Long getPrazoMs() {
+        return prazoMs;
+    }
+
+    public Double getAlvoKmPorEntrega() {
+        return alvoKmPorEntrega;
+    }
+}
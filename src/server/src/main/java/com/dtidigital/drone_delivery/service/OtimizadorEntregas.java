@@ -1,29 +1,369 @@
 package com.dtidigital.drone_delivery.service;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.dtidigital.drone_delivery.model.Drone;
 import com.dtidigital.drone_delivery.model.Pedido;
+import com.dtidigital.drone_delivery.enums.EstrategiaAlocacao;
 import com.dtidigital.drone_delivery.enums.Prioridade;
 
 @Component
 public class OtimizadorEntregas {
     
+    private static final double CUSTO_INVIAVEL = 1e9;
+    private static final double PENALIDADE_MARGEM_KM = 5.0; // Por missão que esgotaria a bateria inteira
+    private static final double PENALIDADE_FOLGA_KM = 2.0; // Por drone com a capacidade toda ociosa
+    
+    private final SimuladorBateria simuladorBateria = new SimuladorBateria();
+    private volatile EstrategiaAlocacao estrategia = EstrategiaAlocacao.VRP;
+    private volatile long orcamentoMs = 50;
+    private volatile long prazoMaximoMs = 10_000;
+    private volatile int limiteNosMochila = 20_000;
+    private volatile int limiarAgrupamento = 2_000;
+    private volatile double tamanhoCelulaAgrupamento = 5.0;
+    private volatile PlanoAlocacao ultimoPlano;
+    
+    @Value("${drone.otimizador.estrategia:VRP}")
+    public void setEstrategia(EstrategiaAlocacao estrategia) {
+        this.estrategia = estrategia;
+    }
+    
+    public EstrategiaAlocacao getEstrategia() {
+        return estrategia;
+    }
+    
+    /**
+     * Prazo padrão (ms) de melhoria da roteirização por ciclo de despacho
+     */
+    @Value("${drone.otimizador.orcamento-ms:50}")
+    public void setOrcamentoMs(long orcamentoMs) {
+        this.orcamentoMs = Math.max(0, orcamentoMs);
+    }
+    
+    /**
+     * Maior prazo (ms) aceito nas opções de planejamento de um despacho
+     */
+    @Value("${drone.otimizador.prazo-maximo-ms:10000}")
+    public void setPrazoMaximoMs(long prazoMaximoMs) {
+        this.prazoMaximoMs = Math.max(0, prazoMaximoMs);
+    }
+    
+    public long getPrazoMaximoMs() {
+        return prazoMaximoMs;
+    }
+    
+    /**
+     * Limite de nós do branch-and-bound que escolhe o pacote de cada drone (modos guloso e paralelo)
+     */
+    @Value("${drone.otimizador.limite-nos-mochila:20000}")
+    public void setLimiteNosMochila(int limiteNosMochila) {
+        this.limiteNosMochila = Math.max(1, limiteNosMochila);
+    }
+    
+    /**
+     * Tamanho da fila a partir do qual os pedidos são alocados por agrupamentos espaciais
+     */
+    @Value("${drone.otimizador.limiar-agrupamento:2000}")
+    public void setLimiarAgrupamento(int limiarAgrupamento) {
+        this.limiarAgrupamento = Math.max(1, limiarAgrupamento);
+    }
+    
+    /**
+     * Lado (km) das células da grade usada para agrupar os pedidos
+     */
+    @Value("${drone.otimizador.celula-agrupamento-km:5}")
+    public void setTamanhoCelulaAgrupamento(double tamanhoCelulaAgrupamento) {
+        if (tamanhoCelulaAgrupamento > 0) {
+            this.tamanhoCelulaAgrupamento = tamanhoCelulaAgrupamento;
+        }
+    }
+    
+    /**
+     * Último plano de alocação (em andamento ou concluído), ou nulo antes do primeiro ciclo
+     */
+    public PlanoAlocacao getUltimoPlano() {
+        return ultimoPlano;
+    }
+    
     /**
-     * Otimiza a alocação de pedidos para maximizar eficiência
+     * Otimiza a alocação de pedidos para maximizar eficiência.
+     * Devolve, alinhada à lista de drones, a sequência de pedidos de cada um.
      */
     public List<List<Pedido>> otimizarAlocacao(List<Drone> drones, List<Pedido> pedidos) {
+        return otimizarAlocacao(drones, pedidos, novaMatriz(pedidos.size()));
+    }
+    
+    /**
+     * Matriz de distâncias de um ciclo com {@code pedidos} candidatos, dimensionada uma única vez.
+     * Acima do limiar de agrupamento só os pedidos alocados são indexados, então ela parte pequena.
+     */
+    MatrizDistancias novaMatriz(int pedidos) {
+        return pedidos > limiarAgrupamento ? new MatrizDistancias() : new MatrizDistancias(pedidos);
+    }
+    
+    /**
+     * Otimiza a alocação consultando a matriz de distâncias do ciclo de despacho
+     */
+    public List<List<Pedido>> otimizarAlocacao(List<Drone> drones, List<Pedido> pedidos, MatrizDistancias matriz) {
+        return otimizarAlocacao(drones, pedidos, matriz, null);
+    }
+    
+    /**
+     * Otimiza a alocação com prazo e meta de qualidade próprios (nulo usa o orçamento configurado).
+     * O melhor plano até o momento fica disponível em {@link #getUltimoPlano()} durante a otimização.
+     */
+    public List<List<Pedido>> otimizarAlocacao(List<Drone> drones, List<Pedido> pedidos, MatrizDistancias matriz,
+                                               OpcoesPlanejamento opcoes) {
+        return otimizarAlocacao(novoPlano(pedidos.size(), opcoes), drones, pedidos, matriz);
+    }
+    
+    /**
+     * Plano para uma otimização com as opções informadas; o prazo é limitado ao máximo configurado
+     */
+    PlanoAlocacao novoPlano(int pedidos, OpcoesPlanejamento opcoes) {
+        long prazoMs = opcoes != null && opcoes.getPrazoMs() != null ? opcoes.getPrazoMs() : orcamentoMs;
+        return new PlanoAlocacao(estrategia, Math.min(prazoMs, prazoMaximoMs),
+            opcoes != null ? opcoes.getAlvoKmPorEntrega() : null, pedidos);
+    }
+    
+    /**
+     * Otimiza a alocação publicando no plano informado (criado por {@link #novoPlano})
+     */
+    List<List<Pedido>> otimizarAlocacao(PlanoAlocacao plano, List<Drone> drones, List<Pedido> pedidos,
+                                        MatrizDistancias matriz) {
+        EstrategiaAlocacao estrategiaAtual = plano.getEstrategia();
+        ultimoPlano = plano;
+        
+        if (drones.isEmpty() || pedidos.isEmpty()) {
+            List<List<Pedido>> vazias = new ArrayList<>();
+            drones.forEach(drone -> vazias.add(new ArrayList<>()));
+            return publicarPassadaUnica(plano, drones, vazias, matriz);
+        }
+        if (pedidos.size() > limiarAgrupamento) {
+            List<List<Pedido>> alocacoes = otimizarAlocacaoPorAgrupamentos(drones, pedidos);
+            return publicarPassadaUnica(plano, drones, atribuirPacotes(drones, alocacoes, matriz), matriz);
+        }
+        if (estrategiaAtual == EstrategiaAlocacao.GULOSA) {
+            List<List<Pedido>> alocacoes = otimizarAlocacaoGulosa(drones, pedidos, matriz);
+            return publicarPassadaUnica(plano, drones, atribuirPacotes(drones, alocacoes, matriz), matriz);
+        }
+        if (estrategiaAtual == EstrategiaAlocacao.PARALELA) {
+            List<List<Pedido>> alocacoes = otimizarAlocacaoParalela(drones, pedidos);
+            return publicarPassadaUnica(plano, drones, atribuirPacotes(drones, alocacoes, matriz), matriz);
+        }
+        RoteirizadorVRP roteirizador = new RoteirizadorVRP(simuladorBateria, plano, matriz, drones, pedidos);
+        List<List<Pedido>> alocacoes = roteirizador.resolver();
+        plano.concluir(roteirizador.getMotivoParada());
+        return adotarAtribuicao(plano, drones, alocacoes, matriz);
+    }
+    
+    /**
+     * Indica se a fila é roteirizada pedido a pedido pelo VRP (e pode ser melhorada em segundo plano)
+     */
+    boolean isRoteirizacaoVRP(int pedidos) {
+        return estrategia == EstrategiaAlocacao.VRP && pedidos <= limiarAgrupamento;
+    }
+    
+    /**
+     * Fatia de melhoria do plano em segundo plano: constrói a solução na primeira chamada
+     * (solução nula) e depois a retoma com novas perturbações, publicando no plano informado
+     */
+    List<List<Pedido>> melhorarEmSegundoPlano(PlanoAlocacao plano, MatrizDistancias matriz, List<Drone> drones,
+                                              List<Pedido> pedidos, List<List<Pedido>> solucao,
+                                              long fatiaMs, long semente) {
+        RoteirizadorVRP roteirizador = new RoteirizadorVRP(simuladorBateria, plano, fatiaMs, semente, matriz, drones, pedidos);
+        return solucao == null ? roteirizador.resolver() : roteirizador.continuar(solucao);
+    }
+    
+    /**
+     * Adota no ciclo um plano pronto (concluído), alinhado aos drones candidatos
+     */
+    List<List<Pedido>> adotarPlano(PlanoAlocacao plano, List<Drone> drones, List<List<Pedido>> alocacoes,
+                                   MatrizDistancias matriz) {
+        ultimoPlano = plano;
+        return adotarAtribuicao(plano, drones, alocacoes, matriz);
+    }
+    
+    private List<List<Pedido>> adotarAtribuicao(PlanoAlocacao plano, List<Drone> drones, List<List<Pedido>> alocacoes,
+                                                MatrizDistancias matriz) {
+        List<List<Pedido>> atribuidas = atribuirPacotes(drones, alocacoes, matriz);
+        if (!atribuidas.equals(alocacoes)) {
+            plano.reatribuir(rotasPorDrone(drones, atribuidas));
+        }
+        return atribuidas;
+    }
+    
+    /**
+     * Reatribui os pacotes já formados aos drones pelo método húngaro, minimizando a distância
+     * voada a partir da posição atual de cada drone. Pares que excedem a capacidade ou a
+     * bateria segura são proibidos; entre os viáveis, menor margem de energia e pior
+     * aproveitamento da capacidade pesam como quilômetros adicionais. Distâncias e consumo
+     * são os da verificação de bateria do despacho, sobre a matriz do ciclo.
+     */
+    List<List<Pedido>> atribuirPacotes(List<Drone> drones, List<List<Pedido>> pacotes, MatrizDistancias matriz) {
+        List<Integer> naoVazios = new ArrayList<>();
+        for (int b = 0; b < pacotes.size(); b++) {
+            if (!pacotes.get(b).isEmpty()) naoVazios.add(b);
+        }
+        if (naoVazios.isEmpty() || naoVazios.size() > drones.size()) {
+            return pacotes;
+        }
+        
+        double[][] custo = new double[naoVazios.size()][drones.size()];
+        for (int linha = 0; linha < naoVazios.size(); linha++) {
+            List<Pedido> pacote = pacotes.get(naoVazios.get(linha));
+            double peso = pacote.stream().mapToDouble(Pedido::getPeso).sum();
+            Pedido primeiro = pacote.get(0);
+            double restante = calcularDistanciaRestante(pacote, matriz);
+            
+            for (int d = 0; d < drones.size(); d++) {
+                Drone drone = drones.get(d);
+                double distancia = calcularTrechoInicial(drone, primeiro, matriz) + restante;
+                if (peso > drone.getCapacidadeMaxima()
+                    || !simuladorBateria.bateriaSeguraParaMissao(drone.getBateriaAtual(), distancia, peso)) {
+                    custo[linha][d] = CUSTO_INVIAVEL;
+                    continue;
+                }
+                double usoBateria = simuladorBateria.estimarConsumoMissao(distancia, peso) / drone.getBateriaAtual();
+                double folgaCapacidade = 1 - peso / drone.getCapacidadeMaxima();
+                custo[linha][d] = distancia + PENALIDADE_MARGEM_KM * usoBateria + PENALIDADE_FOLGA_KM * folgaCapacidade;
+            }
+        }
+        
+        int[] droneDoPacote = AtribuicaoHungara.resolver(custo);
+        List<List<Pedido>> atribuidas = new ArrayList<>();
+        drones.forEach(drone -> atribuidas.add(new ArrayList<>()));
+        // O custo proibitivo faz a atribuição minimizar primeiro os pares inviáveis,
+        // que a verificação de bateria do despacho ainda recusa
+        for (int linha = 0; linha < naoVazios.size(); linha++) {
+            atribuidas.set(droneDoPacote[linha], pacotes.get(naoVazios.get(linha)));
+        }
+        return atribuidas;
+    }
+    
+    /**
+     * Distância da missão do drone com os pedidos na ordem dada: da posição atual ao primeiro
+     * pedido, entre os pedidos e de volta à base
+     */
+    double calcularDistanciaMissao(Drone drone, List<Pedido> pedidos, MatrizDistancias matriz) {
+        if (pedidos.isEmpty()) return 0;
+        return calcularTrechoInicial(drone, pedidos.get(0), matriz) + calcularDistanciaRestante(pedidos, matriz);
+    }
+    
+    /** Da posição do drone ao primeiro pedido (pela matriz quando o drone está na base) */
+    private static double calcularTrechoInicial(Drone drone, Pedido primeiro, MatrizDistancias matriz) {
+        if (drone.getPosX() == 0 && drone.getPosY() == 0) {
+            return matriz.distanciaBase(primeiro);
+        }
+        double dx = (double) primeiro.getX() - drone.getPosX();
+        double dy = (double) primeiro.getY() - drone.getPosY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+    
+    /** Do primeiro pedido, na ordem dada, até voltar à base */
+    private static double calcularDistanciaRestante(List<Pedido> pedidos, MatrizDistancias matriz) {
+        double distancia = 0;
+        int atual = matriz.indice(pedidos.get(0));
+        for (int i = 1; i < pedidos.size(); i++) {
+            int proximo = matriz.indice(pedidos.get(i));
+            distancia += matriz.distancia(atual, proximo);
+            atual = proximo;
+        }
+        return distancia + matriz.distancia(atual, MatrizDistancias.BASE);
+    }
+    
+    /**
+     * Publica o resultado das estratégias de passada única, que não melhoram depois de prontas,
+     * com cada rota medida na sequência que a missão vai voar
+     */
+    private List<List<Pedido>> publicarPassadaUnica(PlanoAlocacao plano, List<Drone> drones,
+                                                    List<List<Pedido>> alocacoes, MatrizDistancias matriz) {
+        double distanciaTotal = 0;
+        int atendidos = 0;
+        for (List<Pedido> rota : alocacoes) {
+            if (rota.isEmpty()) continue;
+            distanciaTotal += calcularDistanciaRota(rota, matriz);
+            atendidos += rota.size();
+        }
+        plano.publicar(rotasPorDrone(drones, alocacoes), distanciaTotal, atendidos);
+        plano.concluir("PASSADA_UNICA");
+        return alocacoes;
+    }
+    
+    private static Map<String, List<String>> rotasPorDrone(List<Drone> drones, List<List<Pedido>> alocacoes) {
+        Map<String, List<String>> rotas = new LinkedHashMap<>();
+        for (int i = 0; i < alocacoes.size(); i++) {
+            List<Pedido> rota = alocacoes.get(i);
+            if (!rota.isEmpty()) {
+                rotas.put(drones.get(i).getId(), rota.stream().map(Pedido::getId).toList());
+            }
+        }
+        return Collections.unmodifiableMap(rotas);
+    }
+    
+    /**
+     * Alocação para filas grandes: os pedidos são agrupados por vizinhança (dimensionados pela
+     * capacidade mediana da frota) e cada drone recebe um agrupamento inteiro, em ordem de
+     * prioridade, indo para o drone de menor capacidade que o comporta com bateria segura.
+     * Cada agrupamento é medido em matriz própria para não materializar a fila toda.
+     */
+    private List<List<Pedido>> otimizarAlocacaoPorAgrupamentos(List<Drone> drones, List<Pedido> pedidos) {
+        double[] capacidades = drones.stream().mapToDouble(Drone::getCapacidadeMaxima).sorted().toArray();
+        List<AgrupadorEspacial.Agrupamento> agrupamentos = new AgrupadorEspacial(tamanhoCelulaAgrupamento)
+            .agrupar(pedidos, capacidades[capacidades.length / 2]);
+        
+        // Drones livres por capacidade
+        TreeMap<Double, List<Integer>> livres = new TreeMap<>();
+        for (int i = 0; i < drones.size(); i++) {
+            livres.computeIfAbsent(drones.get(i).getCapacidadeMaxima(), c -> new ArrayList<>()).add(i);
+        }
+        List<List<Pedido>> alocacoes = new ArrayList<>();
+        drones.forEach(drone -> alocacoes.add(new ArrayList<>()));
+        
+        for (AgrupadorEspacial.Agrupamento agrupamento : agrupamentos) {
+            if (livres.isEmpty()) break;
+            if (livres.lastKey() < agrupamento.getPeso()) continue;
+            
+            MatrizDistancias matrizAgrupamento = new MatrizDistancias(agrupamento.getPedidos().size());
+            List<Pedido> rota = otimizarRota(agrupamento.getPedidos(), matrizAgrupamento);
+            double distancia = calcularDistanciaTotal(rota, matrizAgrupamento);
+            Double faixaEscolhida = null;
+            for (Map.Entry<Double, List<Integer>> faixa : livres.tailMap(agrupamento.getPeso(), true).entrySet()) {
+                Iterator<Integer> candidatos = faixa.getValue().iterator();
+                while (faixaEscolhida == null && candidatos.hasNext()) {
+                    int indice = candidatos.next();
+                    if (simuladorBateria.bateriaSeguraParaMissao(drones.get(indice).getBateriaAtual(), distancia, agrupamento.getPeso())) {
+                        alocacoes.set(indice, rota);
+                        candidatos.remove();
+                        faixaEscolhida = faixa.getKey();
+                    }
+                }
+                if (faixaEscolhida != null) break;
+            }
+            if (faixaEscolhida != null && livres.get(faixaEscolhida).isEmpty()) {
+                livres.remove(faixaEscolhida);
+            }
+        }
+        return alocacoes;
+    }
+    
+    /**
+     * Alocação gulosa: preenche um drone por vez com os pedidos mais prioritários
+     */
+    private List<List<Pedido>> otimizarAlocacaoGulosa(List<Drone> drones, List<Pedido> pedidos, MatrizDistancias matriz) {
         List<List<Pedido>> alocacoes = new ArrayList<>();
         
         List<Pedido> pedidosOrdenados = pedidos.stream()
-            .sorted(this::compararPedidos)
+            .sorted((p1, p2) -> compararPedidos(p1, p2, matriz))
             .collect(Collectors.toList());
         
         for (Drone drone : drones) {
-            List<Pedido> melhorCombinacao = encontrarMelhorCombinacao(drone, pedidosOrdenados);
+            List<Pedido> melhorCombinacao = encontrarMelhorCombinacao(drone, pedidosOrdenados, matriz);
             alocacoes.add(melhorCombinacao);
             pedidosOrdenados.removeAll(melhorCombinacao);
         }
@@ -31,18 +371,34 @@ public class OtimizadorEntregas {
         return alocacoes;
     }
     
+    /**
+     * Alocação por pacotes avaliados em paralelo para todos os drones, com junção determinística.
+     * Não usa a matriz do ciclo: cada avaliação monta a sua apenas sobre a própria janela.
+     */
+    private List<List<Pedido>> otimizarAlocacaoParalela(List<Drone> drones, List<Pedido> pedidos) {
+        Map<Pedido, Double> distanciasBase = new IdentityHashMap<>();
+        for (Pedido pedido : pedidos) {
+            distanciasBase.put(pedido, Math.hypot(pedido.getX(), pedido.getY()));
+        }
+        List<Pedido> pedidosOrdenados = new ArrayList<>(pedidos);
+        pedidosOrdenados.sort((p1, p2) ->
+            compararPedidos(p1, distanciasBase.get(p1), p2, distanciasBase.get(p2)));
+        
+        return new AlocadorParalelo(this, ForkJoinPool.commonPool()).alocar(drones, pedidosOrdenados);
+    }
+    
     /**
      * Encontra a melhor combinação de pedidos para um drone
      */
-    private List<Pedido> encontrarMelhorCombinacao(Drone drone, List<Pedido> pedidosDisponiveis) {
+    List<Pedido> encontrarMelhorCombinacao(Drone drone, List<Pedido> pedidosDisponiveis, MatrizDistancias matriz) {
         List<Pedido> melhorCombinacao = new ArrayList<>();
         double melhorEficiencia = 0;
         
-        // Gerar todas as combinações possíveis (algoritmo simplificado para performance)
-        List<List<Pedido>> combinacoes = gerarCombinacoesValidas(drone, pedidosDisponiveis);
+        // Candidata: melhor pacote da mochila, com o preenchimento guloso como alternativa
+        List<List<Pedido>> combinacoes = gerarCombinacoesValidas(drone, pedidosDisponiveis, matriz);
         
         for (List<Pedido> combinacao : combinacoes) {
-            double eficiencia = calcularEficiencia(drone, combinacao);
+            double eficiencia = calcularEficiencia(drone, combinacao, matriz);
             if (eficiencia > melhorEficiencia) {
                 melhorEficiencia = eficiencia;
                 melhorCombinacao = new ArrayList<>(combinacao);
@@ -53,9 +409,10 @@ public class OtimizadorEntregas {
     }
     
     /**
-     * Gera combinações válidas de pedidos para um drone
+     * Gera combinações válidas de pedidos para um drone: o pacote de maior eficiência
+     * encontrado pelo branch-and-bound a partir do preenchimento guloso
      */
-    private List<List<Pedido>> gerarCombinacoesValidas(Drone drone, List<Pedido> pedidos) {
+    private List<List<Pedido>> gerarCombinacoesValidas(Drone drone, List<Pedido> pedidos, MatrizDistancias matriz) {
         List<List<Pedido>> combinacoes = new ArrayList<>();
         
         List<Pedido> combinacaoAtual = new ArrayList<>();
@@ -63,7 +420,7 @@ public class OtimizadorEntregas {
         double distanciaTotal = 0;
         
         for (Pedido pedido : pedidos) {
-            double distanciaPedido = calcularDistancia(0, 0, pedido.getX(), pedido.getY()) * 2; // ida e volta
+            double distanciaPedido = matriz.distanciaBase(pedido) * 2; // ida e volta
             
             if (pesoTotal + pedido.getPeso() <= drone.getCapacidadeMaxima() &&
                 distanciaTotal + distanciaPedido <= drone.getBateriaAtual() * 2) { // margem de segurança
@@ -74,48 +431,60 @@ public class OtimizadorEntregas {
             }
         }
         
-        combinacoes.add(combinacaoAtual);
+        // O pacote da mochila parte do guloso (se viável), então só é pior quando nada cabe
+        List<Pedido> pacote = new SelecionadorPacote(simuladorBateria, matriz, drone, pedidos, limiteNosMochila)
+            .selecionar(combinacaoAtual);
+        combinacoes.add(pacote.isEmpty() ? combinacaoAtual : pacote);
         return combinacoes;
     }
     
     /**
-     * Calcula a eficiência de uma combinação de pedidos
+     * Calcula a eficiência de uma combinação de pedidos, pela distância da rota sequenciada
      */
-    private double calcularEficiencia(Drone drone, List<Pedido> pedidos) {
+    double calcularEficiencia(Drone drone, List<Pedido> pedidos, MatrizDistancias matriz) {
         if (pedidos.isEmpty()) return 0;
         
         double pesoTotal = pedidos.stream().mapToDouble(Pedido::getPeso).sum();
-        double distanciaTotal = calcularDistanciaTotal(pedidos);
+        double distanciaTotal = calcularDistanciaRota(pedidos, matriz);
         double pontuacaoPrioridade = calcularPontuacaoPrioridade(pedidos);
         
-        // Fórmula de eficiência: maximizar peso e prioridade, minimizar distância
         double utilizacaoCapacidade = pesoTotal / drone.getCapacidadeMaxima();
         double eficienciaDistancia = distanciaTotal > 0 ? Math.max(1, 100.0 / distanciaTotal) : 0; // Inverso da distância
         
+        return eficiencia(utilizacaoCapacidade, eficienciaDistancia, pontuacaoPrioridade);
+    }
+    
+    /**
+     * Fórmula de eficiência: maximizar peso e prioridade, minimizar distância
+     */
+    static double eficiencia(double utilizacaoCapacidade, double eficienciaDistancia, double pontuacaoPrioridade) {
         return (utilizacaoCapacidade * 0.4) + (eficienciaDistancia * 0.3) + (pontuacaoPrioridade * 0.3);
     }
     
     /**
-     * Calcula a distância total de uma rota otimizada
+     * Distância da rota que a missão voaria com esses pedidos: sequenciada por
+     * {@link #otimizarRota(List, MatrizDistancias)} e medida base → pedidos → base
+     */
+    private double calcularDistanciaRota(List<Pedido> pedidos, MatrizDistancias matriz) {
+        return calcularDistanciaTotal(otimizarRota(pedidos, matriz), matriz);
+    }
+    
+    /**
+     * Calcula a distância total de uma rota na ordem dada (base → pedidos → base)
      */
-    private double calcularDistanciaTotal(List<Pedido> pedidos) {
+    private double calcularDistanciaTotal(List<Pedido> pedidos, MatrizDistancias matriz) {
         if (pedidos.isEmpty()) return 0;
         
         double distanciaTotal = 0;
-        int xAtual = 0;
-        int yAtual = 0;
-        
-        // Otimizar ordem usando algoritmo do vizinho mais próximo
-        List<Pedido> pedidosOrdenados = otimizarRota(pedidos);
-        
-        for (Pedido pedido : pedidosOrdenados) {
-            distanciaTotal += calcularDistancia(xAtual, yAtual, pedido.getX(), pedido.getY());
-            xAtual = pedido.getX();
-            yAtual = pedido.getY();
+        int atual = MatrizDistancias.BASE;
+        for (Pedido pedido : pedidos) {
+            int proximo = matriz.indice(pedido);
+            distanciaTotal += matriz.distancia(atual, proximo);
+            atual = proximo;
         }
         
         // Adicionar distância de retorno à base
-        distanciaTotal += calcularDistancia(xAtual, yAtual, 0, 0);
+        distanciaTotal += matriz.distancia(atual, MatrizDistancias.BASE);
         
         return distanciaTotal;
     }
@@ -124,11 +493,18 @@ public class OtimizadorEntregas {
      * Otimiza a rota considerando prioridade primeiro, depois distância
      */
     public List<Pedido> otimizarRota(List<Pedido> pedidos) {
+        return otimizarRota(pedidos, new MatrizDistancias(pedidos.size()));
+    }
+    
+    /**
+     * Otimiza a rota consultando a matriz de distâncias do ciclo de despacho
+     */
+    public List<Pedido> otimizarRota(List<Pedido> pedidos, MatrizDistancias matriz) {
         if (pedidos.size() <= 1) return new ArrayList<>(pedidos);
         
         // Primeiro: ordenar por prioridade
         List<Pedido> pedidosOrdenados = pedidos.stream()
-            .sorted(this::compararPedidos)
+            .sorted((p1, p2) -> compararPedidos(p1, p2, matriz))
             .collect(Collectors.toList());
         
         // Segundo: otimizar rota dentro de cada grupo de prioridade
@@ -139,19 +515,20 @@ public class OtimizadorEntregas {
             .collect(Collectors.groupingBy(Pedido::getPrioridade,
                 LinkedHashMap::new, Collectors.toList()));
         
-        int xAtual = 0;
-        int yAtual = 0;
+        int atual = MatrizDistancias.BASE;
         
         // Processar cada grupo de prioridade em ordem
+        int grupoAtual = 0;
         for (List<Pedido> grupo : gruposPorPrioridade.values()) {
             List<Pedido> naoVisitados = new ArrayList<>(grupo);
+            List<Pedido> sequenciaGrupo = new ArrayList<>(grupo.size());
             
             while (!naoVisitados.isEmpty()) {
                 Pedido maisProximo = null;
                 double menorDistancia = Double.MAX_VALUE;
                 
                 for (Pedido pedido : naoVisitados) {
-                    double distancia = calcularDistancia(xAtual, yAtual, pedido.getX(), pedido.getY());
+                    double distancia = matriz.distancia(atual, matriz.indice(pedido));
                     if (distancia < menorDistancia) {
                         menorDistancia = distancia;
                         maisProximo = pedido;
@@ -159,38 +536,79 @@ public class OtimizadorEntregas {
                 }
                 
                 if (maisProximo != null) {
-                    rota.add(maisProximo);
+                    sequenciaGrupo.add(maisProximo);
                     naoVisitados.remove(maisProximo);
-                    xAtual = maisProximo.getX();
-                    yAtual = maisProximo.getY();
                 }
             }
+            
+            // Melhorar a sequência do grupo (o último grupo termina na base)
+            boolean ultimoGrupo = ++grupoAtual == gruposPorPrioridade.size();
+            sequenciaGrupo = melhorarSequencia(atual, sequenciaGrupo, ultimoGrupo, matriz);
+            rota.addAll(sequenciaGrupo);
+            
+            atual = matriz.indice(sequenciaGrupo.get(sequenciaGrupo.size() - 1));
         }
         
         return rota;
     }
     
+    /**
+     * Aplica 2-opt e Or-opt a uma sequência que parte do nó {@code inicio} da matriz
+     */
+    private List<Pedido> melhorarSequencia(int inicio, List<Pedido> sequencia, boolean retornaBase,
+                                           MatrizDistancias matriz) {
+        int paradas = sequencia.size();
+        if (paradas < 2) return sequencia;
+        
+        // Posição 0 é o ponto de partida; com retorno, a última posição é a base
+        int[] ordem = new int[retornaBase ? paradas + 2 : paradas + 1];
+        ordem[0] = inicio;
+        for (int i = 0; i < paradas; i++) {
+            ordem[i + 1] = matriz.indice(sequencia.get(i));
+        }
+        if (retornaBase) {
+            ordem[paradas + 1] = MatrizDistancias.BASE;
+        }
+        new MelhoradorRota(matriz, ordem, retornaBase).melhorar();
+        
+        Map<Integer, Pedido> porIndice = new HashMap<>();
+        for (Pedido pedido : sequencia) {
+            porIndice.put(matriz.indice(pedido), pedido);
+        }
+        List<Pedido> melhorada = new ArrayList<>(paradas);
+        for (int i = 1; i <= paradas; i++) {
+            melhorada.add(porIndice.get(ordem[i]));
+        }
+        return melhorada;
+    }
+    
     /**
      * Calcula pontuação baseada na prioridade dos pedidos
      */
     private double calcularPontuacaoPrioridade(List<Pedido> pedidos) {
         return pedidos.stream()
-            .mapToDouble(p -> {
-                switch (p.getPrioridade()) {
-                    case ALTA: return 1.0;
-                    case MEDIA: return 0.6;
-                    case BAIXA: return 0.3;
-                    default: return 0.3;
-                }
-            })
+            .mapToDouble(p -> pontuacaoPrioridade(p.getPrioridade()))
             .average()
             .orElse(0);
     }
     
+    static double pontuacaoPrioridade(Prioridade prioridade) {
+        switch (prioridade) {
+            case ALTA: return 1.0;
+            case MEDIA: return 0.6;
+            case BAIXA: return 0.3;
+            default: return 0.3;
+        }
+    }
+    
     /**
      * Compara pedidos para ordenação por prioridade e eficiência
      */
-    private int compararPedidos(Pedido p1, Pedido p2) {
+    private int compararPedidos(Pedido p1, Pedido p2, MatrizDistancias matriz) {
+        return compararPedidos(p1, matriz.distanciaBase(p1), p2, matriz.distanciaBase(p2));
+    }
+    
+    private static int compararPedidos(Pedido p1, double distanciaBase1, Pedido p2, double distanciaBase2) {
         // Primeiro por prioridade
         int comparacaoPrioridade = p1.getPrioridade().compareTo(p2.getPrioridade());
         if (comparacaoPrioridade != 0) {
@@ -198,28 +616,19 @@ public class OtimizadorEntregas {
         }
         
         // Depois por eficiência (peso/distância)
-        double distancia1 = Math.max(1, calcularDistancia(0, 0, p1.getX(), p1.getY()));
-        double distancia2 = Math.max(1, calcularDistancia(0, 0, p2.getX(), p2.getY()));
+        double distancia1 = Math.max(1, distanciaBase1);
+        double distancia2 = Math.max(1, distanciaBase2);
         double eficiencia1 = distancia1 > 0 ? p1.getPeso() / distancia1 : 0;
         double eficiencia2 = distancia2 > 0 ? p2.getPeso() / distancia2 : 0;
         
         return Double.compare(eficiencia2, eficiencia1); // Ordem decrescente
     }
     
-    /**
-     * Calcula distância euclidiana entre dois pontos
-     */
-    private double calcularDistancia(int x1, int y1, int x2, int y2) {
-        double dx = (double) x2 - x1;
-        double dy = (double) y2 - y1;
-        return Math.sqrt(dx * dx + dy * dy);
-    }
-    
     /**
      * Calcula tempo estimado de entrega para uma rota
      */
     public double calcularTempoEntrega(List<Pedido> rota, double velocidadeDrone) {
-        double distanciaTotal = calcularDistanciaTotal(rota);
+        double distanciaTotal = calcularDistanciaRota(rota, new MatrizDistancias(rota.size()));
         double tempoVoo = distanciaTotal / velocidadeDrone;
         double tempoEntregas = rota.size() * 2.0; // 2 minutos por entrega
         
@@ -0,0 +1,219 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import com.dtidigital.drone_delivery.enums.EstadoDrone;
+import com.dtidigital.drone_delivery.enums.EstrategiaAlocacao;
+import com.dtidigital.drone_delivery.model.Drone;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Melhora continuamente, em uma thread de baixa prioridade, um plano tentativo para os
+ * pedidos liberados pela janela de consolidação e os drones ociosos da última
+ * {@link FotografiaFrota}, retomando a cada fatia a destruição e reparo do
+ * {@link RoteirizadorVRP} com novas perturbações. Cada fatia publica o melhor plano com
+ * a assinatura do estado de que partiu; o despacho o adota se o estado vivo tiver a
+ * mesma assinatura. A fração de CPU é limitada dormindo, após cada fatia, o tempo
+ * proporcional ao trabalho feito.
+ */
+final class PlanejadorSegundoPlano {
+
+    private static final long ESPERA_OCIOSA_MS = 200;
+
+    private final OtimizadorEntregas otimizador;
+    private volatile Supplier<FotografiaFrota> fotografias;
+    private volatile double fracaoCpu = 0.25;
+    private volatile long fatiaMs = 20;
+    private volatile PlanoTentativo tentativo;
+    private volatile boolean ativo = false;
+    private volatile long falhas = 0;
+    private Thread thread;
+
+    // Somente thread do planejador
+    private long versaoAnalisada = -1;
+    private long assinaturaAtual;
+    private List<Drone> drones = List.of();
+    private List<Pedido> pedidos = List.of();
+    private MatrizDistancias matriz;
+    private PlanoAlocacao plano;
+    private List<List<Pedido>> solucao;
+    private long semente = 42;
+
+    PlanejadorSegundoPlano(OtimizadorEntregas otimizador) {
+        this.otimizador = otimizador;
+    }
+
+    void setFracaoCpu(double fracaoCpu) {
+        this.fracaoCpu = Math.min(1.0, Math.max(0.01, fracaoCpu));
+    }
+
+    void setFatiaMs(long fatiaMs) {
+        this.fatiaMs = Math.max(1, fatiaMs);
+    }
+
+    /**
+     * Passa a melhorar o plano sobre as fotografias fornecidas
+     */
+    synchronized void iniciar(Supplier<FotografiaFrota> fotografias) {
+        if (ativo) return;
+        this.fotografias = fotografias;
+        if (thread != null) {
+            // A thread anterior sai ao fim da fatia em andamento
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        ativo = true;
+        thread = Thread.ofPlatform().daemon().name("drone-planejador-lns").priority(Thread.MIN_PRIORITY)
+            .start(this::executar);
+    }
+
+    synchronized void parar() {
+        ativo = false;
+        tentativo = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Fatias que falharam e recomeçaram o plano do zero
+     */
+    long getFalhas() {
+        return falhas;
+    }
+
+    /**
+     * Plano tentativo calculado exatamente para este estado, ou nulo se não houver
+     */
+    PlanoTentativo planoPara(long assinatura) {
+        PlanoTentativo atual = tentativo;
+        return atual != null && atual.assinatura == assinatura ? atual : null;
+    }
+
+    /**
+     * Assinatura dos drones candidatos e pedidos (ordem, posição, bateria, capacidade, peso e prioridade)
+     */
+    static long assinatura(List<Drone> drones, List<Pedido> pedidos) {
+        long h = 1125899906842597L;
+        for (Drone drone : drones) {
+            h = 31 * h + drone.getId().hashCode();
+            h = 31 * h + Double.doubleToLongBits(drone.getBateriaAtual());
+            h = 31 * h + Double.doubleToLongBits(drone.getCapacidadeMaxima());
+            h = 31 * h + drone.getPosX();
+            h = 31 * h + drone.getPosY();
+        }
+        h = 31 * h + drones.size();
+        for (Pedido pedido : pedidos) {
+            h = 31 * h + pedido.getId().hashCode();
+            h = 31 * h + pedido.getX();
+            h = 31 * h + pedido.getY();
+            h = 31 * h + Double.doubleToLongBits(pedido.getPeso());
+            h = 31 * h + pedido.getPrioridade().ordinal();
+        }
+        return 31 * h + pedidos.size();
+    }
+
+    private void executar() {
+        while (ativo) {
+            try {
+                long inicio = System.nanoTime();
+                boolean trabalhou = executarFatia();
+                long trabalhoMs = (System.nanoTime() - inicio) / 1_000_000;
+                double fracao = fracaoCpu;
+                Thread.sleep(trabalhou ? Math.max(1, (long) (trabalhoMs * (1 - fracao) / fracao)) : ESPERA_OCIOSA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                falhas++;
+                plano = null; // Recomeça do zero na próxima fatia
+                versaoAnalisada = -1;
+                try {
+                    Thread.sleep(ESPERA_OCIOSA_MS); // Uma falha repetida não pode ocupar a CPU
+                } catch (InterruptedException interrompido) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Executa uma fatia de melhoria; devolve falso se não havia o que planejar
+     */
+    private boolean executarFatia() {
+        FotografiaFrota fotografia = fotografias.get();
+        if (fotografia.getVersao() != versaoAnalisada) {
+            versaoAnalisada = fotografia.getVersao();
+            List<Drone> ociosos = new ArrayList<>();
+            for (Drone drone : fotografia.getDrones()) {
+                if (drone.getEstado() == EstadoDrone.IDLE) ociosos.add(drone);
+            }
+            IndiceZonas indice = new IndiceZonas(fotografia.getZonas());
+            List<Pedido> validos = new ArrayList<>();
+            Set<String> retidos = fotografia.getRetidos(); // O despacho só aloca o que a janela liberou
+            for (Pedido pedido : fotografia.getFila()) {
+                if (!retidos.contains(pedido.getId()) && !indice.intercepta(0, 0, pedido.getX(), pedido.getY())) validos.add(pedido);
+            }
+            long assinatura = assinatura(ociosos, validos);
+            if (plano == null || assinatura != assinaturaAtual) {
+                assinaturaAtual = assinatura;
+                drones = ociosos;
+                pedidos = validos;
+                matriz = otimizador.novaMatriz(validos.size());
+                plano = new PlanoAlocacao(EstrategiaAlocacao.VRP, fatiaMs, null, validos.size());
+                solucao = null;
+                tentativo = null;
+            }
+        }
+        if (drones.isEmpty() || pedidos.isEmpty() || !otimizador.isRoteirizacaoVRP(pedidos.size())) {
+            return false;
+        }
+
+        solucao = otimizador.melhorarEmSegundoPlano(plano, matriz, drones, pedidos, solucao, fatiaMs, semente++);
+        List<List<String>> idsPorDrone = new ArrayList<>(solucao.size());
+        for (List<Pedido> sequencia : solucao) {
+            idsPorDrone.add(sequencia.stream().map(Pedido::getId).toList());
+        }
+        tentativo = new PlanoTentativo(assinaturaAtual, plano.concluirCopia("SEGUNDO_PLANO"), List.copyOf(idsPorDrone));
+        return true;
+    }
+
+    /**
+     * Melhor plano de uma fatia: sequência de IDs de pedidos por drone candidato
+     */
+    static final class PlanoTentativo {
+        private final long assinatura;
+        private final PlanoAlocacao plano;
+        private final List<List<String>> pedidosPorDrone;
+
+        PlanoTentativo(long assinatura, PlanoAlocacao plano, List<List<String>> pedidosPorDrone) {
+            this.assinatura = assinatura;
+            this.plano = plano;
+            this.pedidosPorDrone = pedidosPorDrone;
+        }
+
+        long getAssinatura() {
+            return assinatura;
+        }
+
+        PlanoAlocacao getPlano() {
+            return plano;
+        }
+
+        List<List<String>> getPedidosPorDrone() {
+            return pedidosPorDrone;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.dtidigital.drone_delivery.enums.EstrategiaAlocacao;
+
+/**
+ * Plano de alocação de um ciclo, melhorado continuamente até o prazo ou a meta.
+ * O otimizador publica aqui o melhor plano viável encontrado até o momento e cada
+ * melhoria entra na curva; leitores de outras threads veem sempre um plano completo.
+ */
+public class PlanoAlocacao {
+
+    private final String id;
+    private final LocalDateTime criadoEm;
+    private final long inicioNanos;
+    private final EstrategiaAlocacao estrategia;
+    private final long prazoMs;
+    private final Double alvoKmPorEntrega;
+    private final int pedidosCandidatos;
+    private final List<PontoMelhoria> melhorias = new CopyOnWriteArrayList<>();
+    private volatile Publicacao melhor = new Publicacao(Map.of(), 0, 0);
+    private volatile String motivoParada; // Nulo enquanto em andamento
+    private volatile long duracaoNanos = -1;
+
+    PlanoAlocacao(EstrategiaAlocacao estrategia, long prazoMs, Double alvoKmPorEntrega, int pedidosCandidatos) {
+        this.id = UUID.randomUUID().toString();
+        this.criadoEm = LocalDateTime.now();
+        this.inicioNanos = System.nanoTime();
+        this.estrategia = estrategia;
+        this.prazoMs = prazoMs;
+        this.alvoKmPorEntrega = alvoKmPorEntrega;
+        this.pedidosCandidatos = pedidosCandidatos;
+    }
+
+    /**
+     * Cópia concluída de um plano em andamento, feita pela thread que o otimiza
+     * (mantém ID, início e curva até aqui; o original segue sendo melhorado)
+     */
+    PlanoAlocacao concluirCopia(String motivoParada) {
+        PlanoAlocacao copia = new PlanoAlocacao(this);
+        copia.concluir(motivoParada);
+        return copia;
+    }
+
+    private PlanoAlocacao(PlanoAlocacao origem) {
+        this.id = origem.id;
+        this.criadoEm = origem.criadoEm;
+        this.inicioNanos = origem.inicioNanos;
+        this.estrategia = origem.estrategia;
+        this.prazoMs = origem.prazoMs;
+        this.alvoKmPorEntrega = origem.alvoKmPorEntrega;
+        this.pedidosCandidatos = origem.pedidosCandidatos;
+        this.melhorias.addAll(origem.melhorias);
+        this.melhor = origem.melhor;
+    }
+
+    /**
+     * Publica um novo melhor plano (IDs dos pedidos por drone) e registra o ponto na curva
+     */
+    void publicar(Map<String, List<String>> rotas, double distanciaTotal, int pedidosAtendidos) {
+        melhor = new Publicacao(rotas, distanciaTotal, pedidosAtendidos);
+        melhorias.add(new PontoMelhoria(getDecorridoMs(), distanciaTotal, pedidosAtendidos));
+    }
+
+    /**
+     * Troca os drones das rotas publicadas sem alterar o custo nem a curva
+     */
+    void reatribuir(Map<String, List<String>> rotas) {
+        Publicacao atual = melhor;
+        melhor = new Publicacao(rotas, atual.distanciaTotal, atual.pedidosAtendidos);
+    }
+
+    void concluir(String motivoParada) {
+        this.duracaoNanos = System.nanoTime() - inicioNanos;
+        this.motivoParada = motivoParada;
+    }
+
+    /**
+     * Indica se o plano publicado já atinge a meta de km por entrega
+     */
+    boolean isMetaAtingida() {
+        return alvoKmPorEntrega != null && melhor.pedidosAtendidos > 0 && getKmPorEntrega() <= alvoKmPorEntrega;
+    }
+
+    public String getId() { return id; }
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+    public EstrategiaAlocacao getEstrategia() { return estrategia; }
+    public long getPrazoMs() { return prazoMs; }
+    public Double getAlvoKmPorEntrega() { return alvoKmPorEntrega; }
+    public int getPedidosCandidatos() { return pedidosCandidatos; }
+    public Map<String, List<String>> getRotas() { return melhor.rotas; }
+    public double getDistanciaTotal() { return melhor.distanciaTotal; }
+    public int getPedidosAtendidos() { return melhor.pedidosAtendidos; }
+    public String getMotivoParada() { return motivoParada; }
+    public List<PontoMelhoria> getMelhorias() { return List.copyOf(melhorias); }
+
+    public double getKmPorEntrega() {
+        Publicacao atual = melhor;
+        return atual.pedidosAtendidos > 0 ? atual.distanciaTotal / atual.pedidosAtendidos : 0;
+    }
+
+    public String getStatus() {
+        return motivoParada != null ? "CONCLUIDO" : "EM_ANDAMENTO";
+    }
+
+    /**
+     * Tempo de otimização: até agora se em andamento, ou total se concluído
+     */
+    public long getDecorridoMs() {
+        long duracao = duracaoNanos;
+        return (duracao >= 0 ? duracao : System.nanoTime() - inicioNanos) / 1_000_000;
+    }
+
+    /**
+     * Melhor plano publicado, trocado por inteiro a cada melhoria
+     */
+    private static final class Publicacao {
+        private final Map<String, List<String>> rotas;
+        private final double distanciaTotal;
+        private final int pedidosAtendidos;
+
+        Publicacao(Map<String, List<String>> rotas, double distanciaTotal, int pedidosAtendidos) {
+            this.rotas = rotas;
+            this.distanciaTotal = distanciaTotal;
+            this.pedidosAtendidos = pedidosAtendidos;
+        }
+    }
+
+    /**
+     * Ponto da curva de melhoria: custo do melhor plano no instante em que foi encontrado
+     */
+    public static class PontoMelhoria {
+        private final long decorridoMs;
+        private final double distanciaTotal;
+        private final int pedidosAtendidos;
+
+        PontoMelhoria(long decorridoMs, double distanciaTotal, int pedidosAtendidos) {
+            this.decorridoMs = decorridoMs;
+            this.distanciaTotal = distanciaTotal;
+            this.pedidosAtendidos = pedidosAtendidos;
+        }
+
+        public long getDecorridoMs() { return decorridoMs; }
+        public double getDistanciaTotal() { return distanciaTotal; }
+        public int getPedidosAtendidos() { return pedidosAtendidos; }
+    }
+}
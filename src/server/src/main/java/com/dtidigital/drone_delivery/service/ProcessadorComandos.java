@@ -0,0 +1,188 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Laço de escritor único: todas as mutações de estado são enfileiradas em uma fila
+ * MPSC sem locks e executadas em sequência por uma única thread.
+ * Os comandos pendentes são processados em lotes; ao final de cada lote o gancho
+ * {@code aoFinalizarLote} é executado antes de liberar quem aguarda o resultado.
+ * A thread escritora só parte em {@link #iniciar()}; depois de {@link #encerrar()},
+ * comandos novos são recusados e os que não chegaram a executar falham.
+ */
+public class ProcessadorComandos {
+
+    private static final int TAMANHO_MAXIMO_LOTE = 256;
+
+    private final ConcurrentLinkedQueue<Comando<?>> caixaEntrada = new ConcurrentLinkedQueue<>();
+    private final String nome;
+    private final Runnable aoFinalizarLote;
+    private volatile Thread escritor;
+    private volatile boolean ativo = true;
+
+    public ProcessadorComandos(String nome) {
+        this(nome, () -> { });
+    }
+
+    public ProcessadorComandos(String nome, Runnable aoFinalizarLote) {
+        this.nome = nome;
+        this.aoFinalizarLote = aoFinalizarLote;
+    }
+
+    /**
+     * Inicia a thread escritora; comandos enviados antes disso aguardam o início
+     */
+    public synchronized void iniciar() {
+        if (escritor != null) {
+            return;
+        }
+        if (!ativo) {
+            throw new IllegalStateException("Processador de comandos encerrado");
+        }
+        escritor = Thread.ofPlatform().daemon().name(nome).start(this::executarLaco);
+    }
+
+    /**
+     * Executa a ação na thread escritora e aguarda o resultado.
+     * Chamadas feitas de dentro da própria thread escritora são executadas imediatamente.
+     */
+    public <T> T executar(Supplier<T> acao) {
+        if (isThreadEscritora()) {
+            return acao.get();
+        }
+        try {
+            return enviar(acao).join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException excecao) throw excecao;
+            if (causa instanceof Error erro) throw erro;
+            throw e;
+        }
+    }
+
+    /**
+     * Versão sem retorno de {@link #executar(Supplier)}
+     */
+    public void executarAcao(Runnable acao) {
+        executar(() -> {
+            acao.run();
+            return null;
+        });
+    }
+
+    /**
+     * Enfileira a ação sem aguardar sua execução
+     */
+    public <T> CompletableFuture<T> enviar(Supplier<T> acao) {
+        if (!ativo) {
+            throw new IllegalStateException("Processador de comandos encerrado");
+        }
+        Comando<T> comando = new Comando<>(acao);
+        caixaEntrada.offer(comando);
+        if (!ativo && caixaEntrada.remove(comando)) {
+            // Encerrado durante o envio: o laço pode já ter esvaziado a fila e saído
+            comando.falhar(new IllegalStateException("Processador de comandos encerrado"));
+        } else {
+            acordar();
+        }
+        return comando.resultado;
+    }
+
+    public boolean isThreadEscritora() {
+        return Thread.currentThread() == escritor;
+    }
+
+    /**
+     * Recusa novos comandos; os já enfileirados ainda são executados pela thread escritora,
+     * ou falham se ela nunca foi iniciada
+     */
+    public void encerrar() {
+        ativo = false;
+        Thread thread;
+        synchronized (this) {
+            thread = escritor;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            return;
+        }
+        Comando<?> pendente;
+        while ((pendente = caixaEntrada.poll()) != null) {
+            pendente.falhar(new IllegalStateException("Processador de comandos encerrado"));
+        }
+    }
+
+    private void acordar() {
+        Thread thread = escritor;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void executarLaco() {
+        List<Comando<?>> lote = new ArrayList<>(TAMANHO_MAXIMO_LOTE);
+        while (ativo || !caixaEntrada.isEmpty()) {
+            Comando<?> comando;
+            while (lote.size() < TAMANHO_MAXIMO_LOTE && (comando = caixaEntrada.poll()) != null) {
+                comando.executar();
+                lote.add(comando);
+            }
+
+            if (lote.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            try {
+                aoFinalizarLote.run();
+            } catch (Throwable t) {
+                // Um erro no gancho não pode parar o laço: todos os chamadores ficariam bloqueados
+                System.err.println("Erro ao finalizar lote de comandos: " + t);
+            }
+            for (Comando<?> executado : lote) {
+                executado.concluir();
+            }
+            lote.clear();
+        }
+    }
+
+    /**
+     * Comando enfileirado com o resultado (ou falha) de sua execução
+     */
+    private static final class Comando<T> {
+        private final Supplier<T> acao;
+        private final CompletableFuture<T> resultado = new CompletableFuture<>();
+        private T valor;
+        private Throwable falha;
+
+        Comando(Supplier<T> acao) {
+            this.acao = acao;
+        }
+
+        void executar() {
+            try {
+                valor = acao.get();
+            } catch (Throwable t) {
+                falha = t;
+            }
+        }
+
+        void concluir() {
+            if (falha != null) {
+                resultado.completeExceptionally(falha);
+            } else {
+                resultado.complete(valor);
+            }
+        }
+
+        void falhar(Throwable motivo) {
+            resultado.completeExceptionally(motivo);
+        }
+    }
+}
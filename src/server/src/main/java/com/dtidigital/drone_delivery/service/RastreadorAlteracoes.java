@@ -0,0 +1,57 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.dtidigital.drone_delivery.model.Drone;
+
+/**
+ * Registra o que mudou desde o último planejamento de despacho: pedidos novos ou
+ * editados, drones que ficaram disponíveis e alterações de zonas de exclusão.
+ * Usado apenas pela thread escritora.
+ */
+public class RastreadorAlteracoes {
+
+    private final Set<String> pedidosAlterados = new LinkedHashSet<>();
+    private final Set<Drone> dronesLiberados = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean replanejamentoCompleto = true; // O primeiro ciclo considera tudo
+
+    public void marcarPedido(String pedidoId) {
+        pedidosAlterados.add(pedidoId);
+    }
+
+    public void marcarDrone(Drone drone) {
+        dronesLiberados.add(drone);
+    }
+
+    /**
+     * Zonas alteradas mudam a validade de qualquer pedido: exige replanejamento completo
+     */
+    public void marcarZonas() {
+        replanejamentoCompleto = true;
+    }
+
+    public boolean possuiAlteracoes() {
+        return replanejamentoCompleto || !pedidosAlterados.isEmpty() || !dronesLiberados.isEmpty();
+    }
+
+    public boolean isReplanejamentoCompleto() {
+        return replanejamentoCompleto;
+    }
+
+    public boolean isDroneLiberado(Drone drone) {
+        return dronesLiberados.contains(drone);
+    }
+
+    public Set<String> getPedidosAlterados() {
+        return Collections.unmodifiableSet(pedidosAlterados);
+    }
+
+    public void limpar() {
+        pedidosAlterados.clear();
+        dronesLiberados.clear();
+        replanejamentoCompleto = false;
+    }
+}
@@ -0,0 +1,119 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dtidigital.drone_delivery.model.Entrega;
+
+/**
+ * Histórico de entregas somente-anexação com agregados mantidos incrementalmente.
+ * Escrito apenas pela thread escritora; leitores obtêm visões imutáveis em O(1),
+ * pois os elementos já publicados nunca são alterados.
+ */
+public class RegistroEntregas {
+
+    private volatile Entrega[] elementos = new Entrega[64];
+    private volatile int tamanho = 0;
+
+    private double somaTempoMinutos = 0;
+    private double somaDistancia = 0;
+    private double somaBateria = 0;
+    private long somaTempoMinutosInteiros = 0;
+    private final Map<String, Long> entregasPorDrone = new HashMap<>();
+
+    public void registrar(Entrega entrega) {
+        Entrega[] atual = elementos;
+        int n = tamanho;
+        if (n == atual.length) {
+            atual = Arrays.copyOf(atual, n * 2);
+            elementos = atual;
+        }
+        atual[n] = entrega;
+        tamanho = n + 1; // Publica o novo elemento para os leitores
+
+        somaTempoMinutos += entrega.getTempoTotalMinutos();
+        somaDistancia += entrega.getDistanciaPercorrida();
+        somaBateria += entrega.getBateriaConsumida();
+        somaTempoMinutosInteiros += (long) entrega.getTempoTotalMinutos();
+        entregasPorDrone.merge(entrega.getDroneId(), 1L, Long::sum);
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Visão imutável das entregas registradas até o momento
+     */
+    public List<Entrega> listar() {
+        int n = tamanho;
+        return new Visao(elementos, n);
+    }
+
+    /**
+     * Resumo imutável dos agregados (deve ser chamado pela thread escritora)
+     */
+    public Resumo resumir() {
+        String droneMaisEficiente = entregasPorDrone.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse("Nenhum");
+        return new Resumo(tamanho, somaTempoMinutos, somaDistancia, somaBateria,
+                somaTempoMinutosInteiros, droneMaisEficiente);
+    }
+
+    private static final class Visao extends AbstractList<Entrega> {
+        private final Entrega[] elementos;
+        private final int tamanho;
+
+        Visao(Entrega[] elementos, int tamanho) {
+            this.elementos = elementos;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        public Entrega get(int indice) {
+            if (indice < 0 || indice >= tamanho) {
+                throw new IndexOutOfBoundsException("Índice: " + indice + ", tamanho: " + tamanho);
+            }
+            return elementos[indice];
+        }
+
+        @Override
+        public int size() {
+            return tamanho;
+        }
+    }
+
+    /**
+     * Agregados das entregas em um instante
+     */
+    public static final class Resumo {
+        private final int totalEntregas;
+        private final double somaTempoMinutos;
+        private final double somaDistancia;
+        private final double somaBateria;
+        private final long somaTempoMinutosInteiros;
+        private final String droneMaisEficiente;
+
+        Resumo(int totalEntregas, double somaTempoMinutos, double somaDistancia, double somaBateria,
+               long somaTempoMinutosInteiros, String droneMaisEficiente) {
+            this.totalEntregas = totalEntregas;
+            this.somaTempoMinutos = somaTempoMinutos;
+            this.somaDistancia = somaDistancia;
+            this.somaBateria = somaBateria;
+            this.somaTempoMinutosInteiros = somaTempoMinutosInteiros;
+            this.droneMaisEficiente = droneMaisEficiente;
+        }
+
+        public int getTotalEntregas() { return totalEntregas; }
+        public double getTempoMedio() { return totalEntregas > 0 ? somaTempoMinutos / totalEntregas : 0; }
+        public double getDistanciaTotal() { return somaDistancia; }
+        public double getConsumoMedio() { return totalEntregas > 0 ? somaBateria / totalEntregas : 0; }
+        public long getTempoTotalMinutos() { return somaTempoMinutosInteiros; }
+        public String getDroneMaisEficiente() { return droneMaisEficiente; }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.dtidigital.drone_delivery.enums.EstadoPedido;
+import com.dtidigital.drone_delivery.model.Entrega;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Índice único do ciclo de vida dos pedidos (fila, em entrega, entregue).
+ * Atualizado a cada transição para que status, busca e remoção sejam O(1).
+ * Escrito apenas pela thread escritora; as leituras não bloqueiam.
+ */
+public class RegistroPedidos {
+
+    private final Map<String, SituacaoPedido> situacoes = new ConcurrentHashMap<>();
+
+    public void registrarNaFila(Pedido pedido) {
+        situacoes.put(pedido.getId(), new SituacaoPedido(EstadoPedido.NA_FILA, pedido, null, null));
+    }
+
+    public void registrarEmEntrega(Pedido pedido, String droneId) {
+        situacoes.put(pedido.getId(), new SituacaoPedido(EstadoPedido.EM_ENTREGA, pedido, droneId, null));
+    }
+
+    public void registrarEntregue(Entrega entrega) {
+        Pedido pedido = entrega.getPedido();
+        situacoes.put(pedido.getId(), new SituacaoPedido(EstadoPedido.ENTREGUE, pedido,
+                entrega.getDroneId(), entrega.getFimEntrega()));
+    }
+
+    public SituacaoPedido remover(String pedidoId) {
+        return situacoes.remove(pedidoId);
+    }
+
+    public SituacaoPedido buscar(String pedidoId) {
+        return situacoes.get(pedidoId);
+    }
+
+    /**
+     * Busca o pedido apenas se ele ainda estiver aguardando na fila
+     */
+    public Pedido buscarNaFila(String pedidoId) {
+        SituacaoPedido situacao = situacoes.get(pedidoId);
+        return situacao != null && situacao.getEstado() == EstadoPedido.NA_FILA ? situacao.getPedido() : null;
+    }
+
+    public int tamanho() {
+        return situacoes.size();
+    }
+
+    /**
+     * Situação imutável de um pedido em um ponto do seu ciclo de vida
+     */
+    public static final class SituacaoPedido {
+        private final EstadoPedido estado;
+        private final Pedido pedido;
+        private final String droneId;
+        private final LocalDateTime fimEntrega;
+
+        SituacaoPedido(EstadoPedido estado, Pedido pedido, String droneId, LocalDateTime fimEntrega) {
+            this.estado = estado;
+            this.pedido = pedido;
+            this.droneId = droneId;
+            this.fimEntrega = fimEntrega;
+        }
+
+        public EstadoPedido getEstado() { return estado; }
+        public Pedido getPedido() { return pedido; }
+        public String getDroneId() { return droneId; }
+        public LocalDateTime getFimEntrega() { return fimEntrega; }
+    }
+}
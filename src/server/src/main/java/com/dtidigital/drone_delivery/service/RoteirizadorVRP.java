@@ -0,0 +1,654 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.dtidigital.drone_delivery.model.Drone;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Roteirização capacitada da frota (CVRP) a partir da base em (0, 0).
+ * Constrói as rotas pelo método das economias de Clarke-Wright, atribui cada rota
+ * ao drone de menor folga capaz de voá-la e melhora o conjunto com movimentos
+ * entre rotas (realocação e troca). Funciona como algoritmo "anytime": o primeiro
+ * plano viável é publicado no {@link PlanoAlocacao} logo após a construção e, depois
+ * da busca local, perturbações (remover e reinserir pedidos) seguem melhorando o
+ * plano até o prazo, a meta de km por entrega ou a estagnação.
+ * Toda rota devolvida respeita a capacidade e a bateria do seu drone.
+ * Instância de uso único, sem estado compartilhado.
+ */
+class RoteirizadorVRP {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAXIMO_PERTURBACOES_SEM_MELHORIA = 200;
+    private static final int MAXIMO_PEDIDOS_REMOVIDOS = 30;
+
+    private final SimuladorBateria simuladorBateria;
+    private final PlanoAlocacao plano;
+    private final long prazoNanos;
+    private final Random random; // Perturbações reprodutíveis
+
+    // Nó 0 é a base; nós 1..n são os pedidos, mapeados para índices da matriz do ciclo
+    private final List<Pedido> pedidos;
+    private final int n;
+    private final MatrizDistancias matriz;
+    private final int[] indiceMatriz;
+    private final double[] pesos;
+    private final int[] prioridades;
+
+    private final List<Drone> drones;
+    private final int[] rotaDoDrone; // Índice da rota voada por cada drone, -1 se livre
+
+    // Rotas como sequências de nós (sem a base)
+    private final List<int[]> rotas = new ArrayList<>();
+    private final List<Integer> tamanhos = new ArrayList<>();
+    private final List<Double> distanciaRota = new ArrayList<>();
+    private final List<Double> pesoRota = new ArrayList<>();
+    private boolean publicado = false;
+    private String motivoParada;
+
+    RoteirizadorVRP(SimuladorBateria simuladorBateria, PlanoAlocacao plano, MatrizDistancias matriz,
+                    List<Drone> drones, List<Pedido> pedidos) {
+        this(simuladorBateria, plano, plano.getPrazoMs(), 42, matriz, drones, pedidos);
+    }
+
+    /**
+     * @param orcamentoMs prazo desta execução (o do plano vale para execuções únicas)
+     * @param semente semente das perturbações, variada a cada retomada
+     */
+    RoteirizadorVRP(SimuladorBateria simuladorBateria, PlanoAlocacao plano, long orcamentoMs, long semente,
+                    MatrizDistancias matriz, List<Drone> drones, List<Pedido> pedidos) {
+        this.simuladorBateria = simuladorBateria;
+        this.plano = plano;
+        // Prazo saturado: orçamentos enormes não podem estourar o cálculo em nanossegundos
+        long orcamentoNanos = orcamentoMs >= Long.MAX_VALUE / 4_000_000L ? Long.MAX_VALUE / 4 : orcamentoMs * 1_000_000L;
+        this.prazoNanos = System.nanoTime() + orcamentoNanos;
+        this.random = new Random(semente);
+        this.matriz = matriz;
+        this.drones = drones;
+        this.pedidos = pedidos;
+        this.n = pedidos.size();
+        this.indiceMatriz = new int[n + 1];
+        this.pesos = new double[n + 1];
+        this.prioridades = new int[n + 1];
+        this.rotaDoDrone = new int[drones.size()];
+        Arrays.fill(rotaDoDrone, -1);
+
+        indiceMatriz[0] = MatrizDistancias.BASE;
+        for (int i = 1; i <= n; i++) {
+            Pedido pedido = pedidos.get(i - 1);
+            indiceMatriz[i] = matriz.indice(pedido);
+            pesos[i] = pedido.getPeso();
+            prioridades[i] = pedido.getPrioridade().ordinal(); // ALTA = 0
+        }
+    }
+
+    /**
+     * Resolve a roteirização e devolve, alinhada à lista de drones, a sequência de
+     * pedidos de cada um (vazia para drones sem rota)
+     */
+    List<List<Pedido>> resolver() {
+        List<Integer> pendentes = new ArrayList<>();
+        construirPorEconomias(pendentes);
+        atribuirRotasAosDrones(pendentes);
+        inserirPendentes(pendentes);
+        publicarSeMelhor(); // Plano viável imediato
+
+        if (!plano.isMetaAtingida()) {
+            buscaLocal();
+            inserirPendentes(pendentes);
+            publicarSeMelhor();
+        }
+        motivoParada = melhorarAtePrazo(pendentes);
+        return montarAlocacoes();
+    }
+
+    /**
+     * Retoma a melhoria de uma solução já publicada no plano (alinhada à mesma lista de
+     * drones, sobre os mesmos pedidos) até o prazo desta execução, sem concluir o plano
+     */
+    List<List<Pedido>> continuar(List<List<Pedido>> solucao) {
+        Map<Pedido, Integer> nos = new IdentityHashMap<>();
+        for (int i = 1; i <= n; i++) {
+            nos.put(pedidos.get(i - 1), i);
+        }
+        boolean[] atendido = new boolean[n + 1];
+        for (int d = 0; d < drones.size() && d < solucao.size(); d++) {
+            List<Pedido> sequencia = solucao.get(d);
+            if (sequencia.isEmpty()) continue;
+            int[] rota = new int[sequencia.size()];
+            double distanciaTotal = 0;
+            double peso = 0;
+            int anterior = 0;
+            for (int k = 0; k < rota.length; k++) {
+                int no = nos.get(sequencia.get(k));
+                rota[k] = no;
+                atendido[no] = true;
+                distanciaTotal += distancia(anterior, no);
+                peso += pesos[no];
+                anterior = no;
+            }
+            distanciaTotal += distancia(anterior, 0);
+            rotaDoDrone[d] = novaRota(rota, rota.length, distanciaTotal, peso);
+        }
+        List<Integer> pendentes = new ArrayList<>();
+        for (int i = 1; i <= n; i++) {
+            if (!atendido[i]) pendentes.add(i);
+        }
+
+        publicado = true; // A solução retomada é a melhor já publicada
+        motivoParada = melhorarAtePrazo(pendentes);
+        return montarAlocacoes();
+    }
+
+    private List<List<Pedido>> montarAlocacoes() {
+        List<List<Pedido>> alocacoes = new ArrayList<>(drones.size());
+        for (int d = 0; d < drones.size(); d++) {
+            List<Pedido> sequencia = new ArrayList<>();
+            int r = rotaDoDrone[d];
+            if (r >= 0) {
+                int[] rota = rotas.get(r);
+                for (int k = 0; k < tamanhos.get(r); k++) {
+                    sequencia.add(pedidos.get(rota[k] - 1));
+                }
+            }
+            alocacoes.add(sequencia);
+        }
+        return alocacoes;
+    }
+
+    /**
+     * Por que a última execução parou: PRAZO, META ou CONVERGENCIA
+     */
+    String getMotivoParada() {
+        return motivoParada;
+    }
+
+    /**
+     * Distância total voada pelas rotas atribuídas (base → pedidos → base)
+     */
+    double getDistanciaTotal() {
+        double total = 0;
+        for (int r : rotaDoDrone) {
+            if (r >= 0) total += distanciaRota.get(r);
+        }
+        return total;
+    }
+
+    private int pedidosAtendidos() {
+        int total = 0;
+        for (int r : rotaDoDrone) {
+            if (r >= 0) total += tamanhos.get(r);
+        }
+        return total;
+    }
+
+    // ---- Publicação e melhoria contínua ----
+
+    /**
+     * Publica o plano atual se for melhor que o publicado: mais pedidos atendidos e,
+     * no empate, menor distância
+     */
+    private void publicarSeMelhor() {
+        int atendidos = pedidosAtendidos();
+        double distancia = getDistanciaTotal();
+        if (publicado && !melhor(atendidos, distancia, plano.getPedidosAtendidos(), plano.getDistanciaTotal())) {
+            return;
+        }
+        Map<String, List<String>> rotasPublicadas = new LinkedHashMap<>();
+        for (int d = 0; d < drones.size(); d++) {
+            int r = rotaDoDrone[d];
+            if (r < 0) continue;
+            List<String> ids = new ArrayList<>(tamanhos.get(r));
+            int[] rota = rotas.get(r);
+            for (int k = 0; k < tamanhos.get(r); k++) {
+                ids.add(pedidos.get(rota[k] - 1).getId());
+            }
+            rotasPublicadas.put(drones.get(d).getId(), List.copyOf(ids));
+        }
+        plano.publicar(Collections.unmodifiableMap(rotasPublicadas), distancia, atendidos);
+        publicado = true;
+    }
+
+    private static boolean melhor(int atendidos, double distancia, int atendidosReferencia, double distanciaReferencia) {
+        return atendidos > atendidosReferencia
+            || (atendidos == atendidosReferencia && distancia < distanciaReferencia - EPSILON);
+    }
+
+    /**
+     * Remove pedidos aleatórios das rotas, reinsere e reaplica a busca local; mantém o
+     * resultado se melhorar e desfaz caso contrário. Devolve o motivo da parada.
+     */
+    private String melhorarAtePrazo(List<Integer> pendentes) {
+        int semMelhoria = 0;
+        while (true) {
+            if (plano.isMetaAtingida()) return "META";
+            if (esgotouOrcamento()) return "PRAZO";
+            int atendidos = pedidosAtendidos();
+            if (semMelhoria >= MAXIMO_PERTURBACOES_SEM_MELHORIA || atendidos < 2) return "CONVERGENCIA";
+
+            double distanciaAntes = getDistanciaTotal();
+            int[][] rotasSalvas = salvarRotas();
+            List<Integer> pendentesSalvos = new ArrayList<>(pendentes);
+
+            arruinar(pendentes, Math.min(MAXIMO_PEDIDOS_REMOVIDOS, Math.max(2, atendidos / 10)));
+            inserirPendentes(pendentes);
+            buscaLocal();
+            inserirPendentes(pendentes);
+
+            if (melhor(pedidosAtendidos(), getDistanciaTotal(), atendidos, distanciaAntes)) {
+                publicarSeMelhor();
+                semMelhoria = 0;
+            } else {
+                restaurarRotas(rotasSalvas);
+                pendentes.clear();
+                pendentes.addAll(pendentesSalvos);
+                semMelhoria++;
+            }
+        }
+    }
+
+    private void arruinar(List<Integer> pendentes, int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            int d = random.nextInt(drones.size());
+            int r = rotaDoDrone[d];
+            if (r < 0) continue;
+            int tamanho = tamanhos.get(r);
+            int p = random.nextInt(tamanho);
+            int[] rota = rotas.get(r);
+            int no = rota[p];
+            int anterior = p == 0 ? 0 : rota[p - 1];
+            int seguinte = p == tamanho - 1 ? 0 : rota[p + 1];
+            double ganho = distancia(anterior, no) + distancia(no, seguinte) - distancia(anterior, seguinte);
+            remover(r, p);
+            distanciaRota.set(r, distanciaRota.get(r) - ganho);
+            pesoRota.set(r, pesoRota.get(r) - pesos[no]);
+            if (tamanhos.get(r) == 0) {
+                rotaDoDrone[d] = -1;
+            }
+            pendentes.add(no);
+        }
+    }
+
+    private int[][] salvarRotas() {
+        int[][] salvas = new int[drones.size()][];
+        for (int d = 0; d < drones.size(); d++) {
+            int r = rotaDoDrone[d];
+            if (r >= 0) {
+                salvas[d] = Arrays.copyOf(rotas.get(r), tamanhos.get(r));
+            }
+        }
+        return salvas;
+    }
+
+    private void restaurarRotas(int[][] salvas) {
+        rotas.clear();
+        tamanhos.clear();
+        distanciaRota.clear();
+        pesoRota.clear();
+        Arrays.fill(rotaDoDrone, -1);
+        for (int d = 0; d < salvas.length; d++) {
+            int[] rota = salvas[d];
+            if (rota == null) continue;
+            double distanciaTotal = 0;
+            double peso = 0;
+            int anterior = 0;
+            for (int no : rota) {
+                distanciaTotal += distancia(anterior, no);
+                peso += pesos[no];
+                anterior = no;
+            }
+            distanciaTotal += distancia(anterior, 0);
+            rotaDoDrone[d] = novaRota(rota, rota.length, distanciaTotal, peso);
+        }
+    }
+
+    // ---- Construção (Clarke-Wright) ----
+
+    private void construirPorEconomias(List<Integer> pendentes) {
+        int[] rotaDoNo = new int[n + 1];
+        boolean[] atendivel = new boolean[n + 1];
+        for (int i = 1; i <= n; i++) {
+            double ida = distancia(0, i);
+            atendivel[i] = algumDroneComporta(pesos[i], 2 * ida);
+            if (!atendivel[i]) {
+                pendentes.add(i);
+                rotaDoNo[i] = -1;
+                continue;
+            }
+            rotaDoNo[i] = novaRota(new int[] { i }, 1, 2 * ida, pesos[i]);
+        }
+
+        // Economias positivas ordenadas: chave = bits do float (positivo preserva a ordem) | par
+        long[] economias = new long[n * (n - 1) / 2];
+        int total = 0;
+        for (int i = 1; i <= n; i++) {
+            if (!atendivel[i]) continue;
+            for (int j = i + 1; j <= n; j++) {
+                if (!atendivel[j]) continue;
+                float economia = (float) (distancia(0, i) + distancia(0, j) - distancia(i, j));
+                if (economia > 0) {
+                    economias[total++] = ((long) Float.floatToIntBits(economia) << 32) | (i * (n + 1) + j);
+                }
+            }
+        }
+        Arrays.sort(economias, 0, total);
+
+        for (int k = total - 1; k >= 0; k--) {
+            if ((k & 1023) == 0 && esgotouOrcamento()) break;
+            int par = (int) economias[k];
+            int i = par / (n + 1);
+            int j = par % (n + 1);
+            int ri = rotaDoNo[i];
+            int rj = rotaDoNo[j];
+            if (ri == rj) continue;
+
+            // i e j precisam estar nas pontas das suas rotas
+            boolean iInicio = rotas.get(ri)[0] == i;
+            boolean iFim = rotas.get(ri)[tamanhos.get(ri) - 1] == i;
+            boolean jInicio = rotas.get(rj)[0] == j;
+            boolean jFim = rotas.get(rj)[tamanhos.get(rj) - 1] == j;
+            if (!(iInicio || iFim) || !(jInicio || jFim)) continue;
+
+            double peso = pesoRota.get(ri) + pesoRota.get(rj);
+            double economia = distancia(0, i) + distancia(0, j) - distancia(i, j);
+            double distanciaUnida = distanciaRota.get(ri) + distanciaRota.get(rj) - economia;
+            if (!algumDroneComporta(peso, distanciaUnida)) continue;
+
+            // Orientar como [... i] + [j ...]
+            if (!iFim) inverter(ri);
+            if (!jInicio) inverter(rj);
+            int ti = tamanhos.get(ri);
+            int tj = tamanhos.get(rj);
+            int[] unida = Arrays.copyOf(rotas.get(ri), ti + tj);
+            System.arraycopy(rotas.get(rj), 0, unida, ti, tj);
+            rotas.set(ri, unida);
+            tamanhos.set(ri, ti + tj);
+            distanciaRota.set(ri, distanciaUnida);
+            pesoRota.set(ri, peso);
+            for (int q = 0; q < tj; q++) {
+                rotaDoNo[unida[ti + q]] = ri;
+            }
+            tamanhos.set(rj, 0);
+        }
+    }
+
+    // ---- Atribuição das rotas aos drones ----
+
+    private void atribuirRotasAosDrones(List<Integer> pendentes) {
+        List<Integer> ordem = new ArrayList<>();
+        for (int r = 0; r < rotas.size(); r++) {
+            if (tamanhos.get(r) > 0) ordem.add(r);
+        }
+        // Rotas com pedidos mais prioritários primeiro; depois as mais carregadas
+        ordem.sort((a, b) -> {
+            int comparacao = Integer.compare(melhorPrioridade(a), melhorPrioridade(b));
+            if (comparacao != 0) return comparacao;
+            return Double.compare(pesoRota.get(b), pesoRota.get(a));
+        });
+
+        for (int r : ordem) {
+            int escolhido = -1;
+            for (int d = 0; d < drones.size(); d++) {
+                if (rotaDoDrone[d] >= 0 || !comporta(d, pesoRota.get(r), distanciaRota.get(r))) continue;
+                if (escolhido < 0 || folga(d) < folga(escolhido)) {
+                    escolhido = d;
+                }
+            }
+            if (escolhido >= 0) {
+                rotaDoDrone[escolhido] = r;
+            } else {
+                int[] rota = rotas.get(r);
+                for (int k = 0; k < tamanhos.get(r); k++) {
+                    pendentes.add(rota[k]);
+                }
+                tamanhos.set(r, 0);
+            }
+        }
+    }
+
+    /**
+     * Insere pedidos não atendidos na posição mais barata de uma rota viável, ou em um drone livre
+     */
+    private void inserirPendentes(List<Integer> pendentes) {
+        pendentes.sort((a, b) -> Integer.compare(prioridades[a], prioridades[b]));
+        for (int p = 0; p < pendentes.size(); p++) {
+            int no = pendentes.get(p);
+            int melhorDrone = -1;
+            int melhorPosicao = -1;
+            double melhorCusto = Double.MAX_VALUE;
+            for (int d = 0; d < drones.size(); d++) {
+                int r = rotaDoDrone[d];
+                if (r < 0) {
+                    double custo = 2 * distancia(0, no);
+                    if (custo < melhorCusto && comporta(d, pesos[no], custo)) {
+                        melhorCusto = custo;
+                        melhorDrone = d;
+                        melhorPosicao = 0;
+                    }
+                    continue;
+                }
+                int[] rota = rotas.get(r);
+                int tamanho = tamanhos.get(r);
+                for (int q = 0; q <= tamanho; q++) {
+                    int anterior = q == 0 ? 0 : rota[q - 1];
+                    int seguinte = q == tamanho ? 0 : rota[q];
+                    double custo = distancia(anterior, no) + distancia(no, seguinte) - distancia(anterior, seguinte);
+                    if (custo < melhorCusto
+                        && comporta(d, pesoRota.get(r) + pesos[no], distanciaRota.get(r) + custo)) {
+                        melhorCusto = custo;
+                        melhorDrone = d;
+                        melhorPosicao = q;
+                    }
+                }
+            }
+            if (melhorDrone < 0) continue;
+
+            int r = rotaDoDrone[melhorDrone];
+            if (r < 0) {
+                r = novaRota(new int[] { no }, 1, melhorCusto, pesos[no]);
+                rotaDoDrone[melhorDrone] = r;
+            } else {
+                inserir(r, melhorPosicao, no);
+                distanciaRota.set(r, distanciaRota.get(r) + melhorCusto);
+                pesoRota.set(r, pesoRota.get(r) + pesos[no]);
+            }
+            pendentes.remove(p--);
+        }
+    }
+
+    // ---- Busca local entre rotas ----
+
+    private void buscaLocal() {
+        boolean melhorou = true;
+        while (melhorou && !esgotouOrcamento()) {
+            melhorou = false;
+            for (int a = 0; a < drones.size(); a++) {
+                for (int b = 0; b < drones.size(); b++) {
+                    if (a == b || rotaDoDrone[a] < 0) continue;
+                    if (esgotouOrcamento()) return;
+                    if (realocar(a, b) || (a < b && rotaDoDrone[b] >= 0 && trocar(a, b))) {
+                        melhorou = true;
+                    }
+                }
+            }
+            if (melhorou) {
+                publicarSeMelhor(); // Cada passada com ganho entra na curva
+            }
+        }
+    }
+
+    /**
+     * Move um pedido da rota do drone {@code a} para a melhor posição na rota do drone {@code b}
+     */
+    private boolean realocar(int a, int b) {
+        int ra = rotaDoDrone[a];
+        int rb = rotaDoDrone[b];
+        int[] rotaA = rotas.get(ra);
+        int tamanhoA = tamanhos.get(ra);
+        int[] rotaB = rb >= 0 ? rotas.get(rb) : null;
+        int tamanhoB = rb >= 0 ? tamanhos.get(rb) : 0;
+        double pesoB = rb >= 0 ? pesoRota.get(rb) : 0;
+        double distanciaB = rb >= 0 ? distanciaRota.get(rb) : 0;
+
+        for (int p = 0; p < tamanhoA; p++) {
+            int no = rotaA[p];
+            int anteriorA = p == 0 ? 0 : rotaA[p - 1];
+            int seguinteA = p == tamanhoA - 1 ? 0 : rotaA[p + 1];
+            double ganhoRemocao = distancia(anteriorA, no) + distancia(no, seguinteA) - distancia(anteriorA, seguinteA);
+
+            for (int q = 0; q <= tamanhoB; q++) {
+                int anteriorB = q == 0 ? 0 : rotaB[q - 1];
+                int seguinteB = q == tamanhoB ? 0 : rotaB[q];
+                double custoInsercao = distancia(anteriorB, no) + distancia(no, seguinteB) - distancia(anteriorB, seguinteB);
+                if (custoInsercao - ganhoRemocao >= -EPSILON) continue;
+                if (!comporta(b, pesoB + pesos[no], distanciaB + custoInsercao)) continue;
+
+                remover(ra, p);
+                distanciaRota.set(ra, distanciaRota.get(ra) - ganhoRemocao);
+                pesoRota.set(ra, pesoRota.get(ra) - pesos[no]);
+                if (rb < 0) {
+                    rb = novaRota(new int[] { no }, 1, custoInsercao, pesos[no]);
+                    rotaDoDrone[b] = rb;
+                } else {
+                    inserir(rb, q, no);
+                    distanciaRota.set(rb, distanciaB + custoInsercao);
+                    pesoRota.set(rb, pesoB + pesos[no]);
+                }
+                if (tamanhos.get(ra) == 0) {
+                    rotaDoDrone[a] = -1;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Troca um pedido da rota do drone {@code a} com um pedido da rota do drone {@code b}
+     */
+    private boolean trocar(int a, int b) {
+        int ra = rotaDoDrone[a];
+        int rb = rotaDoDrone[b];
+        int[] rotaA = rotas.get(ra);
+        int[] rotaB = rotas.get(rb);
+        int tamanhoA = tamanhos.get(ra);
+        int tamanhoB = tamanhos.get(rb);
+
+        for (int p = 0; p < tamanhoA; p++) {
+            int x = rotaA[p];
+            int anteriorA = p == 0 ? 0 : rotaA[p - 1];
+            int seguinteA = p == tamanhoA - 1 ? 0 : rotaA[p + 1];
+            double saidaA = distancia(anteriorA, x) + distancia(x, seguinteA);
+
+            for (int q = 0; q < tamanhoB; q++) {
+                int y = rotaB[q];
+                int anteriorB = q == 0 ? 0 : rotaB[q - 1];
+                int seguinteB = q == tamanhoB - 1 ? 0 : rotaB[q + 1];
+                double deltaA = distancia(anteriorA, y) + distancia(y, seguinteA) - saidaA;
+                double deltaB = distancia(anteriorB, x) + distancia(x, seguinteB)
+                    - distancia(anteriorB, y) - distancia(y, seguinteB);
+                if (deltaA + deltaB >= -EPSILON) continue;
+
+                double novoPesoA = pesoRota.get(ra) - pesos[x] + pesos[y];
+                double novoPesoB = pesoRota.get(rb) - pesos[y] + pesos[x];
+                double novaDistanciaA = distanciaRota.get(ra) + deltaA;
+                double novaDistanciaB = distanciaRota.get(rb) + deltaB;
+                if (!comporta(a, novoPesoA, novaDistanciaA) || !comporta(b, novoPesoB, novaDistanciaB)) continue;
+
+                rotaA[p] = y;
+                rotaB[q] = x;
+                distanciaRota.set(ra, novaDistanciaA);
+                distanciaRota.set(rb, novaDistanciaB);
+                pesoRota.set(ra, novoPesoA);
+                pesoRota.set(rb, novoPesoB);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- Viabilidade ----
+
+    private boolean comporta(int d, double peso, double distanciaTotal) {
+        Drone drone = drones.get(d);
+        return peso <= drone.getCapacidadeMaxima()
+            && simuladorBateria.bateriaSeguraParaMissao(drone.getBateriaAtual(), distanciaTotal, peso);
+    }
+
+    private boolean algumDroneComporta(double peso, double distanciaTotal) {
+        for (int d = 0; d < drones.size(); d++) {
+            if (comporta(d, peso, distanciaTotal)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Folga do drone para a escolha do mais justo (capacidade primeiro, depois bateria)
+     */
+    private double folga(int d) {
+        Drone drone = drones.get(d);
+        return drone.getCapacidadeMaxima() * 1000 + drone.getBateriaAtual();
+    }
+
+    // ---- Estruturas das rotas ----
+
+    private int novaRota(int[] nos, int tamanho, double distancia, double peso) {
+        rotas.add(nos);
+        tamanhos.add(tamanho);
+        distanciaRota.add(distancia);
+        pesoRota.add(peso);
+        return rotas.size() - 1;
+    }
+
+    private void inserir(int r, int posicao, int no) {
+        int[] rota = rotas.get(r);
+        int tamanho = tamanhos.get(r);
+        if (tamanho == rota.length) {
+            rota = Arrays.copyOf(rota, Math.max(4, tamanho * 2));
+            rotas.set(r, rota);
+        }
+        System.arraycopy(rota, posicao, rota, posicao + 1, tamanho - posicao);
+        rota[posicao] = no;
+        tamanhos.set(r, tamanho + 1);
+    }
+
+    private void remover(int r, int posicao) {
+        int[] rota = rotas.get(r);
+        int tamanho = tamanhos.get(r);
+        System.arraycopy(rota, posicao + 1, rota, posicao, tamanho - posicao - 1);
+        tamanhos.set(r, tamanho - 1);
+    }
+
+    private void inverter(int r) {
+        int[] rota = rotas.get(r);
+        for (int i = 0, j = tamanhos.get(r) - 1; i < j; i++, j--) {
+            int temporario = rota[i];
+            rota[i] = rota[j];
+            rota[j] = temporario;
+        }
+    }
+
+    private int melhorPrioridade(int r) {
+        int melhor = Integer.MAX_VALUE;
+        int[] rota = rotas.get(r);
+        for (int k = 0; k < tamanhos.get(r); k++) {
+            melhor = Math.min(melhor, prioridades[rota[k]]);
+        }
+        return melhor;
+    }
+
+    private double distancia(int i, int j) {
+        return matriz.distancia(indiceMatriz[i], indiceMatriz[j]);
+    }
+
+    private boolean esgotouOrcamento() {
+        return System.nanoTime() - prazoNanos > 0;
+    }
+}
@@ -0,0 +1,170 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.dtidigital.drone_delivery.model.Drone;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Seleção do pacote de pedidos de um drone como mochila limitada, por branch-and-bound.
+ * Maximiza a eficiência de {@link OtimizadorEntregas} sob a capacidade do drone e a
+ * bateria exigida pela rota na ordem dos pedidos. A busca é podada por um limite
+ * superior da eficiência e por inviabilidade (peso e distância só crescem ao incluir
+ * pedidos) e para ao atingir o limite de nós, devolvendo o melhor pacote encontrado,
+ * que parte do pacote guloso quando este é viável.
+ */
+final class SelecionadorPacote {
+
+    private final SimuladorBateria simuladorBateria;
+    private final MatrizDistancias matriz;
+    private final Drone drone;
+    private final List<Pedido> candidatos;
+    private final int[] indices;
+    private final double[] pesos;
+    private final double[] pontuacoes;
+    private final double[] pesoRestante; // Soma dos pesos de i em diante
+    private final double[] melhorPontuacaoRestante; // Maior pontuação de prioridade de i em diante
+    private final double[] melhorDistanciaRestante; // Maior termo de distância de um pedido isolado de i em diante
+    private final int limiteNos;
+
+    private final boolean[] escolhidos;
+    private boolean[] melhorEscolha;
+    private double melhorEficiencia;
+    private int nosVisitados = 0;
+
+    SelecionadorPacote(SimuladorBateria simuladorBateria, MatrizDistancias matriz, Drone drone,
+                       List<Pedido> pedidos, int limiteNos) {
+        this.simuladorBateria = simuladorBateria;
+        this.matriz = matriz;
+        this.drone = drone;
+        this.limiteNos = limiteNos;
+
+        // Pedidos que sozinhos excedem a capacidade nunca entram no pacote
+        this.candidatos = new ArrayList<>();
+        for (Pedido pedido : pedidos) {
+            if (pedido.getPeso() <= drone.getCapacidadeMaxima()) {
+                candidatos.add(pedido);
+            }
+        }
+        int n = candidatos.size();
+        this.indices = new int[n];
+        this.pesos = new double[n];
+        this.pontuacoes = new double[n];
+        this.pesoRestante = new double[n + 1];
+        this.melhorPontuacaoRestante = new double[n + 1];
+        this.melhorDistanciaRestante = new double[n + 1];
+        this.escolhidos = new boolean[n];
+        this.melhorEscolha = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            Pedido pedido = candidatos.get(i);
+            indices[i] = matriz.indice(pedido);
+            pesos[i] = pedido.getPeso();
+            pontuacoes[i] = OtimizadorEntregas.pontuacaoPrioridade(pedido.getPrioridade());
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            pesoRestante[i] = pesoRestante[i + 1] + pesos[i];
+            melhorPontuacaoRestante[i] = Math.max(melhorPontuacaoRestante[i + 1], pontuacoes[i]);
+            double idaEVolta = 2 * matriz.distancia(MatrizDistancias.BASE, indices[i]);
+            double termoDistancia = idaEVolta > 0 ? Math.max(1, 100.0 / idaEVolta) : 0;
+            melhorDistanciaRestante[i] = Math.max(melhorDistanciaRestante[i + 1], termoDistancia);
+        }
+    }
+
+    /**
+     * Busca o melhor pacote partindo da solução inicial (ignorada se inviável)
+     */
+    List<Pedido> selecionar(List<Pedido> solucaoInicial) {
+        melhorEficiencia = 0;
+        if (solucaoInicial != null && !solucaoInicial.isEmpty()) {
+            boolean[] inicial = new boolean[candidatos.size()];
+            List<Pedido> normalizada = new ArrayList<>();
+            for (int i = 0; i < candidatos.size(); i++) {
+                if (solucaoInicial.contains(candidatos.get(i))) {
+                    inicial[i] = true;
+                    normalizada.add(candidatos.get(i));
+                }
+            }
+            double peso = normalizada.stream().mapToDouble(Pedido::getPeso).sum();
+            double distancia = distanciaFechada(normalizada);
+            if (normalizada.size() == solucaoInicial.size() && viavel(peso, distancia)) {
+                melhorEscolha = inicial;
+                melhorEficiencia = eficiencia(peso, distancia, normalizada.stream()
+                    .mapToDouble(p -> OtimizadorEntregas.pontuacaoPrioridade(p.getPrioridade())).sum(), normalizada.size());
+            }
+        }
+
+        buscar(0, MatrizDistancias.BASE, 0, 0, 0, 0);
+
+        List<Pedido> pacote = new ArrayList<>();
+        for (int i = 0; i < candidatos.size(); i++) {
+            if (melhorEscolha[i]) pacote.add(candidatos.get(i));
+        }
+        return pacote;
+    }
+
+    /**
+     * @param distanciaAberta distância da base até o último pedido incluído
+     */
+    private void buscar(int i, int ultimo, double peso, double distanciaAberta, double somaPontuacao, int quantidade) {
+        if (++nosVisitados >= limiteNos || i == candidatos.size()) {
+            return;
+        }
+        if (limiteSuperior(i, peso, distanciaAberta + matriz.distancia(ultimo, MatrizDistancias.BASE),
+                           somaPontuacao, quantidade) <= melhorEficiencia) {
+            return;
+        }
+
+        // Incluir o pedido i (ramo mais promissor primeiro)
+        double novoPeso = peso + pesos[i];
+        double novaDistanciaAberta = distanciaAberta + matriz.distancia(ultimo, indices[i]);
+        double novaDistancia = novaDistanciaAberta + matriz.distancia(indices[i], MatrizDistancias.BASE);
+        if (novoPeso <= drone.getCapacidadeMaxima() && viavel(novoPeso, novaDistancia)) {
+            escolhidos[i] = true;
+            double eficiencia = eficiencia(novoPeso, novaDistancia, somaPontuacao + pontuacoes[i], quantidade + 1);
+            if (eficiencia > melhorEficiencia) {
+                melhorEficiencia = eficiencia;
+                melhorEscolha = escolhidos.clone();
+            }
+            buscar(i + 1, indices[i], novoPeso, novaDistanciaAberta, somaPontuacao + pontuacoes[i], quantidade + 1);
+            escolhidos[i] = false;
+        }
+
+        // Excluir o pedido i
+        buscar(i + 1, ultimo, peso, distanciaAberta, somaPontuacao, quantidade);
+    }
+
+    /**
+     * Limite superior da eficiência de qualquer pacote que estenda o atual com pedidos de i em diante:
+     * a utilização cresce no máximo com o peso restante, a distância nunca diminui
+     * (desigualdade triangular; sem pedidos, não é menor que a ida e volta de algum pedido)
+     * e a média de prioridade não supera a maior pontuação restante
+     */
+    private double limiteSuperior(int i, double peso, double distancia, double somaPontuacao, int quantidade) {
+        double utilizacao = Math.min(1.0, (peso + pesoRestante[i]) / drone.getCapacidadeMaxima());
+        double eficienciaDistancia = quantidade > 0 ? Math.max(1, 100.0 / distancia) : melhorDistanciaRestante[i];
+        double prioridade = Math.max(quantidade > 0 ? somaPontuacao / quantidade : 0, melhorPontuacaoRestante[i]);
+        return OtimizadorEntregas.eficiencia(utilizacao, eficienciaDistancia, prioridade);
+    }
+
+    private double eficiencia(double peso, double distancia, double somaPontuacao, int quantidade) {
+        double eficienciaDistancia = distancia > 0 ? Math.max(1, 100.0 / distancia) : 0;
+        return OtimizadorEntregas.eficiencia(peso / drone.getCapacidadeMaxima(), eficienciaDistancia, somaPontuacao / quantidade);
+    }
+
+    private boolean viavel(double peso, double distancia) {
+        return peso <= drone.getCapacidadeMaxima()
+            && simuladorBateria.bateriaSeguraParaMissao(drone.getBateriaAtual(), distancia, peso);
+    }
+
+    private double distanciaFechada(List<Pedido> pedidos) {
+        double distancia = 0;
+        int atual = MatrizDistancias.BASE;
+        for (Pedido pedido : pedidos) {
+            int proximo = matriz.indice(pedido);
+            distancia += matriz.distancia(atual, proximo);
+            atual = proximo;
+        }
+        return distancia + matriz.distancia(atual, MatrizDistancias.BASE);
+    }
+}
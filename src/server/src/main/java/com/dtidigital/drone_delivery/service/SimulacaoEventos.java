@@ -0,0 +1,238 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import com.dtidigital.drone_delivery.enums.ModoSimulacao;
+import com.dtidigital.drone_delivery.enums.TipoEvento;
+
+/**
+ * Conduz o {@link MotorEventos} sobre a thread escritora do {@link ProcessadorComandos}.
+ * No modo TEMPO_REAL uma thread condutora dorme até o próximo evento vencer; no modo
+ * VELOCIDADE_MAXIMA os eventos são processados sem espera. Os eventos sempre executam
+ * na thread escritora, em lotes limitados para não atrasar os demais comandos: pela
+ * thread condutora ou ao final de cada lote ({@link #processarVencidos()}), nunca no
+ * meio de um comando que apenas lê o relógio.
+ * O relógio virtual nunca volta: ao sair da velocidade máxima ele segue do ponto
+ * alcançado, deslocado em relação ao relógio de parede, que é injetável para tornar
+ * testes e execuções em velocidade máxima determinísticos.
+ * Os contadores do motor são publicados ao final de cada lote, de modo que
+ * {@link #getStatus()} nunca espera pela thread escritora.
+ */
+public class SimulacaoEventos {
+
+    private static final int EVENTOS_POR_COMANDO = 10_000;
+
+    private final ProcessadorComandos processador;
+    private final MotorEventos motor; // Somente thread escritora
+    private final LongSupplier relogio; // Relógio de parede (ms)
+    private volatile Thread condutor;
+
+    private volatile ModoSimulacao modo = ModoSimulacao.TEMPO_REAL;
+    private volatile long deslocamento = 0; // Relógio virtual - relógio de parede (ms)
+    private volatile long proximoEvento = Long.MAX_VALUE; // Publicado pela thread escritora
+    private volatile boolean ativo = true;
+    private volatile Contadores contadores; // Publicados pela thread escritora
+
+    public SimulacaoEventos(ProcessadorComandos processador) {
+        this(processador, System::currentTimeMillis);
+    }
+
+    public SimulacaoEventos(ProcessadorComandos processador, LongSupplier relogio) {
+        this.processador = processador;
+        this.relogio = relogio;
+        this.motor = new MotorEventos(relogio.getAsLong());
+        this.contadores = new Contadores(motor);
+    }
+
+    /**
+     * Inicia a thread condutora do relógio
+     */
+    public synchronized void iniciar() {
+        if (condutor == null && ativo) {
+            condutor = Thread.ofPlatform().daemon().name("motor-eventos").start(this::conduzir);
+        }
+    }
+
+    /**
+     * Instante atual da simulação, sem processar eventos (thread escritora). Dentro de um
+     * evento é o instante do evento; fora, em tempo real, acompanha o relógio de parede
+     * mesmo com eventos vencidos ainda pendentes.
+     */
+    public long agora() {
+        long instante = motor.agora();
+        return modo == ModoSimulacao.TEMPO_REAL && !motor.isProcessando() ? Math.max(instante, instanteReal()) : instante;
+    }
+
+    /**
+     * Em tempo real, processa (em lote limitado) os eventos já vencidos; chamado nas
+     * fronteiras de lote da thread escritora
+     */
+    void processarVencidos() {
+        if (modo == ModoSimulacao.TEMPO_REAL) {
+            motor.processarAte(instanteReal(), EVENTOS_POR_COMANDO);
+        }
+    }
+
+    /**
+     * Agenda um evento para daqui a {@code atraso} ms do relógio da simulação (thread escritora)
+     */
+    public void agendar(long atraso, TipoEvento tipo, Runnable acao) {
+        motor.agendar(agora() + Math.max(0, atraso), tipo, acao);
+    }
+
+    /**
+     * Agenda um evento periódico enquanto a condição for verdadeira (thread escritora)
+     */
+    public void agendarPeriodico(long atrasoInicial, long periodo, TipoEvento tipo,
+                                 BooleanSupplier ativo, Runnable acao) {
+        motor.agendarPeriodicoEm(agora() + Math.max(0, atrasoInicial), periodo, tipo, ativo, acao);
+    }
+
+    /**
+     * Publica o próximo instante para a thread condutora e os contadores para leitura
+     * (executado ao final de cada lote)
+     */
+    void sinalizar() {
+        long diferenca = motor.agora() - relogio.getAsLong();
+        if (diferenca > deslocamento) {
+            deslocamento = diferenca;
+        }
+        if (contadores.desatualizados(motor)) {
+            contadores = new Contadores(motor);
+        }
+        long proximo = motor.proximoInstante();
+        if (proximo != proximoEvento) {
+            proximoEvento = proximo;
+            acordarCondutor();
+        }
+    }
+
+    public ModoSimulacao getModo() {
+        return modo;
+    }
+
+    public void setModo(ModoSimulacao modo) {
+        this.modo = modo;
+        acordarCondutor();
+    }
+
+    /**
+     * Avança o relógio virtual processando todos os eventos do intervalo o mais rápido
+     * possível, em lotes intercalados com os demais comandos
+     */
+    public Map<String, Object> avancar(long duracaoMs) {
+        long inicioReal = System.nanoTime();
+        long[] inicio = processador.executar(() -> new long[] { agora() + Math.max(0, duracaoMs), motor.getEventosProcessados() });
+        long alvo = inicio[0];
+
+        long eventos = 0;
+        boolean concluido = false;
+        while (!concluido) {
+            int[] passo = processador.executar(() -> new int[] {
+                motor.processarAte(alvo, EVENTOS_POR_COMANDO),
+                motor.proximoInstante() > alvo ? 1 : 0
+            });
+            eventos += passo[0];
+            concluido = passo[1] == 1;
+        }
+
+        long duracaoRealNanos = System.nanoTime() - inicioReal;
+        Map<String, Object> resultado = new HashMap<>();
+        resultado.put("tempoSimuladoMs", duracaoMs);
+        resultado.put("eventosProcessados", eventos);
+        resultado.put("duracaoRealMs", duracaoRealNanos / 1_000_000);
+        resultado.put("eventosPorSegundo", duracaoRealNanos > 0 ? Math.round(eventos * 1e9 / duracaoRealNanos) : 0);
+        resultado.put("instanteSimulado", alvo);
+        return resultado;
+    }
+
+    /**
+     * Situação do relógio e dos eventos ao final do último lote da thread escritora
+     */
+    public Map<String, Object> getStatus() {
+        Contadores atual = contadores;
+        ModoSimulacao modoAtual = modo;
+        Map<String, Object> status = new HashMap<>();
+        status.put("modo", modoAtual.toString());
+        status.put("instanteSimulado", modoAtual == ModoSimulacao.TEMPO_REAL ? Math.max(atual.instante, instanteReal()) : atual.instante);
+        status.put("adiantamentoMs", deslocamento);
+        status.put("eventosPendentes", atual.pendentes);
+        status.put("eventosProcessados", atual.processados);
+        status.put("eventosPorTipo", new HashMap<>(atual.porTipo));
+        return status;
+    }
+
+    public void encerrar() {
+        ativo = false;
+        acordarCondutor();
+    }
+
+    private void acordarCondutor() {
+        Thread thread = condutor;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private long instanteReal() {
+        return relogio.getAsLong() + deslocamento;
+    }
+
+    private void conduzir() {
+        while (ativo) {
+            long proximo = proximoEvento;
+            if (proximo == Long.MAX_VALUE) {
+                LockSupport.park(this); // Sem eventos: aguarda um agendamento
+                continue;
+            }
+            try {
+                if (modo == ModoSimulacao.VELOCIDADE_MAXIMA) {
+                    // O próximo instante é publicado no próprio comando: com o heap vazio o condutor
+                    // dorme no início do laço até sinalizar() anunciar um novo evento
+                    processador.executarAcao(() -> {
+                        motor.processarProximos(EVENTOS_POR_COMANDO);
+                        proximoEvento = motor.proximoInstante();
+                    });
+                    continue;
+                }
+                long espera = proximo - instanteReal();
+                if (espera > 0) {
+                    LockSupport.parkNanos(this, espera * 1_000_000L);
+                    continue;
+                }
+                processador.executarAcao(() -> motor.processarAte(instanteReal(), EVENTOS_POR_COMANDO));
+            } catch (IllegalStateException e) {
+                return; // Processador encerrado
+            }
+        }
+    }
+
+    /**
+     * Cópia imutável dos contadores do motor em uma fronteira de lote
+     */
+    private static final class Contadores {
+        private final long instante;
+        private final int pendentes;
+        private final long processados;
+        private final Map<String, Long> porTipo;
+
+        Contadores(MotorEventos motor) {
+            this.instante = motor.agora();
+            this.pendentes = motor.tamanho();
+            this.processados = motor.getEventosProcessados();
+            Map<String, Long> contagem = new HashMap<>();
+            for (TipoEvento tipo : TipoEvento.values()) {
+                contagem.put(tipo.toString(), motor.getEventosProcessados(tipo));
+            }
+            this.porTipo = contagem;
+        }
+
+        boolean desatualizados(MotorEventos motor) {
+            return instante != motor.agora() || pendentes != motor.tamanho() || processados != motor.getEventosProcessados();
+        }
+    }
+}
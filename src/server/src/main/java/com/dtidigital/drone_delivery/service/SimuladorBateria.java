@@ -48,12 +48,19 @@ public class SimuladorBateria {
      * Verifica se a bateria é suficiente para uma missão
      */
     public boolean bateriaSeguraParaMissao(double bateriaAtual, double distanciaTotal, double peso) {
-        double consumoEstimado = calcularConsumoReal(distanciaTotal, peso, true); // Considera condições adversas
+        double consumoEstimado = estimarConsumoMissao(distanciaTotal, peso);
         double margem = bateriaAtual * 0.1; // 10% de margem de segurança
         
         return (bateriaAtual - consumoEstimado) >= margem;
     }
     
+    /**
+     * Consumo estimado de uma missão no planejamento, o mesmo usado na verificação de segurança
+     */
+    public double estimarConsumoMissao(double distanciaTotal, double peso) {
+        return calcularConsumoReal(distanciaTotal, peso, true); // Considera condições adversas
+    }
+    
     /**
      * Calcula autonomia restante em quilômetros
      */
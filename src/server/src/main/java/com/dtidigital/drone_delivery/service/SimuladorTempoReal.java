@@ -1,9 +1,6 @@
 package com.dtidigital.drone_delivery.service;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Component;
@@ -11,15 +8,24 @@ import org.springframework.stereotype.Component;
 import com.dtidigital.drone_delivery.enums.EstadoDrone;
 import com.dtidigital.drone_delivery.model.Drone;
 
+/**
+ * Simulação automática da operação. As tarefas recorrentes são eventos periódicos
+ * no relógio virtual do {@link DroneService}, então acompanham o modo da simulação
+ * (tempo real ou velocidade máxima). Cada início cria uma nova geração de eventos;
+ * os de gerações anteriores deixam de se reagendar.
+ */
 @Component
 public class SimuladorTempoReal {
     
-    private ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private static final long PERIODO_ENTREGAS_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final long PERIODO_BATERIA_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final long ATRASO_EVENTOS_MS = TimeUnit.SECONDS.toMillis(60);
+    private static final long PERIODO_EVENTOS_MS = TimeUnit.MINUTES.toMillis(2);
+    
     private final DroneService droneService;
-    private boolean simulacaoAtiva = false;
-    private ScheduledFuture<?> tarefaEntregas;
-    private ScheduledFuture<?> tarefaBateria;
-    private ScheduledFuture<?> tarefaEventos;
+    private volatile boolean simulacaoAtiva = false;
+    private volatile long geracaoSimulacao = 0;
+    private volatile long geracaoEventos = 0;
     
     public SimuladorTempoReal(DroneService droneService) {
         this.droneService = droneService;
@@ -28,95 +34,78 @@ public class SimuladorTempoReal {
     /**
      * Inicia simulação automática de entregas
      */
-    public void iniciarSimulacaoAutomatica() {
+    public synchronized void iniciarSimulacaoAutomatica() {
         if (!simulacaoAtiva) {
             simulacaoAtiva = true;
-            
-            // Recriar scheduler se foi fechado
-            if (scheduler.isShutdown()) {
-                scheduler = Executors.newScheduledThreadPool(2);
-            }
+            long geracao = ++geracaoSimulacao;
+            droneService.iniciarPlanejamentoSegundoPlano(); // Melhora o plano entre os ciclos
             
             // Simular entregas a cada 10 segundos
-            tarefaEntregas = scheduler.scheduleAtFixedRate(() -> {
-                try {
-                    if (simulacaoAtiva && !droneService.getPedidosNaFila().isEmpty()) {
-                        droneService.simularEntrega();
+            droneService.agendarPeriodico(PERIODO_ENTREGAS_MS, PERIODO_ENTREGAS_MS,
+                () -> simulacaoAtiva && geracaoSimulacao == geracao, () -> {
+                    if (!droneService.getPedidosNaFila().isEmpty()) {
+                        droneService.despacharEntregas(); // Missões seguem como eventos
                     }
-                } catch (Exception e) {
-                    System.err.println("Erro na simulação automática: " + e.getMessage());
-                }
-            }, 10, 10, TimeUnit.SECONDS);
+                });
             
             // Simular degradação de bateria a cada 30 segundos
-            tarefaBateria = scheduler.scheduleAtFixedRate(() -> {
-                try {
-                    if (simulacaoAtiva) {
-                        simularDegradacaoBateria();
-                    }
-                } catch (Exception e) {
-                    System.err.println("Erro na degradação de bateria: " + e.getMessage());
-                }
-            }, 30, 30, TimeUnit.SECONDS);
+            droneService.agendarPeriodico(PERIODO_BATERIA_MS, PERIODO_BATERIA_MS,
+                () -> simulacaoAtiva && geracaoSimulacao == geracao, this::simularDegradacaoBateria);
         }
     }
     
     /**
-     * Para a simulação automática
+     * Para a simulação automática (os eventos periódicos deixam de se reagendar)
      */
-    public void pararSimulacao() {
+    public synchronized void pararSimulacao() {
         simulacaoAtiva = false;
-        
-        // Cancelar tarefas ativas sem fechar o scheduler
-        if (tarefaEntregas != null && !tarefaEntregas.isCancelled()) {
-            tarefaEntregas.cancel(false);
-        }
-        if (tarefaBateria != null && !tarefaBateria.isCancelled()) {
-            tarefaBateria.cancel(false);
-        }
-        if (tarefaEventos != null && !tarefaEventos.isCancelled()) {
-            tarefaEventos.cancel(false);
-        }
+        geracaoEventos++;
+        droneService.pararPlanejamentoSegundoPlano();
     }
     
     /**
      * Simula degradação natural da bateria dos drones
      * Apenas afeta drones que estão em operação há algum tempo
+     * (executado na thread escritora do DroneService)
      */
     private void simularDegradacaoBateria() {
-        for (Drone drone : droneService.getDrones()) {
-            // Só degradar bateria se o drone não está com bateria cheia (recém-criado)
-            if (drone.getBateriaAtual() < drone.getAutonomiaMaxima()) {
+        droneService.executarAcao(() -> {
+            for (Drone drone : droneService.getDronesVivos()) {
+                // Só degradar bateria se o drone não está com bateria cheia (recém-criado)
+                if (drone.getBateriaAtual() < drone.getAutonomiaMaxima()) {
                 
-                // Drones em voo consomem mais bateria
-                if (drone.getEstado() == EstadoDrone.EM_VOO || 
-                    drone.getEstado() == EstadoDrone.ENTREGANDO ||
-                    drone.getEstado() == EstadoDrone.RETORNANDO) {
+                    // Drones em voo consomem mais bateria
+                    if (drone.getEstado() == EstadoDrone.EM_VOO || 
+                        drone.getEstado() == EstadoDrone.ENTREGANDO ||
+                        drone.getEstado() == EstadoDrone.RETORNANDO) {
                     
-                    double consumoAdicional = 0.5; // 0.5 unidades por ciclo
-                    if (drone.getBateriaAtual() > consumoAdicional) {
-                        drone.consumirBateria(consumoAdicional);
+                        double consumoAdicional = 0.5; // 0.5 unidades por ciclo
+                        if (drone.getBateriaAtual() > consumoAdicional) {
+                            drone.consumirBateria(consumoAdicional);
                         
-                        // Se bateria crítica, forçar retorno
-                        if (drone.getBateriaAtual() < 10) {
-                            drone.setEstado(EstadoDrone.RETORNANDO);
-                            drone.setPosicao(0, 0);
-                            drone.limparPedidos();
-                            drone.recarregar();
-                            drone.setEstado(EstadoDrone.IDLE);
+                            // Se bateria crítica, forçar retorno
+                            if (drone.getBateriaAtual() < 10) {
+                                droneService.interromperMissao(drone);
+                                drone.setEstado(EstadoDrone.RETORNANDO);
+                                drone.setPosicao(0, 0);
+                                drone.limparPedidos();
+                                drone.recarregar();
+                                drone.setEstado(EstadoDrone.IDLE);
+                                droneService.marcarDroneLiberado(drone);
+                            }
                         }
                     }
-                }
                 
-                // Drones ociosos com bateria parcial consomem um pouco (sistemas de bordo)
-                else if (drone.getEstado() == EstadoDrone.IDLE && drone.getBateriaAtual() < drone.getAutonomiaMaxima() * 0.95) {
-                    double consumoOcioso = 0.1; // Consumo mínimo
-                    if (drone.getBateriaAtual() > consumoOcioso) {
-                        drone.consumirBateria(consumoOcioso);
+                    // Drones ociosos com bateria parcial consomem um pouco (sistemas de bordo)
+                    else if (drone.getEstado() == EstadoDrone.IDLE && drone.getBateriaAtual() < drone.getAutonomiaMaxima() * 0.95) {
+                        double consumoOcioso = 0.1; // Consumo mínimo
+                        if (drone.getBateriaAtual() > consumoOcioso) {
+                            drone.consumirBateria(consumoOcioso);
+                        }
                     }
                 }
             }
-        }
+        });
     }
     
     /**
@@ -128,15 +117,13 @@ public class SimuladorTempoReal {
             return; // Não fazer nada se não há drones
         }
         
-        // Cancelar eventos anteriores se existirem
-        if (tarefaEventos != null && !tarefaEventos.isCancelled()) {
-            tarefaEventos.cancel(false);
-        }
+        // Nova geração substitui os eventos aleatórios anteriores
+        long geracao = ++geracaoEventos;
         
-        tarefaEventos = scheduler.scheduleAtFixedRate(() -> {
-            try {
+        droneService.agendarPeriodico(ATRASO_EVENTOS_MS, PERIODO_EVENTOS_MS,
+            () -> geracaoEventos == geracao, () -> {
                 // Verificar se simulação ainda está ativa e há drones
-                if (!simulacaoAtiva || droneService.getDrones().isEmpty()) {
+                if (!simulacaoAtiva || droneService.getDronesVivos().isEmpty()) {
                     return;
                 }
                 
@@ -158,66 +145,71 @@ public class SimuladorTempoReal {
                     // Aqui poderia gerar um pedido de alta prioridade automaticamente
                     System.out.println("[EVENTO] 🚨 Demanda alta detectada na região central.");
                 }
-                
-            } catch (Exception e) {
-                System.err.println("Erro em eventos aleatórios: " + e.getMessage());
-            }
-        }, 60, 120, TimeUnit.SECONDS); // A cada 2 minutos
+            }); // A cada 2 minutos
     }
     
     /**
      * Força retorno de emergência de todos os drones
      */
     private void forcarRetornoEmergencia() {
-        for (Drone drone : droneService.getDrones()) {
-            if (drone.getEstado() != EstadoDrone.IDLE) {
-                drone.setEstado(EstadoDrone.RETORNANDO);
-                drone.setPosicao(0, 0);
-                drone.limparPedidos();
-                drone.setEstado(EstadoDrone.IDLE);
+        droneService.executarAcao(() -> {
+            for (Drone drone : droneService.getDronesVivos()) {
+                if (drone.getEstado() != EstadoDrone.IDLE) {
+                    droneService.interromperMissao(drone);
+                    drone.setEstado(EstadoDrone.RETORNANDO);
+                    drone.setPosicao(0, 0);
+                    drone.limparPedidos();
+                    drone.setEstado(EstadoDrone.IDLE);
+                    droneService.marcarDroneLiberado(drone);
+                }
             }
-        }
+        });
     }
     
     /**
      * Simula falha aleatória de um drone
      */
     private void simularFalhaDrone() {
-        var drones = droneService.getDrones();
-        if (drones.isEmpty()) {
-            return; // Não fazer nada se não há drones
-        }
+        droneService.executarAcao(() -> {
+            var drones = droneService.getDronesVivos();
+            if (drones.isEmpty()) {
+                return; // Não fazer nada se não há drones
+            }
         
-        Drone droneAleatorio = drones.get((int) (Math.random() * drones.size()));
+            Drone droneAleatorio = drones.get((int) (Math.random() * drones.size()));
         
-        if (droneAleatorio.getEstado() != EstadoDrone.IDLE) {
-            System.out.println("[EVENTO] ⚠️ Drone " + droneAleatorio.getId() + 
-                " apresentou falha técnica. Retornando para manutenção.");
+            if (droneAleatorio.getEstado() != EstadoDrone.IDLE) {
+                System.out.println("[EVENTO] ⚠️ Drone " + droneAleatorio.getId() + 
+                    " apresentou falha técnica. Retornando para manutenção.");
                 
-            droneAleatorio.setEstado(EstadoDrone.RETORNANDO);
-            droneAleatorio.setPosicao(0, 0);
-            droneAleatorio.limparPedidos();
+                droneService.interromperMissao(droneAleatorio);
+                droneAleatorio.setEstado(EstadoDrone.RETORNANDO);
+                droneAleatorio.setPosicao(0, 0);
+                droneAleatorio.limparPedidos();
             
-            // Reduzir bateria para simular gasto de emergência
-            double bateriaAntesRedução = droneAleatorio.getBateriaAtual();
-            if (bateriaAntesRedução > 20) {
-                droneAleatorio.consumirBateria(20);
-            } else {
-                // Se bateria muito baixa, consumir apenas o que tem
-                droneAleatorio.consumirBateria(bateriaAntesRedução * 0.5);
-            }
+                // Reduzir bateria para simular gasto de emergência
+                double bateriaAntesRedução = droneAleatorio.getBateriaAtual();
+                if (bateriaAntesRedução > 20) {
+                    droneAleatorio.consumirBateria(20);
+                } else {
+                    // Se bateria muito baixa, consumir apenas o que tem
+                    droneAleatorio.consumirBateria(bateriaAntesRedução * 0.5);
+                }
             
-            droneAleatorio.setEstado(EstadoDrone.IDLE);
-        }
+                droneAleatorio.setEstado(EstadoDrone.IDLE);
+                droneService.marcarDroneLiberado(droneAleatorio);
+            }
+        });
     }
     
     /**
      * Gera relatório de status em tempo real
      */
     public String gerarRelatorioTempoReal() {
-        var drones = droneService.getDrones();
-        var pedidos = droneService.getPedidosNaFila();
-        var entregas = droneService.getEntregasRealizadas();
+        FotografiaFrota fotografia = droneService.getFotografia();
+        var drones = fotografia.getDrones();
+        var pedidos = fotografia.getFila();
+        var entregas = fotografia.getEntregas();
         
         StringBuilder relatorio = new StringBuilder();
         relatorio.append("=== RELATÓRIO TEMPO REAL ===\n");
@@ -58,7 +58,8 @@ class IntegrationTest {
 
         // 4. Simular entrega
         mockMvc.perform(post("/api/drones/simular"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.despachoId").exists());
 
         // 5. Verificar entregas realizadas
         mockMvc.perform(get("/api/pedidos/entregas"))
@@ -138,4 +139,43 @@ class IntegrationTest {
         mockMvc.perform(get("/api/pedidos/status/pedido-inexistente"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("Deve processar lote de pedidos em JSON com resultado por item")
+    void deveProcessarLoteDePedidosJson() throws Exception {
+        String loteJson = """
+            [
+                {"cliente": "Lote A", "x": 3, "y": 4, "peso": 1.0, "prioridade": "ALTA"},
+                {"cliente": "Lote B", "x": 6, "y": 8, "peso": 0.05, "prioridade": "MEDIA"},
+                {"cliente": "Lote C", "x": 1, "y": 2, "peso": 2.0, "prioridade": "URGENTE"}
+            ]
+            """;
+
+        mockMvc.perform(post("/api/pedidos/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(loteJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.aceitos").value(1))
+                .andExpect(jsonPath("$.resultados[0].aceito").value(true))
+                .andExpect(jsonPath("$.resultados[0].pedidoId").isNotEmpty())
+                .andExpect(jsonPath("$.resultados[1].aceito").value(false))
+                .andExpect(jsonPath("$.resultados[2].aceito").value(false));
+    }
+
+    @Test
+    @DisplayName("Deve processar lote de pedidos em NDJSON")
+    void deveProcessarLoteDePedidosNdjson() throws Exception {
+        String loteNdjson = """
+            {"cliente": "Linha 1", "x": 2, "y": 2, "peso": 1.0, "prioridade": "BAIXA"}
+            {"cliente": "Linha 2", "x": 4, "y": 4, "peso": 1.5, "prioridade": "MEDIA"}
+            """;
+
+        mockMvc.perform(post("/api/pedidos/lote")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(loteNdjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.aceitos").value(2));
+    }
 }
@@ -0,0 +1,27 @@
+package com.dtidigital.drone_delivery.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+class ZonaExclusaoTest {
+
+    @Test
+    @DisplayName("Deve detectar trechos diagonais que cruzam ou tocam a zona")
+    void deveDetectarTrechosDiagonais() {
+        // Given
+        ZonaExclusao zona = new ZonaExclusao(5, 5, 15, 15, "Hospital", "Zona hospitalar");
+
+        // Then - diagonal atravessando, diagonal tocando o canto, trechos que passam ao lado
+        assertTrue(zona.interceptaRota(0, 0, 20, 20));
+        assertTrue(zona.interceptaRota(0, 10, 10, 0));
+        assertTrue(zona.interceptaRota(20, 0, 0, 20));
+        assertFalse(zona.interceptaRota(0, 9, 9, 0));
+        assertFalse(zona.interceptaRota(0, 4, 30, 4));
+        assertFalse(zona.interceptaRota(16, 0, 16, 30));
+        assertTrue(zona.interceptaRota(15, 0, 15, 30));
+        assertTrue(zona.interceptaRota(10, 10, 10, 10));
+        assertFalse(zona.interceptaRota(0, 0, 4, 4));
+    }
+}
@@ -0,0 +1,49 @@
+package com.dtidigital.drone_delivery.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+class AtribuicaoHungaraTest {
+
+    @Test
+    @DisplayName("Deve encontrar a atribuição de custo mínimo em matrizes retangulares")
+    void deveEncontrarAtribuicaoOtima() {
+        Random random = new Random(11);
+        for (int caso = 0; caso < 50; caso++) {
+            int linhas = 1 + random.nextInt(5);
+            int colunas = linhas + random.nextInt(3);
+            double[][] custo = new double[linhas][colunas];
+            for (double[] linha : custo) {
+                for (int j = 0; j < colunas; j++) {
+                    linha[j] = random.nextInt(100);
+                }
+            }
+
+            int[] atribuicao = AtribuicaoHungara.resolver(custo);
+
+            boolean[] usadas = new boolean[colunas];
+            double total = 0;
+            for (int i = 0; i < linhas; i++) {
+                assertFalse(usadas[atribuicao[i]], "Coluna atribuída duas vezes");
+                usadas[atribuicao[i]] = true;
+                total += custo[i][atribuicao[i]];
+            }
+            assertEquals(forcaBruta(custo, 0, new boolean[colunas]), total, 1e-9);
+        }
+    }
+
+    private static double forcaBruta(double[][] custo, int linha, boolean[] usadas) {
+        if (linha == custo.length) return 0;
+        double melhor = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < usadas.length; j++) {
+            if (usadas[j]) continue;
+            usadas[j] = true;
+            melhor = Math.min(melhor, custo[linha][j] + forcaBruta(custo, linha + 1, usadas));
+            usadas[j] = false;
+        }
+        return melhor;
+    }
+}
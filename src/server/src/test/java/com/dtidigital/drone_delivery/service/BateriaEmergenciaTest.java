@@ -82,9 +82,11 @@ public class BateriaEmergenciaTest {
         droneService.cadastrarDrone("DRONE-3", 10.0, 100.0);
         
         // Simular diferentes níveis de bateria
-        droneService.getDrones().get(0).consumirBateria(85.0); // 15% - bateria baixa
-        droneService.getDrones().get(1).consumirBateria(95.0); // 5% - bateria crítica
-        droneService.getDrones().get(2).iniciarRecarga(); // Em recarga
+        droneService.executarAcao(() -> {
+            droneService.getDronesVivos().get(0).consumirBateria(85.0); // 15% - bateria baixa
+            droneService.getDronesVivos().get(1).consumirBateria(95.0); // 5% - bateria crítica
+            droneService.getDronesVivos().get(2).iniciarRecarga(); // Em recarga
+        });
         
         // Verificar status
         Map<String, Object> status = droneService.getStatusBateria();
@@ -98,16 +100,19 @@ public class BateriaEmergenciaTest {
     void testForcarRetornoManual() {
         // Cadastrar drone
         droneService.cadastrarDrone("DRONE-MANUAL", 10.0, 100.0);
-        Drone drone = droneService.getDrones().get(0);
         
         // Simular drone em voo
-        drone.setEstado(EstadoDrone.EM_VOO);
-        drone.setPosicao(10, 10);
+        droneService.executarAcao(() -> {
+            Drone emVoo = droneService.getDronesVivos().get(0);
+            emVoo.setEstado(EstadoDrone.EM_VOO);
+            emVoo.setPosicao(10, 10);
+        });
         
         // Forçar retorno manual
         boolean sucesso = droneService.forcarRetornoManual("DRONE-MANUAL");
         
         assertTrue(sucesso, "Retorno manual deve ser bem sucedido");
+        Drone drone = droneService.buscarDrone("DRONE-MANUAL");
         assertEquals(EstadoDrone.CHARGING, drone.getEstado(), "Drone deve estar carregando após retorno forçado");
     }
 
@@ -121,11 +126,11 @@ public class BateriaEmergenciaTest {
         droneService.adicionarPedido(pedidoDistante);
         
         // Simular bateria baixa no drone
-        Drone drone = droneService.getDrones().get(0);
-        drone.consumirBateria(90.0); // Deixar com 10%
+        droneService.executarAcao(() -> droneService.getDronesVivos().get(0).consumirBateria(90.0)); // Deixar com 10%
         
         // Tentar simular entrega - drone não deve aceitar missão
         droneService.simularEntrega();
+        Drone drone = droneService.getDrones().get(0);
         
         // Verificar se drone está carregando (não aceitou a missão)
         assertTrue(drone.getEstado() == EstadoDrone.CHARGING || drone.getEstado() == EstadoDrone.IDLE, 
@@ -1,11 +1,14 @@
 package com.dtidigital.drone_delivery.service;
 
+import com.dtidigital.drone_delivery.enums.MotorRota;
 import com.dtidigital.drone_delivery.model.ZonaExclusao;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -71,6 +74,105 @@ class CalculadorRotaTest {
         assertTrue(distanciaAlternativa >= distanciaDireta);
     }
 
+    @Test
+    @DisplayName("Deve reutilizar a grade de ocupação até a versão das zonas mudar")
+    void deveReutilizarGradeAteVersaoMudar() {
+        // Given - desvio em torno de uma zona
+        List<ZonaExclusao> zonas = new ArrayList<>();
+        zonas.add(new ZonaExclusao(5, 5, 15, 15, "Hospital", "Zona hospitalar"));
+        List<CalculadorRota.Point> original = calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 1, 50);
+        CalculadorRota.Point desvio = original.get(1);
+
+        // When - nova zona sobre o ponto de desvio, ainda na mesma versão: a grade em cache é mantida
+        zonas.add(new ZonaExclusao(desvio.x, desvio.y, desvio.x, desvio.y, "Escola", "Zona escolar"));
+        assertEquals(original, calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 1, 50));
+
+        // Then - com a nova versão o ponto passa a ser proibido
+        List<CalculadorRota.Point> rota = calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 2, 50);
+        assertFalse(rota.contains(desvio));
+        assertEquals(rota, calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 50));
+    }
+
+    @Test
+    @DisplayName("Deve contornar várias zonas sem cruzar nenhuma, inclusive na diagonal")
+    void deveContornarVariasZonasSemCruzar() {
+        // Given - duas paredes alternadas entre a origem e o destino
+        List<ZonaExclusao> zonas = List.of(
+            new ZonaExclusao(10, 0, 12, 30, "Parede A", "Bloqueio"),
+            new ZonaExclusao(25, 10, 27, 50, "Parede B", "Bloqueio"));
+
+        for (MotorRota motor : MotorRota.values()) {
+            // When
+            calculadorRota.setMotor(motor);
+            List<CalculadorRota.Point> rota = calculadorRota.calcularRotaSegura(2, 5, 40, 45, zonas, 1, 60);
+
+            // Then - nenhum trecho toca as zonas e o desvio é quase o mais curto possível
+            assertEquals(new CalculadorRota.Point(2, 5), rota.get(0));
+            assertEquals(new CalculadorRota.Point(40, 45), rota.get(rota.size() - 1));
+            for (int i = 0; i + 1 < rota.size(); i++) {
+                CalculadorRota.Point a = rota.get(i);
+                CalculadorRota.Point b = rota.get(i + 1);
+                for (int passo = 0; passo <= 1000; passo++) {
+                    double x = a.x + (b.x - a.x) * passo / 1000.0;
+                    double y = a.y + (b.y - a.y) * passo / 1000.0;
+                    for (ZonaExclusao zona : zonas) {
+                        assertFalse(x >= zona.getX1() && x <= zona.getX2() && y >= zona.getY1() && y <= zona.getY2(),
+                            motor + ": trecho " + a + " -> " + b + " cruza " + zona.getNome());
+                    }
+                }
+            }
+            // Caminho mais curto passa rente aos topos das duas paredes: cerca de 68
+            assertTrue(calculadorRota.calcularDistanciaTotal(rota) < 72, motor + ": " + rota);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve desviar pelos cantos afastados da zona no grafo de visibilidade")
+    void deveDesviarPelosCantosDaZona() {
+        // Given
+        List<ZonaExclusao> zonas = List.of(new ZonaExclusao(5, 5, 15, 15, "Hospital", "Zona hospitalar"));
+
+        // When
+        List<CalculadorRota.Point> rota = calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 1, 50);
+
+        // Then - contorna um dos lados passando pelos dois cantos a uma unidade da zona
+        assertEquals(List.of(new CalculadorRota.Point(0, 10), new CalculadorRota.Point(4, 4),
+            new CalculadorRota.Point(16, 4), new CalculadorRota.Point(20, 10)), rota);
+        assertEquals(2 * Math.sqrt(52) + 12, calculadorRota.calcularDistanciaTotal(rota), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar rotas em cache e descartar só as próximas da zona alterada")
+    void deveInvalidarCacheSoPertoDaZonaAlterada() {
+        // Given - duas rotas em regiões distantes, cache com duas posições
+        calculadorRota.setCapacidadeCache(2);
+        List<ZonaExclusao> zonas = new ArrayList<>();
+        zonas.add(new ZonaExclusao(5, 5, 15, 15, "Hospital", "Zona hospitalar"));
+        List<CalculadorRota.Point> desvio = calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 1, 200);
+        List<CalculadorRota.Point> distante = calculadorRota.calcularRotaSegura(100, 100, 120, 120, zonas, 1, 200);
+        assertEquals(desvio, calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 1, 200));
+
+        // When - nova zona no caminho da rota distante
+        ZonaExclusao nova = new ZonaExclusao(108, 108, 112, 112, "Escola", "Zona escolar");
+        zonas.add(nova);
+        calculadorRota.invalidarRotas(1, 2, List.of(nova));
+
+        // Then - a rota do hospital continua em cache e a distante é recalculada com desvio
+        assertSame(calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 2, 200),
+            calculadorRota.calcularRotaSegura(0, 10, 20, 10, zonas, 2, 200));
+        assertNotEquals(distante, calculadorRota.calcularRotaSegura(100, 100, 120, 120, zonas, 2, 200));
+        assertTrue(calculadorRota.calcularRotaSegura(100, 100, 120, 120, zonas, 2, 200).size() > 2);
+
+        // Terceira rota despeja a menos usada
+        calculadorRota.calcularRotaSegura(50, 0, 50, 40, zonas, 2, 200);
+        Map<String, Object> estatisticas = calculadorRota.getEstatisticasCache();
+        assertEquals(2, estatisticas.get("rotas"));
+        assertEquals(1L, estatisticas.get("invalidadas"));
+        assertEquals(1L, estatisticas.get("despejos"));
+        assertEquals(4L, estatisticas.get("acertos"));
+        assertEquals(4L, estatisticas.get("falhas"));
+    }
+
     @Test
     @DisplayName("Deve calcular distância total corretamente")
     void deveCalcularDistanciaTotalCorretamente() {
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.DisplayName;
 
 import com.dtidigital.drone_delivery.enums.EstadoDrone;
 import com.dtidigital.drone_delivery.enums.Prioridade;
+import com.dtidigital.drone_delivery.enums.TipoPlanejamento;
 import com.dtidigital.drone_delivery.model.Drone;
 import com.dtidigital.drone_delivery.model.Pedido;
 import com.dtidigital.drone_delivery.model.Entrega;
@@ -226,6 +227,28 @@ class DroneServiceTest {
         assertTrue(statusEntregue.contains("Entregue"));
     }
 
+    @Test
+    @DisplayName("Deve acompanhar o ciclo de vida do pedido pelo índice")
+    void deveAcompanharCicloDeVidaDoPedido() {
+        // Given
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        Pedido entregue = new Pedido(5, 5, 3.0, Prioridade.ALTA);
+        Pedido removido = new Pedido(6, 6, 3.0, Prioridade.BAIXA);
+        droneService.adicionarPedido(entregue);
+        droneService.adicionarPedido(removido);
+
+        // When
+        assertTrue(droneService.removerPedido(removido.getId()));
+        droneService.simularEntrega();
+
+        // Then
+        assertEquals("Pedido não encontrado", droneService.getStatusPedido(removido.getId()));
+        assertFalse(droneService.removerPedido(removido.getId()));
+        assertTrue(droneService.getStatusPedido(entregue.getId()).startsWith("Entregue em"));
+        assertNull(droneService.buscarPedido(entregue.getId())); // Não está mais na fila
+        assertFalse(droneService.removerPedido(entregue.getId()));
+    }
+
     @Test
     @DisplayName("Deve adicionar zona de exclusão")
     void deveAdicionarZonaExclusao() {
@@ -235,4 +258,255 @@ class DroneServiceTest {
         // Then
         assertEquals(1, droneService.getZonasExclusao().size()); // 0 padrão + 1 nova
     }
+
+    @Test
+    @DisplayName("Deve recalcular a rota após editar zona sem alterar a zona já publicada")
+    void deveRecalcularRotaAposEditarZona() {
+        // Given
+        droneService.adicionarZonaExclusao(10, 10, 20, 20, "Teste", "Área de teste");
+        String zonaId = droneService.getZonasExclusao().get(0).getId();
+        assertEquals(true, droneService.calcularRotaComInfo(0, 15, 30, 15).get("interceptaZona"));
+        FotografiaFrota antes = droneService.getFotografia();
+
+        // When
+        droneService.editarZonaExclusao(zonaId, 50, 50, 60, 60, "Teste", "Área movida");
+
+        // Then
+        Map<String, Object> rota = droneService.calcularRotaComInfo(0, 15, 30, 15);
+        assertEquals(false, rota.get("interceptaZona"));
+        assertEquals(2, ((List<?>) rota.get("rotaSegura")).size());
+        assertEquals(10, antes.buscarZona(zonaId).getX1());
+        assertEquals(50, droneService.getFotografia().buscarZona(zonaId).getX1());
+        assertTrue(droneService.getFotografia().getVersaoZonas() > antes.getVersaoZonas());
+    }
+
+    @Test
+    @DisplayName("Deve publicar fotografias imutáveis e isoladas do estado vivo")
+    void devePublicarFotografiaImutavel() {
+        // Given
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        FotografiaFrota antes = droneService.getFotografia();
+
+        // When
+        droneService.adicionarPedido(new Pedido(5, 5, 3.0, Prioridade.ALTA));
+        droneService.executarAcao(() -> droneService.getDronesVivos().get(0).setBateriaAtual(40.0));
+        droneService.recarregarDrone("DRONE-001");
+
+        // Then
+        FotografiaFrota depois = droneService.getFotografia();
+        assertTrue(depois.getVersao() > antes.getVersao());
+        assertEquals(0, antes.getFila().size());
+        assertEquals(1, depois.getFila().size());
+        assertEquals(100.0, antes.buscarDrone("DRONE-001").getBateriaAtual());
+        assertNotSame(droneService.getDronesVivos().get(0), depois.buscarDrone("DRONE-001"));
+        assertThrows(UnsupportedOperationException.class, () -> depois.getDrones().clear());
+        assertThrows(UnsupportedOperationException.class, () -> droneService.getDrones().clear());
+    }
+
+    @Test
+    @DisplayName("Deve despachar missões sem bloquear e concluir em segundo plano")
+    void deveDespacharMissoesSemBloquear() {
+        // Given
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        Pedido pedido = new Pedido(5, 5, 3.0, Prioridade.ALTA);
+        droneService.adicionarPedido(pedido);
+
+        // When
+        Despacho despacho = droneService.despacharEntregas();
+
+        // Then - retorna antes do fim da missão (carregamento leva 100ms)
+        assertEquals(1, despacho.getTotalMissoes());
+        assertEquals("EM_ANDAMENTO", despacho.getStatus());
+        assertSame(despacho, droneService.buscarDespacho(despacho.getId()));
+        assertTrue(droneService.getStatusPedido(pedido.getId()).startsWith("Em entrega"));
+
+        despacho.aguardarConclusao();
+        assertEquals("CONCLUIDO", despacho.getStatus());
+        assertEquals(despacho.getEntregasRealizadas(), droneService.getEntregasRealizadas().size());
+        assertNotEquals(EstadoDrone.CARREGANDO, droneService.getDrones().get(0).getEstado());
+    }
+
+    @Test
+    @DisplayName("Deve despachar da thread escritora sem aguardar o cálculo das missões")
+    void deveDespacharDaThreadEscritoraSemAguardar() {
+        // Given
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        droneService.adicionarPedido(new Pedido(5, 5, 3.0, Prioridade.ALTA));
+        Despacho[] despacho = new Despacho[1];
+
+        // When - como o despacho periódico da simulação em tempo real
+        droneService.executarAcao(() -> despacho[0] = droneService.despacharEntregas());
+
+        // Then - a missão começa depois, por um comando enfileirado ao fim do cálculo
+        assertEquals(1, despacho[0].getTotalMissoes());
+        assertEquals("CONCLUIDO", despacho[0].aguardarConclusao().getStatus());
+        assertEquals(1, droneService.getEntregasRealizadas().size());
+    }
+
+    @Test
+    @DisplayName("Deve executar as missões dos drones em paralelo no mesmo despacho")
+    void deveExecutarMissoesEmParalelo() {
+        // Given - um pedido por drone (peso impede agrupar dois no mesmo drone)
+        for (int i = 1; i <= 3; i++) {
+            droneService.cadastrarDrone("DRONE-00" + i, 10.0, 100.0);
+            droneService.adicionarPedido(new Pedido(i * 3, i * 2, 8.0, Prioridade.MEDIA));
+        }
+
+        // When
+        Despacho despacho = droneService.despacharEntregas().aguardarConclusao();
+
+        // Then
+        assertEquals(3, despacho.getTotalMissoes());
+        assertEquals(3, despacho.getMissoesConcluidas());
+        assertEquals(3, droneService.getEntregasRealizadas().size());
+        assertTrue(despacho.getDuracaoMs() < despacho.getTempoMissoesMs(),
+            "Duração do ciclo deve ser menor que a soma das missões sequenciais");
+    }
+
+    @Test
+    @DisplayName("Deve concluir recarga ao avançar o relógio virtual da simulação")
+    void deveConcluirRecargaAoAvancarSimulacao() {
+        // Given - drone retorna com bateria baixa e entra em recarga
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        droneService.executarAcao(() -> {
+            droneService.getDronesVivos().get(0).setBateriaAtual(60.0);
+            droneService.getDronesVivos().get(0).setEstado(EstadoDrone.EM_VOO);
+        });
+        droneService.forcarRetornoManual("DRONE-001");
+        assertEquals(EstadoDrone.CHARGING, droneService.getDrones().get(0).getEstado());
+
+        // When - 2 horas simuladas processadas o mais rápido possível
+        Map<String, Object> resultado = droneService.getSimulacao().avancar(2 * 60 * 60_000L);
+
+        // Then
+        Drone drone = droneService.getDrones().get(0);
+        assertEquals(EstadoDrone.IDLE, drone.getEstado());
+        assertEquals(100.0, drone.getBateriaAtual());
+        assertTrue((Long) resultado.get("eventosProcessados") >= 1);
+    }
+
+    @Test
+    @DisplayName("Deve ignorar ciclo sem alterações e replanejar só o que mudou")
+    void deveReplanejarApenasAlteracoes() {
+        // Given - pedido pesado demais fica na fila após o primeiro ciclo
+        droneService.cadastrarDrone("DRONE-001", 5.0, 100.0);
+        droneService.adicionarPedido(new Pedido(5, 5, 8.0, Prioridade.ALTA));
+        assertEquals(TipoPlanejamento.COMPLETO, droneService.despacharEntregas().aguardarConclusao().getPlanejamento());
+
+        // When / Then - nada mudou: ciclo ignorado
+        Despacho semAlteracoes = droneService.despacharEntregas();
+        assertEquals(TipoPlanejamento.IGNORADO, semAlteracoes.getPlanejamento());
+        assertEquals(0, semAlteracoes.getTotalMissoes());
+
+        // When / Then - pedido novo: apenas ele é considerado para o drone ocioso
+        droneService.adicionarPedido(new Pedido(3, 3, 2.0, Prioridade.MEDIA));
+        Despacho incremental = droneService.despacharEntregas().aguardarConclusao();
+        assertEquals(TipoPlanejamento.INCREMENTAL, incremental.getPlanejamento());
+        assertEquals(1, incremental.getPedidosDespachados());
+        assertEquals(1, droneService.getPedidosNaFila().size());
+    }
+
+    @Test
+    @DisplayName("Deve adotar no despacho o plano melhorado em segundo plano")
+    void deveAdotarPlanoMelhoradoEmSegundoPlano() throws InterruptedException {
+        // Given
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        droneService.cadastrarDrone("DRONE-002", 10.0, 100.0);
+        for (int i = 0; i < 8; i++) {
+            droneService.adicionarPedido(new Pedido(i + 1, 10 - 2 * i, 1.0, Prioridade.MEDIA));
+        }
+
+        // When - o planejador trabalha sobre a fotografia enquanto não há despacho
+        droneService.iniciarPlanejamentoSegundoPlano();
+        try {
+            Thread.sleep(1_000);
+            Despacho despacho = droneService.despacharEntregas().aguardarConclusao();
+
+            // Then
+            assertEquals(8, despacho.getPedidosDespachados());
+            assertEquals("SEGUNDO_PLANO", droneService.getUltimoPlano().getMotivoParada());
+        } finally {
+            droneService.pararPlanejamentoSegundoPlano();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve planejar com prazo próprio fora da thread escritora e recusar prazo acima do máximo")
+    void devePlanejarComPrazoProprioForaDaEscritora() {
+        // Given
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        droneService.cadastrarDrone("DRONE-002", 10.0, 100.0);
+        for (int i = 0; i < 8; i++) {
+            droneService.adicionarPedido(new Pedido(i + 1, 10 - 2 * i, 1.0, Prioridade.MEDIA));
+        }
+
+        // When / Then - prazo acima do máximo configurado é recusado sem planejar
+        assertThrows(IllegalArgumentException.class,
+            () -> droneService.despacharEntregas(new OpcoesPlanejamento(3_600_000L, null)));
+        assertEquals(8, droneService.getPedidosNaFila().size());
+
+        // When / Then - sem alterações no meio, a escritora adota o plano feito sobre a fotografia
+        Despacho despacho = droneService.despacharEntregas(new OpcoesPlanejamento(120L, null)).aguardarConclusao();
+        assertEquals(8, despacho.getPedidosDespachados());
+        assertEquals(120L, droneService.getUltimoPlano().getPrazoMs());
+        assertFalse(despacho.isReplanejadoNaEscritora());
+    }
+
+    @Test
+    @DisplayName("Deve planejar com prazo próprio só os pedidos que a janela de consolidação libera")
+    void devePlanejarComPrazoProprioSobrePedidosLiberados() {
+        // Given - um pedido retido pela janela e dois de prioridade ALTA
+        droneService.setJanelaLoteMs(10 * 60_000L);
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        droneService.adicionarPedido(new Pedido(6, 6, 1.0, Prioridade.MEDIA));
+        droneService.adicionarPedido(new Pedido(-3, -4, 1.0, Prioridade.ALTA));
+        droneService.adicionarPedido(new Pedido(-5, -2, 1.0, Prioridade.ALTA));
+
+        // When
+        Despacho despacho = droneService.despacharEntregas(new OpcoesPlanejamento(120L, null)).aguardarConclusao();
+
+        // Then - o plano feito fora da escritora assina os mesmos pedidos e é adotado
+        assertEquals(2, despacho.getPedidosDespachados());
+        assertFalse(despacho.isReplanejadoNaEscritora());
+        assertEquals(120L, droneService.getUltimoPlano().getPrazoMs());
+        assertEquals(1, droneService.getPedidosNaFila().size());
+    }
+
+    @Test
+    @DisplayName("Deve reter pedidos na janela de consolidação, exceto os de prioridade ALTA")
+    void deveReterPedidosNaJanelaDeConsolidacao() {
+        // Given - janela de 10 minutos ou 3 pedidos na mesma área
+        droneService.setJanelaLoteMs(10 * 60_000L);
+        droneService.setPedidosPorAreaLote(3);
+        droneService.cadastrarDrone("DRONE-001", 10.0, 100.0);
+        droneService.cadastrarDrone("DRONE-002", 10.0, 100.0);
+        droneService.adicionarPedido(new Pedido(6, 6, 1.0, Prioridade.MEDIA));
+        droneService.adicionarPedido(new Pedido(-12, -12, 1.0, Prioridade.ALTA));
+
+        // When / Then - apenas o pedido ALTA sai de imediato
+        assertEquals(1, droneService.despacharEntregas().aguardarConclusao().getPedidosDespachados());
+
+        // When / Then - a área completa 3 pedidos e é liberada
+        droneService.adicionarPedido(new Pedido(7, 8, 1.0, Prioridade.BAIXA));
+        droneService.adicionarPedido(new Pedido(8, 7, 1.0, Prioridade.MEDIA));
+        droneService.adicionarPedido(new Pedido(-30, 30, 1.0, Prioridade.MEDIA));
+        Despacho area = droneService.despacharEntregas().aguardarConclusao();
+        assertEquals(3, area.getPedidosDespachados());
+        assertEquals(1, area.getTotalMissoes());
+
+        // When / Then - o pedido isolado sai ao fim da janela
+        assertEquals(0, droneService.despacharEntregas().aguardarConclusao().getPedidosDespachados());
+        droneService.getSimulacao().avancar(11 * 60_000L);
+        assertEquals(1, droneService.despacharEntregas().aguardarConclusao().getPedidosDespachados());
+
+        Map<String, Object> relatorio = droneService.getRelatorioLote();
+        @SuppressWarnings("unchecked")
+        Map<String, Long> motivos = (Map<String, Long>) relatorio.get("liberadosPorMotivo");
+        assertEquals(1L, motivos.get("ALTA"));
+        assertEquals(3L, motivos.get("AREA"));
+        assertEquals(1L, motivos.get("PRAZO"));
+        assertEquals(5L, relatorio.get("pedidosDespachados"));
+        assertEquals(0, relatorio.get("pedidosRetidos"));
+        assertTrue((Long) relatorio.get("esperaMaximaMs") >= 10 * 60_000L);
+    }
 }
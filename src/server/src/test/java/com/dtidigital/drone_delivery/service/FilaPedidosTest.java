@@ -0,0 +1,146 @@
+package com.dtidigital.drone_delivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.dtidigital.drone_delivery.enums.Prioridade;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+class FilaPedidosTest {
+
+    private FilaPedidos fila;
+
+    @BeforeEach
+    void setUp() {
+        fila = new FilaPedidos();
+    }
+
+    @Test
+    @DisplayName("Deve ordenar por prioridade e depois por distância até a base")
+    void deveOrdenarPorPrioridadeEDistancia() {
+        Pedido baixaPerto = new Pedido(1, 1, 1.0, Prioridade.BAIXA);
+        Pedido altaLonge = new Pedido(50, 50, 1.0, Prioridade.ALTA);
+        Pedido altaPerto = new Pedido(2, 2, 1.0, Prioridade.ALTA);
+        Pedido media = new Pedido(10, 10, 1.0, Prioridade.MEDIA);
+
+        fila.adicionar(baixaPerto);
+        fila.adicionar(altaLonge);
+        fila.adicionar(altaPerto);
+        fila.adicionar(media);
+
+        List<Pedido> ordem = fila.listarEmOrdem();
+        assertEquals(List.of(altaPerto, altaLonge, media, baixaPerto), ordem);
+        assertEquals(altaPerto, fila.proximo());
+        assertEquals(altaLonge, fila.proximo());
+        assertEquals(2, fila.tamanho());
+        assertEquals(media, fila.espiar());
+    }
+
+    @Test
+    @DisplayName("Deve manter ordem de chegada entre pedidos com a mesma chave")
+    void deveManterOrdemDeChegadaEmEmpate() {
+        Pedido primeiro = new Pedido(3, 4, 1.0, Prioridade.MEDIA);
+        Pedido segundo = new Pedido(4, 3, 1.0, Prioridade.MEDIA);
+
+        fila.adicionar(primeiro);
+        fila.adicionar(segundo);
+
+        assertEquals(1, fila.posicao(primeiro.getId()));
+        assertEquals(2, fila.posicao(segundo.getId()));
+    }
+
+    @Test
+    @DisplayName("Deve reposicionar pedido editado e remover por ID")
+    void deveReposicionarERemoverPorId() {
+        Pedido a = new Pedido(1, 1, 1.0, Prioridade.ALTA);
+        Pedido b = new Pedido(5, 5, 1.0, Prioridade.MEDIA);
+        Pedido c = new Pedido(9, 9, 1.0, Prioridade.BAIXA);
+        fila.adicionar(a);
+        fila.adicionar(b);
+        fila.adicionar(c);
+
+        c.setPrioridade(Prioridade.ALTA);
+        c.setX(0);
+        c.setY(0);
+        assertTrue(fila.atualizar(c.getId()));
+        assertEquals(c, fila.espiar());
+        assertEquals(3, fila.posicao(b.getId()));
+
+        assertEquals(a, fila.remover(a.getId()));
+        assertNull(fila.remover(a.getId()));
+        assertFalse(fila.contem(a.getId()));
+        assertEquals(List.of(c, b), fila.listarEmOrdem());
+    }
+
+    @Test
+    @DisplayName("Posição deve acompanhar a ordem após inserções, edições e remoções")
+    void posicaoDeveAcompanharOrdem() {
+        Random random = new Random(42);
+        List<Pedido> ativos = new ArrayList<>();
+        Prioridade[] prioridades = Prioridade.values();
+
+        for (int i = 0; i < 2000; i++) {
+            int operacao = random.nextInt(10);
+            if (operacao < 6 || ativos.isEmpty()) {
+                Pedido pedido = new Pedido(random.nextInt(100), random.nextInt(100), 1.0,
+                        prioridades[random.nextInt(prioridades.length)]);
+                fila.adicionar(pedido);
+                ativos.add(pedido);
+            } else if (operacao < 8) {
+                Pedido pedido = ativos.get(random.nextInt(ativos.size()));
+                pedido.setX(random.nextInt(100));
+                pedido.setPrioridade(prioridades[random.nextInt(prioridades.length)]);
+                fila.atualizar(pedido.getId());
+            } else {
+                Pedido pedido = ativos.remove(random.nextInt(ativos.size()));
+                assertEquals(pedido, fila.remover(pedido.getId()));
+            }
+        }
+
+        List<Pedido> ordem = fila.listarEmOrdem();
+        assertEquals(ativos.size(), fila.tamanho());
+        for (int i = 0; i < ordem.size(); i++) {
+            assertEquals(i + 1, fila.posicao(ordem.get(i).getId()));
+        }
+        for (int i = 1; i < ordem.size(); i++) {
+            assertTrue(ordem.get(i - 1).getPrioridade().compareTo(ordem.get(i).getPrioridade()) <= 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Fotografia da fila deve ficar intacta após alterações posteriores")
+    void fotografiaDeveFicarIntacta() {
+        Pedido a = new Pedido(30, 30, 1.0, Prioridade.BAIXA);
+        Pedido b = new Pedido(5, 5, 1.0, Prioridade.MEDIA);
+        Pedido c = new Pedido(10, 10, 1.0, Prioridade.MEDIA);
+        fila.adicionarTodos(List.of(a, b, c));
+
+        FilaPedidos.Visao fotografia = fila.fotografar();
+
+        a.setPrioridade(Prioridade.ALTA);
+        fila.atualizar(a.getId());
+        fila.remover(b.getId());
+        fila.adicionar(new Pedido(1, 1, 1.0, Prioridade.ALTA));
+
+        assertEquals(List.of(b.getId(), c.getId(), a.getId()),
+                fotografia.stream().map(Pedido::getId).toList());
+        assertEquals(Prioridade.BAIXA, fotografia.get(2).getPrioridade());
+        assertEquals(3, fila.tamanho());
+        assertEquals(a.getId(), fila.fotografar().get(1).getId());
+        assertThrows(UnsupportedOperationException.class, () -> fotografia.remove(0));
+
+        // Busca e posição por ID respondem pela versão fotografada
+        assertEquals(1, fotografia.posicao(b.getId()));
+        assertEquals(3, fotografia.posicao(a.getId()));
+        assertEquals(Prioridade.BAIXA, fotografia.buscar(a.getId()).getPrioridade());
+        assertEquals(-1, fila.fotografar().posicao(b.getId()));
+        assertEquals(2, fila.fotografar().posicao(a.getId()));
+    }
+}
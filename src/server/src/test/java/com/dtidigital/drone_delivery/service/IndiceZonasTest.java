@@ -0,0 +1,46 @@
+package com.dtidigital.drone_delivery.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.dtidigital.drone_delivery.model.ZonaExclusao;
+
+class IndiceZonasTest {
+
+    @Test
+    @DisplayName("Deve responder consultas de ponto e segmento como a varredura de todas as zonas")
+    void deveResponderComoVarreduraLinear() {
+        Random random = new Random(7);
+        List<ZonaExclusao> zonas = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int x = random.nextInt(1000);
+            int y = random.nextInt(1000);
+            zonas.add(new ZonaExclusao(x, y, x + random.nextInt(12), y + random.nextInt(12), "Zona " + i, "Teste"));
+        }
+        IndiceZonas indice = new IndiceZonas(zonas);
+
+        for (int consulta = 0; consulta < 2000; consulta++) {
+            int x0 = random.nextInt(1100) - 50;
+            int y0 = random.nextInt(1100) - 50;
+            int x1 = random.nextInt(1100) - 50;
+            int y1 = random.nextInt(1100) - 50;
+
+            ZonaExclusao contendo = null;
+            List<ZonaExclusao> tocadas = new ArrayList<>();
+            for (ZonaExclusao zona : zonas) {
+                if (contendo == null && zona.contemPonto(x0, y0)) contendo = zona;
+                if (zona.interceptaRota(x0, y0, x1, y1)) tocadas.add(zona);
+            }
+
+            assertSame(contendo, indice.zonaContendo(x0, y0));
+            assertEquals(tocadas, indice.interceptadas(x0, y0, x1, y1));
+            assertEquals(!tocadas.isEmpty(), indice.intercepta(x0, y0, x1, y1));
+        }
+        assertFalse(IndiceZonas.vazio().intercepta(0, 0, 10, 10));
+    }
+}
@@ -0,0 +1,84 @@
+package com.dtidigital.drone_delivery.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.dtidigital.drone_delivery.enums.Prioridade;
+import com.dtidigital.drone_delivery.model.Drone;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+/**
+ * Mede um ciclo de planejamento (alocação + sequenciamento de cada rota) com uma matriz
+ * de distâncias por etapa, como antes, e com a matriz única compartilhada no ciclo.
+ * Execução: rodar o main com o classpath de teste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrizDistanciasBenchmark {
+
+    @Param({ "50", "200" })
+    private int quantidadePedidos;
+
+    private final OtimizadorEntregas otimizador = new OtimizadorEntregas();
+    private List<Pedido> pedidos;
+    private List<Drone> drones;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(1);
+        Prioridade[] prioridades = Prioridade.values();
+        pedidos = new ArrayList<>();
+        for (int i = 0; i < quantidadePedidos; i++) {
+            pedidos.add(new Pedido("Cliente " + i, random.nextInt(41) - 20, random.nextInt(41) - 20,
+                1 + random.nextInt(4), prioridades[random.nextInt(prioridades.length)]));
+        }
+        drones = new ArrayList<>();
+        for (int i = 0; i < quantidadePedidos / 6; i++) {
+            drones.add(new Drone("DRONE-" + i, 12.0, 100.0));
+        }
+        otimizador.setOrcamentoMs(1_000);
+    }
+
+    @Benchmark
+    public void matrizPorEtapa(Blackhole blackhole) {
+        for (List<Pedido> rota : otimizador.otimizarAlocacao(drones, pedidos, new MatrizDistancias())) {
+            blackhole.consume(otimizador.otimizarRota(rota, new MatrizDistancias()));
+        }
+    }
+
+    @Benchmark
+    public void matrizCompartilhada(Blackhole blackhole) {
+        MatrizDistancias matriz = new MatrizDistancias();
+        for (List<Pedido> rota : otimizador.otimizarAlocacao(drones, pedidos, matriz)) {
+            blackhole.consume(otimizador.otimizarRota(rota, matriz));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(MatrizDistanciasBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
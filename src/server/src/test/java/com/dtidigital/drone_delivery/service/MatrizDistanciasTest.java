@@ -0,0 +1,38 @@
+package com.dtidigital.drone_delivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.dtidigital.drone_delivery.enums.Prioridade;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+class MatrizDistanciasTest {
+
+    @Test
+    @DisplayName("Deve manter as distâncias corretas ao crescer com novos pedidos")
+    void deveManterDistanciasAoCrescer() {
+        MatrizDistancias matriz = new MatrizDistancias();
+        Random random = new Random(3);
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Pedido pedido = new Pedido("Cliente " + i, random.nextInt(201) - 100, random.nextInt(201) - 100, 1.0, Prioridade.MEDIA);
+            pedidos.add(pedido);
+            assertEquals(i + 1, matriz.indice(pedido));
+        }
+
+        assertEquals(101, matriz.tamanho());
+        assertEquals(1, matriz.indice(pedidos.get(0))); // Reconsulta não cria novo nó
+        for (Pedido a : pedidos) {
+            assertEquals(Math.hypot(a.getX(), a.getY()), matriz.distanciaBase(a), 1e-9);
+            for (Pedido b : pedidos) {
+                assertEquals(Math.hypot(a.getX() - b.getX(), a.getY() - b.getY()), matriz.distancia(a, b), 1e-9);
+            }
+        }
+    }
+}
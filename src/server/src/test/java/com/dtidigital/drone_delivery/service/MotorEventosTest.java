@@ -0,0 +1,71 @@
+package com.dtidigital.drone_delivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.dtidigital.drone_delivery.enums.TipoEvento;
+
+class MotorEventosTest {
+
+    @Test
+    @DisplayName("Deve processar eventos em ordem de instante e, no empate, de agendamento")
+    void deveProcessarEmOrdem() {
+        MotorEventos motor = new MotorEventos(0);
+        List<String> ordem = new ArrayList<>();
+
+        motor.agendar(30, TipoEvento.ENTREGA, () -> ordem.add("c"));
+        motor.agendar(10, TipoEvento.DECOLAGEM, () -> ordem.add("a"));
+        motor.agendar(30, TipoEvento.RETORNO, () -> ordem.add("d"));
+        motor.agendar(20, TipoEvento.CHEGADA, () -> {
+            ordem.add("b");
+            motor.agendarApos(0, TipoEvento.ENTREGA, () -> ordem.add("b2"));
+        });
+
+        motor.processarProximos(Integer.MAX_VALUE);
+
+        assertEquals(List.of("a", "b", "b2", "c", "d"), ordem);
+        assertEquals(30, motor.agora());
+        assertEquals(2, motor.getEventosProcessados(TipoEvento.ENTREGA));
+    }
+
+    @Test
+    @DisplayName("Deve avançar o relógio virtual até o limite sem processar eventos futuros")
+    void deveAvancarRelogioAteLimite() {
+        MotorEventos motor = new MotorEventos(1_000);
+        AtomicInteger periodicos = new AtomicInteger();
+        motor.agendarPeriodico(100, 100, TipoEvento.PERIODICO, () -> true, periodicos::incrementAndGet);
+        motor.agendar(5_000, TipoEvento.RECARGA_CONCLUIDA, () -> fail("Evento fora do intervalo"));
+
+        motor.processarAte(2_000, Integer.MAX_VALUE);
+
+        assertEquals(10, periodicos.get());
+        assertEquals(2_000, motor.agora());
+        assertEquals(2_100, motor.proximoInstante());
+    }
+
+    @Test
+    @DisplayName("Deve manter a ordem do heap com muitos eventos aleatórios")
+    void deveManterOrdemComMuitosEventos() {
+        MotorEventos motor = new MotorEventos(0);
+        Random random = new Random(7);
+        long[] ultimo = { -1 };
+        int total = 200_000;
+
+        for (int i = 0; i < total; i++) {
+            motor.agendar(random.nextInt(1_000_000), TipoEvento.PERIODICO, () -> {
+                assertTrue(motor.agora() >= ultimo[0]);
+                ultimo[0] = motor.agora();
+            });
+        }
+
+        assertEquals(total, motor.processarProximos(Integer.MAX_VALUE));
+        assertTrue(motor.isVazio());
+    }
+}
@@ -7,8 +7,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
+import com.dtidigital.drone_delivery.model.Drone;
 import com.dtidigital.drone_delivery.model.Pedido;
+import com.dtidigital.drone_delivery.enums.EstrategiaAlocacao;
 import com.dtidigital.drone_delivery.enums.Prioridade;
 
 class OtimizadorEntregasTest {
@@ -51,6 +54,27 @@ class OtimizadorEntregasTest {
         }
     }
     
+    @Test
+    @DisplayName("Eficiência deve medir a rota sequenciada, não a ordem de chegada")
+    void eficienciaDeveMedirRotaSequenciada() {
+        // Given - ordem de chegada em zigue-zague entre dois extremos
+        Drone drone = new Drone("DRONE-001", 10.0, 100.0);
+        List<Pedido> chegada = List.of(
+            new Pedido("A", 10, 0, 1.0, Prioridade.MEDIA),
+            new Pedido("B", -10, 0, 1.0, Prioridade.MEDIA),
+            new Pedido("C", 11, 0, 1.0, Prioridade.MEDIA),
+            new Pedido("D", -11, 0, 1.0, Prioridade.MEDIA));
+        MatrizDistancias matriz = new MatrizDistancias(chegada.size());
+
+        // When
+        double eficienciaChegada = otimizador.calcularEficiencia(drone, chegada, matriz);
+        double eficienciaSequenciada = otimizador.calcularEficiencia(drone, otimizador.otimizarRota(chegada, matriz), matriz);
+
+        // Then - a mesma missão tem a mesma eficiência, qualquer que seja a ordem informada
+        assertEquals(eficienciaSequenciada, eficienciaChegada, 1e-9);
+        assertEquals(44.0, otimizador.calcularTempoEntrega(chegada, 1.0) - 4 * 2.0, 1e-9);
+    }
+    
     @Test
     @DisplayName("Deve otimizar distância dentro do mesmo grupo de prioridade")
     void deveOtimizarDistanciaDentroDoMesmoGrupo() {
@@ -67,4 +91,242 @@ class OtimizadorEntregasTest {
         assertEquals("Alta Próximo", rotaOtimizada.get(0).getCliente());
         assertEquals("Alta Distante", rotaOtimizada.get(1).getCliente());
     }
+    
+    @Test
+    @DisplayName("Deve reduzir a distância por entrega da frota respeitando capacidade e bateria")
+    void deveReduzirDistanciaPorEntregaDaFrota() {
+        Random random = new Random(42);
+        Prioridade[] prioridades = Prioridade.values();
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            pedidos.add(new Pedido("Cliente " + i, random.nextInt(41) - 20, random.nextInt(41) - 20,
+                1 + random.nextInt(4), prioridades[random.nextInt(prioridades.length)]));
+        }
+        List<Drone> drones = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            drones.add(new Drone("DRONE-" + i, 12.0, 100.0));
+        }
+        
+        List<List<Pedido>> vrp = otimizador.otimizarAlocacao(drones, pedidos);
+        otimizador.setEstrategia(EstrategiaAlocacao.GULOSA);
+        List<List<Pedido>> gulosa = otimizador.otimizarAlocacao(drones, pedidos);
+        
+        SimuladorBateria simuladorBateria = new SimuladorBateria();
+        assertEquals(drones.size(), vrp.size());
+        for (int i = 0; i < drones.size(); i++) {
+            List<Pedido> rota = vrp.get(i);
+            double peso = rota.stream().mapToDouble(Pedido::getPeso).sum();
+            assertTrue(peso <= drones.get(i).getCapacidadeMaxima());
+            assertTrue(simuladorBateria.bateriaSeguraParaMissao(100, distanciaRota(rota), peso));
+        }
+        
+        // Distância efetivamente voada: a sequência final de cada drone vem de otimizarRota
+        double porEntregaVrp = distanciaPorEntrega(vrp);
+        double porEntregaGulosa = distanciaPorEntrega(gulosa);
+        System.out.printf("Distância por entrega - VRP: %.2f km, gulosa: %.2f km%n", porEntregaVrp, porEntregaGulosa);
+        assertTrue(porEntregaVrp < porEntregaGulosa * 0.8);
+        assertTrue(entregas(vrp) >= entregas(gulosa));
+    }
+    
+    @Test
+    @DisplayName("Deve encurtar a rota do vizinho mais próximo com 2-opt e Or-opt")
+    void deveEncurtarRotaDoVizinhoMaisProximo() {
+        Random random = new Random(11);
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            pedidos.add(new Pedido("Cliente " + i, random.nextInt(101) - 50, random.nextInt(101) - 50, 1.0, Prioridade.MEDIA));
+        }
+        
+        // Rota de referência: vizinho mais próximo puro a partir da base
+        List<Pedido> naoVisitados = new ArrayList<>(pedidos);
+        List<Pedido> vizinhoMaisProximo = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        while (!naoVisitados.isEmpty()) {
+            final int xAtual = x;
+            final int yAtual = y;
+            Pedido proximo = naoVisitados.stream()
+                .min((a, b) -> Double.compare(Math.hypot(a.getX() - xAtual, a.getY() - yAtual),
+                                              Math.hypot(b.getX() - xAtual, b.getY() - yAtual)))
+                .orElseThrow();
+            vizinhoMaisProximo.add(proximo);
+            naoVisitados.remove(proximo);
+            x = proximo.getX();
+            y = proximo.getY();
+        }
+        
+        List<Pedido> rota = otimizador.otimizarRota(pedidos);
+        
+        assertEquals(pedidos.size(), rota.size());
+        assertTrue(rota.containsAll(pedidos));
+        double distanciaMelhorada = distanciaRota(rota);
+        double distanciaReferencia = distanciaRota(vizinhoMaisProximo);
+        System.out.printf("Rota - vizinho mais próximo: %.1f km, melhorada: %.1f km%n", distanciaReferencia, distanciaMelhorada);
+        assertTrue(distanciaMelhorada < distanciaReferencia);
+    }
+    
+    @Test
+    @DisplayName("Deve alocar em paralelo de forma determinística e sem pedidos repetidos")
+    void deveAlocarEmParaleloDeFormaDeterministica() {
+        Random random = new Random(21);
+        Prioridade[] prioridades = Prioridade.values();
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            pedidos.add(new Pedido("Cliente " + i, random.nextInt(61) - 30, random.nextInt(61) - 30,
+                1 + random.nextInt(4), prioridades[random.nextInt(prioridades.length)]));
+        }
+        List<Drone> drones = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            drones.add(new Drone("DRONE-" + i, 8.0 + i % 5, 100.0));
+        }
+        otimizador.setEstrategia(EstrategiaAlocacao.PARALELA);
+        otimizador.setLimiarAgrupamento(pedidos.size()); // Fila avaliada pedido a pedido
+        
+        List<List<Pedido>> primeira = otimizador.otimizarAlocacao(drones, pedidos);
+        List<List<Pedido>> segunda = otimizador.otimizarAlocacao(drones, pedidos);
+        
+        assertEquals(primeira, segunda);
+        assertEquals(drones.size(), primeira.size());
+        java.util.Set<Pedido> alocados = new java.util.HashSet<>();
+        int dronesComPacote = 0;
+        for (int i = 0; i < drones.size(); i++) {
+            List<Pedido> pacote = primeira.get(i);
+            double peso = pacote.stream().mapToDouble(Pedido::getPeso).sum();
+            assertTrue(peso <= drones.get(i).getCapacidadeMaxima());
+            for (Pedido pedido : pacote) {
+                assertTrue(alocados.add(pedido), "Pedido alocado a mais de um drone");
+            }
+            if (!pacote.isEmpty()) dronesComPacote++;
+        }
+        assertEquals(drones.size(), dronesComPacote);
+    }
+    
+    @Test
+    @DisplayName("Deve publicar um plano viável de imediato e só melhorá-lo até o prazo")
+    void devePublicarPlanoEMelhorarAtePrazo() {
+        Random random = new Random(7);
+        Prioridade[] prioridades = Prioridade.values();
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            pedidos.add(new Pedido("Cliente " + i, random.nextInt(41) - 20, random.nextInt(41) - 20,
+                1 + random.nextInt(3), prioridades[random.nextInt(prioridades.length)]));
+        }
+        List<Drone> drones = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            drones.add(new Drone("DRONE-" + i, 12.0, 100.0));
+        }
+        
+        List<List<Pedido>> alocacoes = otimizador.otimizarAlocacao(drones, pedidos, new MatrizDistancias(),
+            new OpcoesPlanejamento(200L, null));
+        PlanoAlocacao plano = otimizador.getUltimoPlano();
+        
+        assertEquals("CONCLUIDO", plano.getStatus());
+        assertTrue(List.of("PRAZO", "CONVERGENCIA").contains(plano.getMotivoParada()));
+        List<PlanoAlocacao.PontoMelhoria> curva = plano.getMelhorias();
+        assertFalse(curva.isEmpty());
+        for (int i = 1; i < curva.size(); i++) {
+            PlanoAlocacao.PontoMelhoria anterior = curva.get(i - 1);
+            PlanoAlocacao.PontoMelhoria atual = curva.get(i);
+            assertTrue(atual.getPedidosAtendidos() > anterior.getPedidosAtendidos()
+                || (atual.getPedidosAtendidos() == anterior.getPedidosAtendidos()
+                    && atual.getDistanciaTotal() < anterior.getDistanciaTotal()));
+        }
+        assertEquals(entregas(alocacoes), plano.getPedidosAtendidos());
+        assertEquals(curva.get(curva.size() - 1).getDistanciaTotal(), plano.getDistanciaTotal());
+        System.out.printf("Plano - %d melhorias, de %.1f para %.1f km (%s)%n", curva.size(),
+            curva.get(0).getDistanciaTotal(), plano.getDistanciaTotal(), plano.getMotivoParada());
+    }
+    
+    @Test
+    @DisplayName("Deve encerrar a otimização ao atingir a meta de km por entrega")
+    void deveEncerrarAoAtingirMeta() {
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pedidos.add(new Pedido("Cliente " + i, i, 10 - i, 1.0, Prioridade.MEDIA));
+        }
+        List<Drone> drones = List.of(new Drone("DRONE-1", 12.0, 100.0), new Drone("DRONE-2", 12.0, 100.0));
+        
+        otimizador.otimizarAlocacao(drones, pedidos, new MatrizDistancias(), new OpcoesPlanejamento(5_000L, 1_000.0));
+        PlanoAlocacao plano = otimizador.getUltimoPlano();
+        
+        assertEquals("META", plano.getMotivoParada());
+        assertEquals(1, plano.getMelhorias().size());
+        assertTrue(plano.getDecorridoMs() < 5_000);
+    }
+    
+    @Test
+    @DisplayName("Deve alocar agrupamentos inteiros quando a fila é muito grande")
+    void deveAlocarAgrupamentosEmFilaGrande() {
+        Random random = new Random(3);
+        Prioridade[] prioridades = Prioridade.values();
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            pedidos.add(new Pedido("Cliente " + i, random.nextInt(81) - 40, random.nextInt(81) - 40,
+                0.5 + random.nextInt(3), prioridades[random.nextInt(prioridades.length)]));
+        }
+        List<Drone> drones = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            drones.add(new Drone("DRONE-" + i, 8.0 + i % 5, 100.0));
+        }
+        MatrizDistancias matriz = new MatrizDistancias();
+        
+        long inicio = System.nanoTime();
+        List<List<Pedido>> alocacoes = otimizador.otimizarAlocacao(drones, pedidos, matriz);
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        
+        java.util.Set<Pedido> alocados = new java.util.HashSet<>();
+        for (int i = 0; i < drones.size(); i++) {
+            List<Pedido> rota = alocacoes.get(i);
+            assertFalse(rota.isEmpty());
+            assertTrue(rota.stream().mapToDouble(Pedido::getPeso).sum() <= drones.get(i).getCapacidadeMaxima());
+            for (Pedido pedido : rota) {
+                assertTrue(alocados.add(pedido), "Pedido alocado a mais de um drone");
+            }
+            assertTrue(rota.stream().anyMatch(p -> p.getPrioridade() == Prioridade.ALTA));
+        }
+        // Apenas os pedidos alocados entram na matriz do ciclo
+        assertTrue(matriz.tamanho() <= alocados.size() + 1);
+        System.out.printf("Agrupamentos - %d pedidos em %d ms%n", alocados.size(), duracaoMs);
+    }
+    
+    @Test
+    @DisplayName("Deve atribuir cada pacote ao drone mais próximo que o comporta")
+    void deveAtribuirPacotesPelaPosicaoDosDrones() {
+        Drone naBase = new Drone("DRONE-BASE", 10.0, 100.0);
+        Drone distante = new Drone("DRONE-DISTANTE", 10.0, 100.0);
+        distante.setPosicao(20, 20);
+        Drone pequeno = new Drone("DRONE-PEQUENO", 2.0, 100.0);
+        List<Pedido> pacoteDistante = List.of(new Pedido("Distante", 21, 20, 4.0, Prioridade.MEDIA));
+        List<Pedido> pacoteProximo = List.of(new Pedido("Próximo", 1, 1, 4.0, Prioridade.MEDIA));
+        
+        MatrizDistancias matriz = new MatrizDistancias(2);
+        List<List<Pedido>> atribuidas = otimizador.atribuirPacotes(List.of(naBase, distante, pequeno),
+            List.of(pacoteDistante, pacoteProximo, List.of()), matriz);
+        
+        assertEquals(pacoteProximo, atribuidas.get(0));
+        assertEquals(pacoteDistante, atribuidas.get(1));
+        assertTrue(atribuidas.get(2).isEmpty());
+        // Mesma medida da verificação de bateria: trecho até o primeiro pedido e volta à base pela matriz
+        assertEquals(1 + Math.hypot(21, 20), otimizador.calcularDistanciaMissao(distante, pacoteDistante, matriz), 1e-9);
+    }
+    
+    private double distanciaPorEntrega(List<List<Pedido>> alocacoes) {
+        return alocacoes.stream().mapToDouble(rota -> distanciaRota(otimizador.otimizarRota(rota))).sum() / entregas(alocacoes);
+    }
+    
+    private static int entregas(List<List<Pedido>> alocacoes) {
+        return alocacoes.stream().mapToInt(List::size).sum();
+    }
+    
+    private static double distanciaRota(List<Pedido> rota) {
+        double distancia = 0;
+        int x = 0;
+        int y = 0;
+        for (Pedido pedido : rota) {
+            distancia += Math.hypot(pedido.getX() - x, pedido.getY() - y);
+            x = pedido.getX();
+            y = pedido.getY();
+        }
+        return distancia + Math.hypot(x, y);
+    }
 }
@@ -0,0 +1,33 @@
+package com.dtidigital.drone_delivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PlanejadorSegundoPlanoTest {
+
+    @Test
+    @DisplayName("Falhas do planejamento devem ser contadas e espaçadas, sem ocupar a CPU")
+    void deveContarFalhasSemGirar() throws InterruptedException {
+        // Given - fotografias que sempre falham
+        PlanejadorSegundoPlano planejador = new PlanejadorSegundoPlano(new OtimizadorEntregas());
+
+        // When
+        planejador.iniciar(() -> { throw new IllegalStateException("fotografia indisponível"); });
+        try {
+            long limite = System.currentTimeMillis() + 2_000;
+            while (planejador.getFalhas() == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(300);
+
+            // Then - cada falha espera antes de recomeçar
+            assertTrue(planejador.getFalhas() >= 1);
+            assertTrue(planejador.getFalhas() <= 4, "Falhas sem espera: " + planejador.getFalhas());
+            assertTrue(planejador.isAtivo());
+        } finally {
+            planejador.parar();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dtidigital.drone_delivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ProcessadorComandosTest {
+
+    private final AtomicInteger lotesFinalizados = new AtomicInteger();
+    private ProcessadorComandos processador;
+
+    @BeforeEach
+    void setUp() {
+        processador = new ProcessadorComandos("teste-escritor", lotesFinalizados::incrementAndGet);
+        processador.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        processador.encerrar();
+    }
+
+    @Test
+    @DisplayName("Deve serializar escritas concorrentes em uma única thread")
+    void deveSerializarEscritasConcorrentes() throws Exception {
+        int[] contador = new int[1]; // Não é thread-safe de propósito
+        ExecutorService produtores = Executors.newFixedThreadPool(8);
+        List<Future<?>> tarefas = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            tarefas.add(produtores.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    processador.executarAcao(() -> contador[0]++);
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        produtores.shutdown();
+
+        assertEquals(8000, processador.executar(() -> contador[0]));
+        assertTrue(lotesFinalizados.get() > 0);
+    }
+
+    @Test
+    @DisplayName("Deve propagar exceções e executar chamadas reentrantes imediatamente")
+    void devePropagarExcecoesEPermitirReentrancia() {
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class,
+                () -> processador.executar(() -> { throw new IllegalArgumentException("inválido"); }));
+        assertEquals("inválido", erro.getMessage());
+
+        int resultado = processador.executar(() -> processador.executar(() -> 21) * 2);
+        assertEquals(42, resultado);
+    }
+
+    @Test
+    @DisplayName("Deve sobreviver a erro no gancho do lote e falhar comandos após o encerramento")
+    void deveSobreviverAErroNoGanchoEFalharAposEncerramento() throws Exception {
+        // Erro (não só RuntimeException) no gancho não derruba o laço
+        boolean[] falharGancho = {true};
+        ProcessadorComandos comErro = new ProcessadorComandos("teste-gancho", () -> {
+            if (falharGancho[0]) {
+                falharGancho[0] = false;
+                throw new AssertionError("falha no gancho");
+            }
+        });
+        comErro.iniciar();
+        assertEquals(1, comErro.executar(() -> 1));
+        assertEquals(2, comErro.executar(() -> 2));
+        comErro.encerrar();
+        assertThrows(IllegalStateException.class, () -> comErro.executar(() -> 3));
+
+        // Comando pendente de um processador nunca iniciado falha no encerramento
+        ProcessadorComandos parado = new ProcessadorComandos("teste-parado");
+        CompletableFuture<Integer> pendente = parado.enviar(() -> 4);
+        parado.encerrar();
+        ExecutionException erro = assertThrows(ExecutionException.class, pendente::get);
+        assertInstanceOf(IllegalStateException.class, erro.getCause());
+        assertThrows(IllegalStateException.class, parado::iniciar);
+    }
+}
@@ -0,0 +1,94 @@
+package com.dtidigital.drone_delivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.dtidigital.drone_delivery.enums.Prioridade;
+import com.dtidigital.drone_delivery.model.Drone;
+import com.dtidigital.drone_delivery.model.Pedido;
+
+class SelecionadorPacoteTest {
+
+    private final SimuladorBateria simuladorBateria = new SimuladorBateria();
+    private Drone drone;
+    private List<Pedido> pedidos;
+
+    @BeforeEach
+    void setUp() {
+        drone = new Drone("DRONE-MOCHILA", 10.0, 100.0);
+        drone.consumirBateria(40); // Bateria limita a distância do pacote
+        Random random = new Random(5);
+        Prioridade[] prioridades = Prioridade.values();
+        pedidos = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            pedidos.add(new Pedido("Cliente " + i, random.nextInt(61) - 30, random.nextInt(61) - 30,
+                1 + random.nextInt(5), prioridades[random.nextInt(prioridades.length)]));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve encontrar o pacote ótimo sob capacidade e bateria")
+    void deveEncontrarPacoteOtimo() {
+        MatrizDistancias matriz = new MatrizDistancias();
+        List<Pedido> pacote = new SelecionadorPacote(simuladorBateria, matriz, drone, pedidos, 1_000_000)
+            .selecionar(List.of());
+
+        // Força bruta sobre todos os subconjuntos (na ordem original)
+        double melhor = 0;
+        for (int mascara = 1; mascara < (1 << pedidos.size()); mascara++) {
+            List<Pedido> subconjunto = new ArrayList<>();
+            for (int i = 0; i < pedidos.size(); i++) {
+                if ((mascara & (1 << i)) != 0) subconjunto.add(pedidos.get(i));
+            }
+            if (viavel(subconjunto, matriz)) {
+                melhor = Math.max(melhor, eficiencia(subconjunto, matriz));
+            }
+        }
+
+        assertTrue(viavel(pacote, matriz));
+        assertEquals(melhor, eficiencia(pacote, matriz), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Deve devolver a solução gulosa quando o limite de nós se esgota")
+    void deveManterSolucaoGulosaSemOrcamento() {
+        MatrizDistancias matriz = new MatrizDistancias();
+        List<Pedido> guloso = List.of(pedidos.get(0));
+        assertTrue(viavel(guloso, matriz));
+
+        List<Pedido> pacote = new SelecionadorPacote(simuladorBateria, matriz, drone, pedidos, 1).selecionar(guloso);
+
+        assertEquals(guloso, pacote);
+    }
+
+    private boolean viavel(List<Pedido> pacote, MatrizDistancias matriz) {
+        double peso = pacote.stream().mapToDouble(Pedido::getPeso).sum();
+        return peso <= drone.getCapacidadeMaxima()
+            && simuladorBateria.bateriaSeguraParaMissao(drone.getBateriaAtual(), distancia(pacote, matriz), peso);
+    }
+
+    private double eficiencia(List<Pedido> pacote, MatrizDistancias matriz) {
+        double peso = pacote.stream().mapToDouble(Pedido::getPeso).sum();
+        double distancia = distancia(pacote, matriz);
+        double prioridade = pacote.stream().mapToDouble(p -> OtimizadorEntregas.pontuacaoPrioridade(p.getPrioridade())).average().orElse(0);
+        return OtimizadorEntregas.eficiencia(peso / drone.getCapacidadeMaxima(),
+            distancia > 0 ? Math.max(1, 100.0 / distancia) : 0, prioridade);
+    }
+
+    private double distancia(List<Pedido> pacote, MatrizDistancias matriz) {
+        double total = 0;
+        int atual = MatrizDistancias.BASE;
+        for (Pedido pedido : pacote) {
+            total += matriz.distancia(atual, matriz.indice(pedido));
+            atual = matriz.indice(pedido);
+        }
+        return total + matriz.distancia(atual, MatrizDistancias.BASE);
+    }
+}
@@ -0,0 +1,97 @@
+package com.dtidigital.drone_delivery.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.dtidigital.drone_delivery.enums.ModoSimulacao;
+import com.dtidigital.drone_delivery.enums.TipoEvento;
+
+class SimulacaoEventosTest {
+
+    private final long[] relogio = {1_000};
+    private ProcessadorComandos processador;
+    private SimulacaoEventos simulacao;
+
+    @BeforeEach
+    void setUp() {
+        processador = new ProcessadorComandos("teste-simulacao");
+        simulacao = new SimulacaoEventos(processador, () -> relogio[0]);
+        processador.iniciar(); // Sem condutor: o relógio só anda pelo teste
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulacao.encerrar();
+        processador.encerrar();
+    }
+
+    @Test
+    @DisplayName("Deve usar o relógio injetado e avançar de forma determinística")
+    void deveUsarRelogioInjetado() {
+        List<Long> disparos = new ArrayList<>();
+        processador.executarAcao(() -> simulacao.agendar(500, TipoEvento.PERIODICO, () -> disparos.add(simulacao.agora())));
+        assertEquals(1_000L, processador.executar(simulacao::agora));
+
+        Map<String, Object> resultado = simulacao.avancar(500);
+
+        assertEquals(List.of(1_500L), disparos);
+        assertEquals(1_500L, resultado.get("instanteSimulado"));
+        assertEquals(1L, resultado.get("eventosProcessados"));
+    }
+
+    @Test
+    @DisplayName("Ler o relógio não deve disparar eventos vencidos no meio do comando")
+    void lerRelogioNaoDeveDispararEventos() {
+        List<Long> disparos = new ArrayList<>();
+        processador.executarAcao(() -> simulacao.agendar(100, TipoEvento.RECARGA_CONCLUIDA, () -> disparos.add(simulacao.agora())));
+        relogio[0] = 1_300;
+
+        // O comando vê o tempo andar, mas o estado só muda na fronteira do lote
+        assertEquals(1_300L, processador.executar(simulacao::agora));
+        assertTrue(disparos.isEmpty());
+
+        processador.executarAcao(simulacao::processarVencidos);
+        assertEquals(List.of(1_100L), disparos);
+    }
+
+    @Test
+    @DisplayName("Condutor em velocidade máxima deve dormir com o heap vazio")
+    void condutorDeveDormirSemEventos() throws InterruptedException {
+        AtomicInteger lotes = new AtomicInteger();
+        SimulacaoEventos[] conduzida = new SimulacaoEventos[1];
+        ProcessadorComandos escritor = new ProcessadorComandos("teste-condutor", () -> {
+            lotes.incrementAndGet();
+            conduzida[0].sinalizar();
+        });
+        conduzida[0] = new SimulacaoEventos(escritor, () -> relogio[0]);
+        conduzida[0].setModo(ModoSimulacao.VELOCIDADE_MAXIMA);
+        escritor.iniciar();
+        conduzida[0].iniciar();
+        try {
+            AtomicInteger disparos = new AtomicInteger();
+            escritor.executarAcao(() -> conduzida[0].agendar(60_000, TipoEvento.PERIODICO, disparos::incrementAndGet));
+            long limite = System.currentTimeMillis() + 2_000;
+            while (disparos.get() == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, disparos.get());
+
+            Thread.sleep(50);
+            int lotesAposDrenar = lotes.get();
+            Thread.sleep(200);
+            assertEquals(lotesAposDrenar, lotes.get()); // Nenhum lote novo: o condutor não gira
+        } finally {
+            conduzida[0].encerrar();
+            escritor.encerrar();
+        }
+    }
+}